@@ -91,6 +91,26 @@ tasks.register<JavaExec>("runConsole") {
     standardOutput = System.out
 }
 
+// Task to run the BenchmarkApp class, measuring all registered algorithms.
+// ./gradlew runBenchmark --console=plain --args="100 500"
+tasks.register<JavaExec>("runBenchmark") {
+    description = "Runs the benchmark of all maze algorithms"
+    group = "application"
+
+    mainModule.set("fr.connexe")
+    mainClass.set("fr.connexe.BenchmarkApp")
+
+    classpath = sourceSets.main.get().runtimeClasspath
+
+    // Make sure it uses our java toolchain (Java 24)
+    javaLauncher.set(javaToolchains.launcherFor(java.toolchain))
+
+    // Large mazes need a lot of memory
+    maxHeapSize = "4g"
+
+    standardOutput = System.out
+}
+
 // Configure the "run" task. Must be AFTER the "application" block for some reason?!
 tasks.withType<JavaExec> {
     jvmArgs(
@@ -0,0 +1,365 @@
+package fr.connexe;
+
+import fr.connexe.algo.GraphMaze;
+import fr.connexe.algo.HierarchicalPathfinder;
+import fr.connexe.algo.MazeSolver;
+import fr.connexe.algo.SolveListener;
+import fr.connexe.algo.TreeIndex;
+import fr.connexe.algo.generation.MazeGenResult;
+import fr.connexe.algo.generation.MazeGenerationAlgorithm;
+import fr.connexe.algo.generation.MazeGenerationAlgorithms;
+import fr.connexe.algo.generation.MazeGenerator;
+import fr.connexe.algo.solving.MazeSolvingAlgorithm;
+import fr.connexe.algo.solving.MazeSolvingAlgorithms;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.lang.System.out;
+
+/// Measures the performance of all registered maze algorithms, on square mazes of various sizes.
+///
+/// Usage: `BenchmarkApp [size...]`, where each size is the width and height of the mazes to generate.
+/// When no size is given, [#DEFAULT_SIZES] are used.
+///
+/// Algorithms are run a few times to warm up the JVM, then the average time is measured.
+/// Sizes above the [recommended size][MazeGenerationAlgorithm.Descriptor#maxRecommendedSize()]
+/// of an algorithm are skipped.
+///
+/// Then, the [#SOLVING_ALGORITHMS] are compared on mazes with [more and more chaos][#SOLVING_CHAOS].
+///
+/// Finally, the parallel BFS of [MazeSolver#distanceField(GraphMaze, int, ForkJoinPool)] is measured on imperfect
+/// mazes of the same sizes, with [#BFS_THREADS] threads, to see how well it scales. It's compared with
+/// the bit-parallel BFS of [MazeSolver#distanceLayers(GraphMaze, int)].
+///
+/// Then, the [HierarchicalPathfinder] answers [#HPA_QUERIES] random queries, compared with A*.
+///
+/// Last, the [TreeIndex] of a perfect maze answers [#TREE_QUERIES] random distance queries. The first
+/// [#TREE_CHECKS] ones are checked against a BFS, which is timed too.
+public class BenchmarkApp {
+    /// Sizes to benchmark when none are given in the command line.
+    public static final int[] DEFAULT_SIZES = {50, 100, 250, 500, 1000};
+
+    /// Numbers of threads to run the parallel BFS with.
+    public static final int[] BFS_THREADS = {1, 2, 4, 8, 16};
+
+    /// Solving algorithms to compare, on mazes with more and more chaos.
+    public static final String[] SOLVING_ALGORITHMS = {"dijkstra", "a-star", "jps", "dead-end-filling",
+            "corridor-a-star"};
+    /// Chaos levels of the mazes to solve, see [MazeGenerator#introduceChaos(MazeGenResult, float, Long)].
+    public static final float[] SOLVING_CHAOS = {0.0f, 0.1f, 0.25f, 0.5f};
+
+    /// Number of random queries given to the hierarchical pathfinder.
+    public static final int HPA_QUERIES = 200;
+
+    /// Number of random distance queries given to the tree index.
+    public static final int TREE_QUERIES = 100_000;
+    /// Number of tree index queries checked against a BFS.
+    public static final int TREE_CHECKS = 20;
+
+    // Number of runs to warm up the JVM, which aren't measured.
+    private static final int WARMUP_RUNS = 2;
+    // Number of measured runs.
+    private static final int MEASURED_RUNS = 5;
+
+    // Don't allow instantiation of this class
+    private BenchmarkApp() {}
+
+    /// The main method of the benchmark application.
+    ///
+    /// @param args the sizes of the mazes to generate (optional)
+    public static void main(String[] args) {
+        int[] sizes = parseSizes(args);
+        if (sizes == null) {
+            return;
+        }
+
+        out.println("=== GÉNÉRATION ===");
+        out.println("Processeurs disponibles : " + Runtime.getRuntime().availableProcessors());
+        for (MazeGenerationAlgorithm algorithm : MazeGenerationAlgorithms.all()) {
+            benchmarkGeneration(algorithm, sizes);
+        }
+
+        out.println();
+        out.println("=== RÉSOLUTION ===");
+        for (int size : sizes) {
+            for (float chaos : SOLVING_CHAOS) {
+                benchmarkSolving(size, chaos);
+            }
+        }
+
+        out.println();
+        out.println("=== BFS PARALLÈLE ===");
+        for (int size : sizes) {
+            benchmarkParallelBFS(size);
+        }
+
+        out.println();
+        out.println("=== HPA* ===");
+        for (int size : sizes) {
+            benchmarkHierarchical(size);
+        }
+
+        out.println();
+        out.println("=== INDEX D'ARBRE (LCA) ===");
+        for (int size : sizes) {
+            benchmarkTreeIndex(size);
+        }
+    }
+
+    // Measures the average time to generate a maze for each size.
+    private static void benchmarkGeneration(MazeGenerationAlgorithm algorithm, int[] sizes) {
+        MazeGenerationAlgorithm.Descriptor desc = algorithm.descriptor();
+        out.println();
+        out.println(desc.displayName() + " (" + desc.id() + ")"
+                + (desc.parallelCapable() ? " [parallèle]" : "")
+                + (desc.streamingCapable() ? " [flux]" : ""));
+
+        for (int size : sizes) {
+            if (size > desc.maxRecommendedSize()) {
+                out.printf("  %6d x %-6d ignoré (taille recommandée : %d max)%n",
+                        size, size, desc.maxRecommendedSize());
+                continue;
+            }
+
+            // Warm up the JVM so the JIT compiler can do its job
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                algorithm.generate(size, size, null, (long) i);
+            }
+
+            // Measure the average time with fixed seeds, so results can be compared between runs
+            long total = 0;
+            for (int i = 0; i < MEASURED_RUNS; i++) {
+                long start = System.nanoTime();
+                algorithm.generate(size, size, null, 1000L + i);
+                total += System.nanoTime() - start;
+            }
+            out.printf("  %6d x %-6d %10.2f ms%n", size, size, total / (MEASURED_RUNS * 1e6));
+        }
+    }
+
+    // Measures the average time to solve a maze made imperfect with some chaos, and the number of cells visited,
+    // for each algorithm to compare.
+    private static void benchmarkSolving(int size, float chaos) {
+        MazeGenResult result = MazeGenerationAlgorithms.find("recursive-division").orElseThrow()
+                .generate(size, size, null, 1000L);
+        if (chaos > 0) {
+            MazeGenerator.introduceChaos(result, chaos, 1000L);
+        }
+        GraphMaze maze = result.maze();
+
+        out.println();
+        out.printf("%d x %d, chaos %.2f%n", size, size, chaos);
+        for (String id : SOLVING_ALGORITHMS) {
+            MazeSolvingAlgorithm algorithm = MazeSolvingAlgorithms.find(id).orElseThrow();
+            MazeSolvingAlgorithm.Descriptor desc = algorithm.descriptor();
+            if (size > desc.maxRecommendedSize()) {
+                out.printf("  %-24s ignoré (taille recommandée : %d max)%n", desc.displayName(),
+                        desc.maxRecommendedSize());
+                continue;
+            }
+
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                algorithm.solve(maze);
+            }
+
+            long total = 0;
+            for (int i = 0; i < MEASURED_RUNS; i++) {
+                long start = System.nanoTime();
+                algorithm.solve(maze);
+                total += System.nanoTime() - start;
+            }
+
+            // Count the visited cells once, outside the measured runs.
+            int[] visited = {0};
+            algorithm.solve(maze, new SolveListener() {
+                @Override
+                public void onVisit(int vertex) {
+                    visited[0]++;
+                }
+            });
+            out.printf("  %-24s %10.2f ms %10d visites%n", desc.displayName(), total / (MEASURED_RUNS * 1e6),
+                    visited[0]);
+        }
+    }
+
+    // Measures the average time to compute the distance field of an imperfect maze, for each number of threads,
+    // then with the bit-parallel BFS.
+    // Imperfect mazes have cycles, so the BFS frontiers get wide enough to be split between threads.
+    private static void benchmarkParallelBFS(int size) {
+        MazeGenResult result = MazeGenerationAlgorithms.find("recursive-division").orElseThrow()
+                .generate(size, size, null, 1000L);
+        MazeGenerator.introduceChaos(result, 0.3f, 1000L);
+        GraphMaze maze = result.maze();
+
+        out.println();
+        out.printf("%d x %d%n", size, size);
+        double baseline = 0;
+        for (int threads : BFS_THREADS) {
+            try (var pool = new ForkJoinPool(threads)) {
+                for (int i = 0; i < WARMUP_RUNS; i++) {
+                    MazeSolver.distanceField(maze, maze.getStart(), pool);
+                }
+
+                long total = 0;
+                for (int i = 0; i < MEASURED_RUNS; i++) {
+                    long start = System.nanoTime();
+                    MazeSolver.distanceField(maze, maze.getStart(), pool);
+                    total += System.nanoTime() - start;
+                }
+
+                // The speedup is relative to the run with one thread, which is the first one.
+                double ms = total / (MEASURED_RUNS * 1e6);
+                if (threads == 1) {
+                    baseline = ms;
+                }
+                out.printf("  %2d thread(s) %10.2f ms  (x%.2f)%n", threads, ms, baseline / ms);
+            }
+        }
+
+        // The bit-parallel BFS, including the time to make the wall bitmaps.
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            MazeSolver.distanceLayers(maze, maze.getStart());
+        }
+        long total = 0;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            MazeSolver.distanceLayers(maze, maze.getStart());
+            total += System.nanoTime() - start;
+        }
+        double ms = total / (MEASURED_RUNS * 1e6);
+        out.printf("  bits x64     %10.2f ms  (x%.2f)%n", ms, baseline / ms);
+    }
+
+    // Measures the time to build a hierarchical pathfinder, then the average time of random queries,
+    // compared with A* on the same queries, and the time of a query right after a few edits.
+    private static void benchmarkHierarchical(int size) {
+        MazeGenResult result = MazeGenerationAlgorithms.find("recursive-division").orElseThrow()
+                .generate(size, size, null, 1000L);
+        MazeGenerator.introduceChaos(result, 0.1f, 1000L);
+        GraphMaze maze = result.maze();
+
+        // The same queries for both, with a fixed seed. Chaos adds walls too: only pick cells reachable
+        // from the start, so every query has a path.
+        BitSet reachable = MazeSolver.reachableCells(maze, maze.getStart());
+        var random = new Random(1000L);
+        int[] starts = new int[HPA_QUERIES], ends = new int[HPA_QUERIES];
+        for (int i = 0; i < HPA_QUERIES; i++) {
+            starts[i] = randomCell(reachable, maze.getNumCells(), random);
+            do {
+                ends[i] = randomCell(reachable, maze.getNumCells(), random);
+            } while (ends[i] == starts[i]);
+        }
+
+        out.println();
+        out.printf("%d x %d%n", size, size);
+        long start = System.nanoTime();
+        try (var pathfinder = new HierarchicalPathfinder(maze)) {
+            out.printf("  construction  %10.2f ms  (%d entrées)%n", (System.nanoTime() - start) / 1e6,
+                    pathfinder.getEntranceCount());
+
+            for (int i = 0; i < HPA_QUERIES; i++) {
+                pathfinder.shortestPath(starts[i], ends[i], SolveListener.NONE); // Warm up
+            }
+            start = System.nanoTime();
+            for (int i = 0; i < HPA_QUERIES; i++) {
+                pathfinder.shortestPath(starts[i], ends[i], SolveListener.NONE);
+            }
+            out.printf("  requête HPA*  %10.3f ms%n", (System.nanoTime() - start) / (HPA_QUERIES * 1e6));
+
+            start = System.nanoTime();
+            for (int i = 0; i < HPA_QUERIES; i++) {
+                maze.setEndpoints(starts[i], ends[i]);
+                MazeSolver.solveAStar(maze, SolveListener.NONE);
+            }
+            out.printf("  requête A*    %10.3f ms%n", (System.nanoTime() - start) / (HPA_QUERIES * 1e6));
+
+            // Open a few walls far apart: only their clusters are built again.
+            for (int i = 0; i < 10; i++) {
+                int v = random.nextInt(maze.getNumCells() - size);
+                maze.connect(v, v + size);
+            }
+            start = System.nanoTime();
+            pathfinder.shortestPath(starts[0], ends[0], SolveListener.NONE);
+            out.printf("  après 10 modifications %7.3f ms%n", (System.nanoTime() - start) / 1e6);
+        }
+    }
+
+    // Measures the time to build the tree index of a perfect maze, then the average time of random distance
+    // queries. A few of them are checked against a BFS from their first cell, whose time is shown for comparison.
+    private static void benchmarkTreeIndex(int size) {
+        GraphMaze maze = MazeGenerationAlgorithms.find("recursive-division").orElseThrow()
+                .generate(size, size, null, 1000L).maze();
+
+        // The same queries for every size, with a fixed seed.
+        var random = new Random(1000L);
+        int n = maze.getNumCells();
+        int[] from = new int[TREE_QUERIES], to = new int[TREE_QUERIES];
+        for (int i = 0; i < TREE_QUERIES; i++) {
+            from[i] = random.nextInt(n);
+            to[i] = random.nextInt(n);
+        }
+
+        out.println();
+        out.printf("%d x %d%n", size, size);
+        long start = System.nanoTime();
+        TreeIndex index = TreeIndex.of(maze).orElseThrow();
+        out.printf("  construction  %10.2f ms%n", (System.nanoTime() - start) / 1e6);
+
+        long sum = 0; // Keep the results, so the JIT doesn't skip the queries.
+        for (int i = 0; i < TREE_QUERIES; i++) {
+            sum += index.distance(from[i], to[i]); // Warm up
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < TREE_QUERIES; i++) {
+            sum += index.distance(from[i], to[i]);
+        }
+        out.printf("  requête LCA   %10.5f ms  (somme %d)%n", (System.nanoTime() - start) / (TREE_QUERIES * 1e6), sum);
+
+        int correct = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < TREE_CHECKS; i++) {
+            if (MazeSolver.distanceField(maze, from[i]).distanceTo(to[i]) == index.distance(from[i], to[i])) {
+                correct++;
+            }
+        }
+        out.printf("  requête BFS   %10.3f ms  (%d/%d identiques)%n", (System.nanoTime() - start) / (TREE_CHECKS * 1e6),
+                correct, TREE_CHECKS);
+    }
+
+    // Picks a random cell among the given ones.
+    private static int randomCell(BitSet cells, int numCells, Random random) {
+        int cell;
+        do {
+            cell = random.nextInt(numCells);
+        } while (!cells.get(cell));
+        return cell;
+    }
+
+    // Reads the sizes given in the command line, or returns the default sizes.
+    // Returns null when a size is invalid.
+    private static int[] parseSizes(String[] args) {
+        if (args.length == 0) {
+            return DEFAULT_SIZES;
+        }
+
+        List<Integer> sizes = new ArrayList<>();
+        for (String arg : args) {
+            try {
+                int size = Integer.parseInt(arg);
+                if (size < 2) {
+                    out.println("Taille trop petite : " + arg);
+                    return null;
+                }
+                sizes.add(size);
+            } catch (NumberFormatException e) {
+                out.println("Taille invalide : " + arg);
+                return null;
+            }
+        }
+        return sizes.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -1,17 +1,23 @@
 package fr.connexe;
 
 import fr.connexe.algo.GraphMaze;
-import fr.connexe.algo.MazeSolver;
+import fr.connexe.algo.SolveListener;
 import fr.connexe.algo.generation.MazeGenResult;
+import fr.connexe.algo.generation.MazeGenerationAlgorithm;
+import fr.connexe.algo.generation.MazeGenerationAlgorithms;
 import fr.connexe.algo.generation.MazeGenerator;
+import fr.connexe.algo.solving.MazeSolvingAlgorithm;
+import fr.connexe.algo.solving.MazeSolvingAlgorithms;
+import fr.connexe.algo.solving.SolveCache;
 import java.util.List;
-import java.util.Stack;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.InputMismatchException;
+import java.util.Optional;
 import java.util.Scanner;
-import java.util.Stack;
+import java.util.function.Function;
 
 import static java.lang.System.out;
 
@@ -106,21 +112,23 @@ public class ConsoleApp {
             }
         }
 
-        // Give the algorithm to generate the maze( DFS et Prim )
-        out.print("Veuillez me dire votre algo de generation (DFS ou Prim): ");
-        String s = scanner.nextLine();
+        // Give the algorithm to generate the maze, from all registered algorithms
+        List<MazeGenerationAlgorithm> algorithms = MazeGenerationAlgorithms.all();
+        out.println("Choisissez un algorithme de génération :");
+        printChoices(algorithms, a -> a.descriptor().displayName() + " (" + a.descriptor().id() + ")");
+        out.print("Votre choix (numéro ou nom) : ");
+        String s = scanner.nextLine().trim();
 
-        // Run the generation algorithm
-        MazeGenResult genResult;
-        if (s.equalsIgnoreCase("DFS")) {
-            genResult = MazeGenerator.makeDFS(width, height, seed);
-        } else if (s.equalsIgnoreCase("Prim")) {
-            genResult = MazeGenerator.makePrim(width, height, seed);
-        } else {
+        // Find the algorithm using either its number or its id
+        MazeGenerationAlgorithm algorithm = choose(algorithms, MazeGenerationAlgorithms::find, s);
+        if (algorithm == null) {
             out.println("Algo invalide.");
             return;
         }
 
+        // Run the generation algorithm
+        MazeGenResult genResult = algorithm.generate(width, height, null, seed);
+
         // See if we want to have an imperfect maze
         out.print("Voulez-vous un labyrinthe parfait ? [O/N] ");
         String answer = scanner.nextLine();
@@ -177,6 +185,31 @@ public class ConsoleApp {
         out.println(currentMaze);
     }
 
+    // Prints a numbered list of choices, beginning at 1.
+    private static <T> void printChoices(List<T> all, Function<T, String> label) {
+        for (int i = 0; i < all.size(); i++) {
+            out.println((i + 1) + ". " + label.apply(all.get(i)));
+        }
+    }
+
+    // Finds the choice of the user, using either its name (with "find") or its number in the list, beginning at 1.
+    // Returns null when the input matches neither.
+    private static <T> T choose(List<T> all, Function<String, Optional<T>> find, String input) {
+        Optional<T> found = find.apply(input);
+        if (found.isPresent()) {
+            return found.get();
+        }
+        try {
+            int index = Integer.parseInt(input) - 1;
+            if (index >= 0 && index < all.size()) {
+                return all.get(index);
+            }
+        } catch (NumberFormatException e) {
+            // Not a number either, it's invalid
+        }
+        return null;
+    }
+
     // Solves the current maze using MazeSolver
     private static void solveMaze() {
         if (currentMaze == null) {
@@ -184,97 +217,71 @@ public class ConsoleApp {
             return;
         }
 
+        // Give the algorithm to solve the maze, from all registered algorithms
+        List<MazeSolvingAlgorithm> algorithms = MazeSolvingAlgorithms.all();
         out.println("Choisissez un algorithme de résolution :");
-        out.println("1. DFS");
-        out.println("2. LeftHand");
-        out.println("3. Clockwise");
-        out.println("4. Dijkstra");
-        out.println("5. A* ");
-        out.print("Votre choix : ");
-        String algoChoice = scanner.nextLine();
-
-        // Ask if user wants step-by-step mode for supported algorithms
-        boolean stepByStep = false;
-        out.print("Souhaitez-vous une résolution pas à pas ? [O/N] : ");
-        stepByStep = scanner.nextLine().trim().equalsIgnoreCase("O");
+        printChoices(algorithms, a -> a.descriptor().displayName() + " (" + a.descriptor().id() + ")");
+        out.print("Votre choix (numéro ou nom) : ");
+        String algoChoice = scanner.nextLine().trim();
+
+        // Find the algorithm using either its number or its id
+        MazeSolvingAlgorithm algorithm = choose(algorithms, MazeSolvingAlgorithms::find, algoChoice);
+        if (algorithm == null) {
+            out.println("Choix invalide.");
+            return;
+        }
 
-        Stack<Integer> path = null;
-        List<Stack<Integer>> steps = null;
+        // Ask if user wants step-by-step mode
+        out.print("Souhaitez-vous une résolution pas à pas ? [O/N] : ");
+        boolean stepByStep = scanner.nextLine().trim().equalsIgnoreCase("O");
 
-        switch (algoChoice) {
-            case "1":
-                if (stepByStep) {
-                    steps = MazeSolver.prepDFS2(currentMaze);
-                } else {
-                    path = MazeSolver.prepDFS(currentMaze);
-                }
-                break;
-            case "2":
-                if (stepByStep) {
-                    steps = MazeSolver.prepLeftHand2(currentMaze);
-                } else {
-                    path = MazeSolver.prepLeftHand(currentMaze); // no step-by-step available
-                }
-                break;
-            case "3":
-                if (stepByStep) {
-                    steps = MazeSolver.prepClockwise2(currentMaze);
-                } else {
-                    path = MazeSolver.prepClockwise(currentMaze);
-                }
-                break;
-            case "4":
-                if (stepByStep) {
-                    steps = MazeSolver.solveDijkstra2(currentMaze);
-                } else {
-                    path = MazeSolver.solveDijkstra(currentMaze);
-                }
-                break;
-            case "5":
-                if (stepByStep) {
-                    steps = MazeSolver.solveAStar(currentMaze);
-                } else {
-                    path = MazeSolver.prepAStar(currentMaze);
+        int[] path;
+        if (stepByStep) {
+            // Print every step as soon as the algorithm takes it
+            path = SolveCache.solve(algorithm, currentMaze, new SolveListener() {
+                @Override
+                public void onVisit(int vertex) {
+                    printStep("visite", vertex);
                 }
-                break;
-            default:
-                out.println("Choix invalide.");
-                return;
-        }
 
-        // Step-by-step display
-        if (stepByStep) {
-            List<Stack<Integer>> reversed = steps.reversed();
-            boolean isFirstStep = false; // The first step of the reversed list is the final step, don't show it!
-
-            for (Stack<Integer> step : reversed) {
-                if (!isFirstStep) {
-                    // First step is the final step, don't show it
-                    isFirstStep = true;
-                    continue;
+                @Override
+                public void onVisitFromEnd(int vertex) {
+                    printStep("visite depuis l'arrivée", vertex);
                 }
 
-                out.println("Étape : " + step);
-                try {
-                    Thread.sleep(100); // 0.1 second delay between steps
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
+                @Override
+                public void onBacktrack(int vertex) {
+                    printStep("retour", vertex);
                 }
-            }
 
-            out.println("Chemin final : " + steps.getFirst());
+                @Override
+                public void onBlock(int vertex) {
+                    printStep("impasse", vertex);
+                }
+            });
+            out.println("Chemin final : " + Arrays.toString(path));
         } else {
-            // Not step-by-step
-            if (path == null || path.isEmpty()) {
+            path = SolveCache.solve(algorithm, currentMaze, SolveListener.NONE);
+            if (path.length == 0) {
                 out.println("Aucun chemin trouvé !");
             } else {
-                out.println("Chemin trouvé : " + path);
+                out.println("Chemin trouvé : " + Arrays.toString(path));
             }
         }
 
         out.println(currentMaze);
     }
 
+    // Prints a step of a solving algorithm, then waits a bit so the user can follow along
+    private static void printStep(String kind, int vertex) {
+        out.println("Étape : " + kind + " " + vertex);
+        try {
+            Thread.sleep(100); // 0.1 second delay between steps
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
 
     // Saves the current maze to a file
     private static void saveMaze() {
@@ -0,0 +1,65 @@
+package fr.connexe.algo;
+
+import java.util.*;
+import java.util.function.Function;
+
+/// A list of algorithms discovered using [ServiceLoader], each one having a unique id.
+///
+/// Algorithms come from the `provides` declarations in `module-info.java`, which must also declare
+/// `uses` for the service. They're listed in the same order as declared there, and loaded the first time
+/// they're needed.
+///
+/// @param <T> the type of the algorithms (the service interface)
+public final class AlgorithmRegistry<T> {
+    private final Class<T> service;
+    private final Function<T, String> id;
+    private final String kind;
+
+    // All algorithms, loaded the first time we need them.
+    private List<T> algorithms;
+
+    /// Creates a registry for the given service. Nothing is loaded until [#all()] or [#find(String)] is called.
+    ///
+    /// @param service the service interface to load
+    /// @param id      gives the id of an algorithm
+    /// @param kind    the kind of algorithms, used in error messages (e.g. `generation`)
+    public AlgorithmRegistry(Class<T> service, Function<T, String> id, String kind) {
+        this.service = Objects.requireNonNull(service);
+        this.id = Objects.requireNonNull(id);
+        this.kind = Objects.requireNonNull(kind);
+    }
+
+    /// Returns all available algorithms.
+    ///
+    /// @return an unmodifiable list of all algorithms, in their declaration order
+    /// @throws IllegalStateException when two algorithms have the same id
+    public synchronized List<T> all() {
+        if (algorithms == null) {
+            var loaded = new ArrayList<T>();
+            var ids = new HashSet<String>();
+            for (T algorithm : ServiceLoader.load(service)) {
+                // Make sure ids are unique, so find() doesn't pick one randomly.
+                String algorithmId = id.apply(algorithm);
+                if (!ids.add(algorithmId.toLowerCase(Locale.ROOT))) {
+                    throw new IllegalStateException("Two " + kind + " algorithms have the same id: " + algorithmId);
+                }
+                loaded.add(algorithm);
+            }
+            algorithms = List.copyOf(loaded);
+        }
+        return algorithms;
+    }
+
+    /// Finds an algorithm using its id, ignoring case.
+    ///
+    /// @param id the id of the algorithm to find
+    /// @return the algorithm with this id, or an empty [Optional] if there's none
+    public Optional<T> find(String id) {
+        for (T algorithm : all()) {
+            if (this.id.apply(algorithm).equalsIgnoreCase(id)) {
+                return Optional.of(algorithm);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,309 @@
+package fr.connexe.algo;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/// A BFS which expands its frontier **64 cells at a time**, using bitmaps of the open walls of a maze.
+///
+/// The walls of the maze are copied into two bitmaps: one bit per cell telling if its right wall is open,
+/// and one telling if its bottom wall is open. The frontier and the visited cells are bitmaps too.
+/// The next frontier of a word of 64 cells is then found with a few bitwise operations:
+/// ```
+/// next = ((frontier & right) << 1)      // moving right
+///      | ((frontier >>> 1) & right)     // moving left
+///      | (above & down[row above])      // moving down
+///      | (below & down)                 // moving up
+///      & ~visited
+///```
+/// with the bits crossing words taken from the neighboring words.
+///
+/// Each row of the bitmaps begins on a new word, and is surrounded by empty words, so bits never leak
+/// to another row, and neighboring words always exist.
+///
+/// The BFS picks the cheapest way to expand each level:
+/// - **sparse** levels (a thin frontier, like in corridors) only go through the words of the frontier;
+/// - **dense** levels (a wide frontier, in open or imperfect mazes) sweep all the rows of the frontier,
+///   one `long` word after the other, in a loop simple enough for the JIT to unroll.
+///
+/// Since the bitmaps are a snapshot of the maze, one [BitParallelBFS] can run many searches, but must be
+/// made again when the maze changes.
+public final class BitParallelBFS {
+    // Use the dense sweep when at least 1/DENSE_RATIO of the words of the swept rows are in the frontier.
+    private static final int DENSE_RATIO = 4;
+
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+    // The number of words between two rows: wordsPerRow, and an empty word on both sides.
+    private final int stride;
+    // The open walls, one bit per cell: towards the right cell, and towards the bottom cell.
+    // There's an empty row above and below the maze.
+    private final long[] right;
+    private final long[] down;
+
+    /// Makes the wall bitmaps of a maze, to run searches on it.
+    ///
+    /// @param maze the maze to search
+    public BitParallelBFS(GraphMaze maze) {
+        this.width = maze.getWidth();
+        this.height = maze.getHeight();
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.stride = wordsPerRow + 2;
+        this.right = new long[(height + 2) * stride];
+        this.down = new long[right.length];
+
+        for (int v = 0; v < maze.getNumCells(); v++) {
+            int x = v % width;
+            int word = wordOf(x, v / width);
+            for (int neighbor : maze.getAdjacentVertices(v)) {
+                // Only look forward: the left and top walls are the right and bottom walls of the neighbors.
+                // (Check the bottom cell first: it's also v + 1 when the maze is one cell wide.)
+                if (neighbor == v + width) {
+                    down[word] |= 1L << x;
+                } else if (neighbor == v + 1) {
+                    right[word] |= 1L << x;
+                }
+            }
+        }
+    }
+
+    /// Returns all the cells which can be reached from the source.
+    ///
+    /// @param source the vertex to start from
+    /// @return a bitset with the reachable vertices, including the source
+    /// @throws InvalidVertexException when the source is out of bounds
+    public BitSet reachable(int source) {
+        long[] visited = new Search(source, null).run(-1);
+
+        // Move the bits of each row to the position of its vertices: rows don't begin on a new word there.
+        long[] bits = new long[(width * height + 63) >>> 6];
+        for (int y = 0; y < height; y++) {
+            for (int k = 0; k < wordsPerRow; k++) {
+                long word = visited[wordOf(k << 6, y)];
+                if (word == 0) {
+                    continue;
+                }
+                int offset = y * width + (k << 6);
+                int shift = offset & 63;
+                bits[offset >>> 6] |= word << shift;
+                if (shift != 0 && (offset >>> 6) + 1 < bits.length) {
+                    bits[(offset >>> 6) + 1] |= word >>> (64 - shift);
+                }
+            }
+        }
+        return BitSet.valueOf(bits);
+    }
+
+    /// Returns the number of cells which can be reached from the source.
+    ///
+    /// @param source the vertex to start from
+    /// @return the number of reachable vertices, including the source
+    /// @throws InvalidVertexException when the source is out of bounds
+    public int countReachable(int source) {
+        int count = 0;
+        for (long word : new Search(source, null).run(-1)) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /// Tells if there's a path between two cells. The search stops as soon as the target is reached.
+    ///
+    /// @param source the vertex to start from
+    /// @param target the vertex to reach
+    /// @return true if the target can be reached from the source
+    /// @throws InvalidVertexException when a vertex is out of bounds
+    public boolean isReachable(int source, int target) {
+        checkVertex(target);
+        long[] visited = new Search(source, null).run(target);
+        return (visited[wordOf(target % width, target / width)] & (1L << (target % width))) != 0;
+    }
+
+    /// Returns the number of moves from the source to every cell: the BFS level of each cell.
+    ///
+    /// @param source the vertex to start from
+    /// @return the distance to each vertex, or -1 when it can't be reached
+    /// @throws InvalidVertexException when the source is out of bounds
+    public int[] distances(int source) {
+        int[] distances = new int[width * height];
+        Arrays.fill(distances, -1);
+        new Search(source, distances).run(-1);
+        return distances;
+    }
+
+    // Returns the index of the word holding the cell (x, y) in the bitmaps.
+    private int wordOf(int x, int y) {
+        return (y + 1) * stride + 1 + (x >>> 6);
+    }
+
+    private void checkVertex(int vertex) {
+        if (vertex < 0 || vertex >= width * height) {
+            throw new InvalidVertexException("Invalid vertex id " + vertex + ". It must be in [0, "
+                    + width * height + "[.");
+        }
+    }
+
+    /// Computes the next frontier of the words in `[from, to[`, 64 cells at a time.
+    ///
+    /// @param frontier the current frontier
+    /// @param right    the open right walls
+    /// @param down     the open bottom walls
+    /// @param visited  the visited cells
+    /// @param next     receives the next frontier
+    /// @param from     the first word
+    /// @param to       the word after the last one
+    /// @param stride   the number of words between two rows
+    private static void expandWords(long[] frontier, long[] right, long[] down, long[] visited, long[] next,
+                                    int from, int to, int stride) {
+        for (int i = from; i < to; i++) {
+            long f = frontier[i];
+            long fromLeft = ((f & right[i]) << 1) | ((frontier[i - 1] & right[i - 1]) >>> 63);
+            long fromRight = ((f >>> 1) | (frontier[i + 1] << 63)) & right[i];
+            long fromAbove = frontier[i - stride] & down[i - stride];
+            long fromBelow = frontier[i + stride] & down[i];
+            next[i] = (fromLeft | fromRight | fromAbove | fromBelow) & ~visited[i];
+        }
+    }
+
+    // A single search from a source; keeps the bitmaps and the frontier words.
+    private final class Search {
+        private final int[] distances;
+        private final long[] visited = new long[right.length];
+        private long[] frontier = new long[right.length];
+        private long[] next = new long[right.length];
+
+        // The words of the frontier which aren't empty, and the rows they span.
+        private int[] active = new int[16];
+        private int activeCount = 0;
+        private int minRow, maxRow;
+        // The words changed while expanding a sparse level, and the new active words.
+        private int[] touched = new int[16];
+        private int[] nextActive = new int[16];
+
+        Search(int source, int[] distances) {
+            checkVertex(source);
+            this.distances = distances;
+
+            int x = source % width, y = source / width;
+            int word = wordOf(x, y);
+            visited[word] = frontier[word] = 1L << x;
+            active[activeCount++] = word;
+            minRow = maxRow = y;
+            if (distances != null) {
+                distances[source] = 0;
+            }
+        }
+
+        // Runs the search until the target is reached (-1 for none), and returns the visited bitmap.
+        long[] run(int target) {
+            int targetWord = target == -1 ? -1 : wordOf(target % width, target / width);
+            long targetBit = target == -1 ? 0 : 1L << (target % width);
+
+            for (int level = 1; activeCount > 0; level++) {
+                if (targetWord != -1 && (visited[targetWord] & targetBit) != 0) {
+                    break;
+                }
+
+                int fromRow = Math.max(minRow - 1, 0), toRow = Math.min(maxRow + 1, height - 1);
+                if ((long) activeCount * DENSE_RATIO >= (long) (toRow - fromRow + 1) * wordsPerRow) {
+                    expandDense(fromRow, toRow, level);
+                } else {
+                    expandSparse(level);
+                }
+            }
+            return visited;
+        }
+
+        // Sweeps all the words of the rows in [fromRow, toRow], which hold the whole next frontier.
+        private void expandDense(int fromRow, int toRow, int level) {
+            int from = (fromRow + 1) * stride, to = (toRow + 2) * stride;
+            expandWords(frontier, right, down, visited, next, from, to, stride);
+
+            // Clear the old frontier, so it can be reused for the level after.
+            for (int i = 0; i < activeCount; i++) {
+                frontier[active[i]] = 0;
+            }
+            activeCount = 0;
+            for (int i = from; i < to; i++) {
+                if (next[i] != 0) {
+                    addToFrontier(i, level);
+                }
+            }
+            swapFrontiers();
+        }
+
+        // Spreads each word of the frontier to its neighboring words, only going through the changed words.
+        private void expandSparse(int level) {
+            if (touched.length < activeCount * 5) {
+                touched = new int[activeCount * 5];
+            }
+            int touchedCount = 0;
+
+            for (int a = 0; a < activeCount; a++) {
+                int i = active[a];
+                long f = frontier[i];
+                frontier[i] = 0;
+
+                // The same moves as expandWords, but pushed from the frontier word to its neighbors.
+                touchedCount = spread(i, ((f & right[i]) << 1) | ((f >>> 1) & right[i]), touchedCount);
+                touchedCount = spread(i + 1, (f & right[i]) >>> 63, touchedCount);
+                touchedCount = spread(i - 1, (f << 63) & right[i - 1], touchedCount);
+                touchedCount = spread(i + stride, f & down[i], touchedCount);
+                touchedCount = spread(i - stride, f & down[i - stride], touchedCount);
+            }
+
+            activeCount = 0;
+            for (int t = 0; t < touchedCount; t++) {
+                int i = touched[t];
+                next[i] &= ~visited[i];
+                if (next[i] != 0) {
+                    addToFrontier(i, level);
+                }
+            }
+            swapFrontiers();
+        }
+
+        // Adds bits to a word of the next frontier, and remembers the word the first time it changes.
+        private int spread(int word, long bits, int touchedCount) {
+            if (bits != 0) {
+                if (next[word] == 0) {
+                    touched[touchedCount++] = word;
+                }
+                next[word] |= bits;
+            }
+            return touchedCount;
+        }
+
+        // Marks the cells of a word of the next frontier as visited.
+        private void addToFrontier(int word, int level) {
+            if (activeCount == nextActive.length) {
+                nextActive = Arrays.copyOf(nextActive, activeCount * 2);
+            }
+            int row = word / stride - 1;
+            if (activeCount == 0) {
+                minRow = maxRow = row;
+            } else {
+                minRow = Math.min(minRow, row);
+                maxRow = Math.max(maxRow, row);
+            }
+            nextActive[activeCount++] = word;
+            visited[word] |= next[word];
+
+            if (distances != null) {
+                int firstVertex = row * width + ((word - (row + 1) * stride - 1) << 6);
+                for (long bits = next[word]; bits != 0; bits &= bits - 1) {
+                    distances[firstVertex + Long.numberOfTrailingZeros(bits)] = level;
+                }
+            }
+        }
+
+        private void swapFrontiers() {
+            long[] words = frontier;
+            frontier = next;
+            next = words;
+            int[] list = active;
+            active = nextActive;
+            nextActive = list;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package fr.connexe.algo;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/// A **compact binary format** for mazes, storing only 2 bits per cell, which can be written row by row.
+///
+/// Unlike Java serialization, this format doesn't need the whole maze in memory to be written:
+/// the [Writer] takes one row at a time. This makes it possible to generate mazes larger than the RAM
+/// (see [fr.connexe.algo.generation.MazeGenerator#streamEller]).
+///
+/// ## Layout
+///
+/// All integers are big-endian.
+/// ```
+/// magic   4 bytes   "CNXM"
+/// version 1 byte    2
+/// width   int
+/// height  int
+/// start   int       -1 when there's no start vertex
+/// end     int       -1 when there's no end vertex
+/// rows    height * ceil(width / 4) bytes
+/// digest  16 bytes  the first 16 bytes of the SHA-256 of everything above; missing in version 1
+///```
+///
+/// Each row packs 4 cells per byte, starting from the least significant bits. Each cell has 2 bits:
+/// - [#OPEN_RIGHT]: there's no wall between this cell and the one on its right
+/// - [#OPEN_DOWN]: there's no wall between this cell and the one below
+///
+/// Walls on the left and above are given by the cells on the left and above.
+///
+/// The [Digest] at the end is checked when reading, so damaged files are refused. Since the same maze
+/// always gives the same bytes, it's also a 128-bit digest of the content of the maze: see [GraphMaze#digest()].
+/// Files of version 1, without a digest, can still be read.
+///
+/// [GraphMaze#load(InputStream)] automatically recognizes this format.
+public final class CompactMazeFormat {
+    /// Bit of a cell telling that it's connected to the cell on its right.
+    public static final byte OPEN_RIGHT = 1;
+    /// Bit of a cell telling that it's connected to the cell below.
+    public static final byte OPEN_DOWN = 2;
+
+    // The first bytes of any maze file in this format.
+    private static final byte[] MAGIC = {'C', 'N', 'X', 'M'};
+    // The current version of this format.
+    private static final byte VERSION = 2;
+    // The first version, without the digest at the end.
+    private static final byte VERSION_NO_DIGEST = 1;
+
+    // No need to instantiate this!
+    private CompactMazeFormat() {}
+
+    /// Tells if a stream begins with the magic bytes of this format, **without consuming them**.
+    ///
+    /// @param input the stream to check; must support [InputStream#mark(int)]
+    /// @return true if the stream contains a maze in this format
+    /// @throws IOException when the stream failed to be read
+    /// @throws IllegalArgumentException when the stream doesn't support marks
+    public static boolean isCompact(InputStream input) throws IOException {
+        if (!input.markSupported()) {
+            throw new IllegalArgumentException("The input stream must support marks.");
+        }
+
+        input.mark(MAGIC.length);
+        byte[] header = input.readNBytes(MAGIC.length);
+        input.reset();
+        return Arrays.equals(header, MAGIC);
+    }
+
+    /// A 128-bit digest of a maze written in this format: the first 16 bytes of the SHA-256 of its data.
+    ///
+    /// @param high the first 8 bytes of the digest
+    /// @param low  the next 8 bytes of the digest
+    public record Digest(long high, long low) {
+        // Makes a digest from the first 16 bytes of a SHA-256.
+        private static Digest of(byte[] sha) {
+            var buffer = ByteBuffer.wrap(sha);
+            return new Digest(buffer.getLong(), buffer.getLong());
+        }
+
+        // The 16 bytes of the digest, as written at the end of the file.
+        private byte[] toBytes() {
+            return ByteBuffer.allocate(16).putLong(high).putLong(low).array();
+        }
+
+        /// Returns the digest in hexadecimal, with 32 digits.
+        ///
+        /// @return the digest in hexadecimal
+        @Override
+        public String toString() {
+            return HexFormat.of().toHexDigits(high) + HexFormat.of().toHexDigits(low);
+        }
+    }
+
+    /// Writes an entire maze in this format.
+    ///
+    /// @param maze   the maze to write
+    /// @param output the stream to write the maze into; it is not closed
+    /// @return the digest of the maze, written at the end
+    /// @throws MazeSerializationException when the maze failed to be written
+    public static Digest write(GraphMaze maze, OutputStream output) throws MazeSerializationException {
+        int width = maze.getWidth();
+        var writer = new Writer(output, width, maze.getHeight(), maze.getStart(), maze.getEnd());
+
+        // Compute the cells of each row using the edges of the maze.
+        var cells = new byte[width];
+        for (int y = 0; y < maze.getHeight(); y++) {
+            for (int x = 0; x < width; x++) {
+                int v = x + y * width;
+                byte cell = 0;
+                if (x < width - 1 && maze.isConnected(v, v + 1)) { cell |= OPEN_RIGHT; }
+                if (y < maze.getHeight() - 1 && maze.isConnected(v, v + width)) { cell |= OPEN_DOWN; }
+                cells[x] = cell;
+            }
+            writer.writeRow(cells);
+        }
+        return writer.finish();
+    }
+
+    /// Reads an entire maze in this format.
+    ///
+    /// @param input the stream to read the maze from; it is not closed
+    /// @return the loaded maze
+    /// @throws MazeSerializationException when the maze failed to be read, or when the data is invalid
+    public static GraphMaze read(InputStream input) throws MazeSerializationException {
+        try {
+            // Everything read goes through the digest, until the digest itself.
+            var digestIn = new DigestInputStream(input, sha256());
+            var in = new DataInputStream(digestIn);
+
+            // Check the magic bytes and the version.
+            byte[] magic = in.readNBytes(MAGIC.length);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new MazeSerializationException("Not a compact maze file (wrong magic bytes).");
+            }
+            byte version = in.readByte();
+            if (version != VERSION && version != VERSION_NO_DIGEST) {
+                throw new MazeSerializationException("Unsupported compact maze version: " + version);
+            }
+
+            // Read the dimensions and endpoints.
+            int width = in.readInt();
+            int height = in.readInt();
+            int start = in.readInt();
+            int end = in.readInt();
+            if (width <= 0 || height <= 0) {
+                throw new MazeSerializationException("Invalid maze dimensions: " + width + "x" + height);
+            }
+
+            var maze = new GraphMaze(width, height);
+            var row = new byte[rowBytes(width)];
+            for (int y = 0; y < height; y++) {
+                in.readFully(row);
+                for (int x = 0; x < width; x++) {
+                    // Unpack the 2 bits of this cell, then connect it to its right and bottom neighbors.
+                    int cell = (row[x >> 2] >> ((x & 3) * 2)) & 3;
+                    int v = x + y * width;
+                    if ((cell & OPEN_RIGHT) != 0) {
+                        if (x == width - 1) {
+                            throw new MazeSerializationException("The last cell of row " + y + " is open to the right.");
+                        }
+                        maze.connect(v, v + 1);
+                    }
+                    if ((cell & OPEN_DOWN) != 0) {
+                        if (y == height - 1) {
+                            throw new MazeSerializationException("Cell " + x + " of the last row is open downwards.");
+                        }
+                        maze.connect(v, v + width);
+                    }
+                }
+            }
+
+            // Check the digest to make sure the file isn't damaged.
+            if (version != VERSION_NO_DIGEST) {
+                digestIn.on(false);
+                byte[] expected = Arrays.copyOf(digestIn.getMessageDigest().digest(), 16);
+                byte[] actual = new byte[16];
+                in.readFully(actual);
+                if (!MessageDigest.isEqual(expected, actual)) {
+                    throw new MazeSerializationException("The compact maze file is damaged (wrong digest).");
+                }
+            }
+
+            // Endpoints are either both missing, or both valid.
+            if (start != -1 || end != -1) {
+                maze.setEndpoints(start, end);
+            }
+            return maze;
+        } catch (IOException | IllegalArgumentException e) {
+            // InvalidVertexException is an IllegalArgumentException, for invalid endpoints.
+            throw new MazeSerializationException("Failed to load the compact maze.", e);
+        }
+    }
+
+    // Makes a new SHA-256 digest, which every Java platform has.
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    // The number of bytes used by a row of cells: 4 cells per byte.
+    private static int rowBytes(int width) {
+        return (width + 3) / 4;
+    }
+
+    /// Writes a maze in the [compact format][CompactMazeFormat], **one row at a time**.
+    ///
+    /// Only one row is kept in memory, so mazes of any height can be written.
+    /// The writer must receive exactly `height` rows, and then be [finished][#finish()].
+    /// The digest is computed while writing, and written at the end.
+    ///
+    /// To write into a [java.nio.channels.FileChannel], use [java.nio.channels.Channels#newOutputStream].
+    public static final class Writer {
+        private final DataOutputStream out;
+        private final DigestOutputStream digestOut;
+        private final int width;
+        private final int height;
+        private final byte[] packed;
+        private int rowsWritten = 0;
+
+        /// Begins writing a maze by writing its header.
+        ///
+        /// @param output the stream to write the maze into; it is not closed. Buffering is done by the writer.
+        /// @param width  the width of the maze
+        /// @param height the height of the maze
+        /// @param start  the start vertex of the maze, or -1
+        /// @param end    the end vertex of the maze, or -1
+        /// @throws MazeSerializationException when the header failed to be written
+        /// @throws IllegalArgumentException when the dimensions are invalid
+        public Writer(OutputStream output, int width, int height, int start, int end)
+                throws MazeSerializationException {
+            if (width <= 0 || height <= 0) {
+                throw new IllegalArgumentException("width and height must be positive (not zero)");
+            }
+            Math.multiplyExact(width, height); // Vertices must fit in an int, just like GraphMaze.
+
+            this.digestOut = new DigestOutputStream(new BufferedOutputStream(output, 1 << 16), sha256());
+            this.out = new DataOutputStream(digestOut);
+            this.width = width;
+            this.height = height;
+            this.packed = new byte[rowBytes(width)];
+
+            try {
+                out.write(MAGIC);
+                out.writeByte(VERSION);
+                out.writeInt(width);
+                out.writeInt(height);
+                out.writeInt(start);
+                out.writeInt(end);
+            } catch (IOException e) {
+                throw new MazeSerializationException("Failed to write the compact maze header.", e);
+            }
+        }
+
+        /// Writes the next row of the maze.
+        ///
+        /// @param cells the cells of the row, containing [#OPEN_RIGHT] and [#OPEN_DOWN] bits;
+        ///              its length must be the width of the maze
+        /// @throws MazeSerializationException when the row failed to be written
+        /// @throws IllegalArgumentException when the row has the wrong size
+        /// @throws IllegalStateException when all rows have already been written
+        public void writeRow(byte[] cells) throws MazeSerializationException {
+            if (cells.length != width) {
+                throw new IllegalArgumentException("The row must contain " + width + " cells (got " + cells.length + ")");
+            }
+            if (rowsWritten == height) {
+                throw new IllegalStateException("All " + height + " rows have already been written.");
+            }
+
+            // Pack 4 cells per byte.
+            Arrays.fill(packed, (byte) 0);
+            for (int x = 0; x < width; x++) {
+                packed[x >> 2] |= (byte) ((cells[x] & 3) << ((x & 3) * 2));
+            }
+
+            try {
+                out.write(packed);
+            } catch (IOException e) {
+                throw new MazeSerializationException("Failed to write row " + rowsWritten + " of the compact maze.", e);
+            }
+            rowsWritten++;
+        }
+
+        /// Finishes writing the maze: writes the digest, and flushes all remaining data to the stream.
+        ///
+        /// @return the digest of the maze
+        /// @throws MazeSerializationException when the data failed to be flushed
+        /// @throws IllegalStateException when some rows are missing
+        public Digest finish() throws MazeSerializationException {
+            if (rowsWritten != height) {
+                throw new IllegalStateException("Only " + rowsWritten + " rows out of " + height + " have been written.");
+            }
+            try {
+                // The digest doesn't include itself.
+                digestOut.on(false);
+                Digest digest = Digest.of(digestOut.getMessageDigest().digest());
+                out.write(digest.toBytes());
+                out.flush();
+                return digest;
+            } catch (IOException e) {
+                throw new MazeSerializationException("Failed to write the compact maze.", e);
+            }
+        }
+    }
+}
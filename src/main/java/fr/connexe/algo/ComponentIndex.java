@@ -0,0 +1,205 @@
+package fr.connexe.algo;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/// Splits a maze into its **connected components**: groups of cells which can all reach each other.
+/// Once built, telling if a cell can be reached from another one takes O(1) time, without any search.
+///
+/// Components are kept in a **union-find** (disjoint-set forest) in two int arrays:
+/// - the parent of each cell; cells without a parent are the **roots**, one per component;
+/// - the number of cells of each component, stored at its root.
+///
+/// Building the index merges the components of both cells of every edge, in O(n) time. Finding the
+/// root of a cell flattens the path to its root, so queries take O(1) amortized time.
+///
+/// Perfect mazes have a single component and no cycle. An edge between two cells which are already
+/// in the same component closes a cycle: those are counted, see [#hasCycles()].
+///
+/// ## Following changes
+///
+/// The index made by the constructor is a snapshot: it doesn't change with the maze.
+///
+/// The index given by [#of(GraphMaze)] follows the changes of the maze, and is kept for the next calls.
+/// Added edges are merged right away, in O(1). Removed edges may split a component, which a union-find can't
+/// do: the index is built again by the next call to [#of(GraphMaze)]. Until then, it can't be queried.
+public final class ComponentIndex {
+    // The index followed by each maze. Indexes don't reference their maze, so mazes can still be collected.
+    private static final Map<GraphMaze, ComponentIndex> CACHE = new WeakHashMap<>();
+
+    private final int numCells;
+    // The parent of each cell, or the cell itself for roots.
+    private final int[] parent;
+    // The number of cells of each component, only valid for roots.
+    private final int[] size;
+    private int componentCount;
+    // The number of edges between cells which were already in the same component.
+    private int cycleEdges;
+    // True when an edge was removed, so the components must be found again.
+    private boolean outdated;
+
+    /// Finds the connected components of a maze, as it is now.
+    ///
+    /// @param maze the maze to split into components
+    public ComponentIndex(GraphMaze maze) {
+        this.numCells = maze.getNumCells();
+        this.parent = new int[numCells];
+        this.size = new int[numCells];
+        build(maze);
+    }
+
+    /// Returns the index of the maze, which follows its changes: it's made on the first call, and kept
+    /// for the next ones. It's built again when edges were removed since the last call.
+    ///
+    /// @param maze the maze to split into components
+    /// @return the up-to-date index of the maze
+    public static ComponentIndex of(GraphMaze maze) {
+        synchronized (CACHE) {
+            ComponentIndex index = CACHE.get(maze);
+            if (index == null) {
+                index = new ComponentIndex(maze);
+                maze.addEdgeListener(new Tracker(maze, index));
+                CACHE.put(maze, index);
+            } else if (index.outdated) {
+                index.build(maze);
+            }
+            return index;
+        }
+    }
+
+    /// Returns true when there's a path between two cells: they're in the same component.
+    ///
+    /// @param vertexA the first vertex
+    /// @param vertexB the second vertex
+    /// @return true if each vertex can be reached from the other one
+    /// @throws InvalidVertexException when either vertex is out of bounds
+    /// @throws IllegalStateException when edges were removed from the maze since [#of(GraphMaze)]
+    public boolean isReachable(int vertexA, int vertexB) {
+        return componentOf(vertexA) == componentOf(vertexB);
+    }
+
+    /// Returns the component of a cell, as one of its cells: cells of the same component give the same one.
+    /// It may change when the maze changes.
+    ///
+    /// @param vertex the vertex
+    /// @return the root vertex of its component
+    /// @throws InvalidVertexException when the vertex is out of bounds
+    /// @throws IllegalStateException when edges were removed from the maze since [#of(GraphMaze)]
+    public int componentOf(int vertex) {
+        if (vertex < 0 || vertex >= numCells) {
+            throw new InvalidVertexException("Invalid vertex id " + vertex + ". It must be in [0, " + numCells + "[.");
+        }
+        checkUpToDate();
+        return find(vertex);
+    }
+
+    /// Returns the number of cells in the component of a cell, including itself.
+    ///
+    /// @param vertex the vertex
+    /// @return the number of cells which can be reached from the vertex, including the vertex
+    /// @throws InvalidVertexException when the vertex is out of bounds
+    /// @throws IllegalStateException when edges were removed from the maze since [#of(GraphMaze)]
+    public int componentSize(int vertex) {
+        return size[componentOf(vertex)];
+    }
+
+    /// Returns the number of components. A maze where every cell can be reached has only one.
+    ///
+    /// @return the number of components
+    /// @throws IllegalStateException when edges were removed from the maze since [#of(GraphMaze)]
+    public int getComponentCount() {
+        checkUpToDate();
+        return componentCount;
+    }
+
+    /// Returns true when the maze has at least one cycle: there are two different paths between some cells.
+    ///
+    /// A maze where all cells can be reached and without any cycle is a perfect maze.
+    ///
+    /// @return true if the maze has a cycle
+    /// @throws IllegalStateException when edges were removed from the maze since [#of(GraphMaze)]
+    public boolean hasCycles() {
+        checkUpToDate();
+        return cycleEdges > 0;
+    }
+
+    // Finds all components again, using the edges of the maze.
+    private void build(GraphMaze maze) {
+        for (int v = 0; v < numCells; v++) {
+            parent[v] = v;
+        }
+        Arrays.fill(size, 1);
+        componentCount = numCells;
+        cycleEdges = 0;
+        outdated = false;
+
+        for (int v = 0; v < numCells; v++) {
+            for (int neighbor : maze.getAdjacentVertices(v)) {
+                // Each edge is seen from both sides: only merge it once.
+                if (neighbor > v) {
+                    union(v, neighbor);
+                }
+            }
+        }
+    }
+
+    // Merges the components of two connected cells, putting the smallest one under the largest one.
+    private void union(int vertexA, int vertexB) {
+        int rootA = find(vertexA);
+        int rootB = find(vertexB);
+        if (rootA == rootB) {
+            // Already in the same component: this edge closes a cycle.
+            cycleEdges++;
+            return;
+        }
+
+        if (size[rootA] < size[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+        componentCount--;
+    }
+
+    // Finds the root of a cell, making every other cell on the way point to its grandparent (path halving).
+    private int find(int vertex) {
+        while (parent[vertex] != vertex) {
+            parent[vertex] = parent[parent[vertex]];
+            vertex = parent[vertex];
+        }
+        return vertex;
+    }
+
+    private void checkUpToDate() {
+        if (outdated) {
+            throw new IllegalStateException("Edges were removed from the maze: get its index again with ComponentIndex.of.");
+        }
+    }
+
+    // Follows the changes of a maze for its index. Referenced by the maze only.
+    private record Tracker(GraphMaze maze, ComponentIndex index) implements GraphMaze.EdgeListener {
+        @Override
+        public void onEdgeChanged(int vertexA, int vertexB) {
+            synchronized (CACHE) {
+                if (index.outdated) {
+                    return;
+                }
+                if (maze.isConnected(vertexA, vertexB)) {
+                    index.union(vertexA, vertexB);
+                } else {
+                    index.outdated = true;
+                }
+            }
+        }
+
+        @Override
+        public void onAllEdgesChanged() {
+            synchronized (CACHE) {
+                index.outdated = true;
+            }
+        }
+    }
+}
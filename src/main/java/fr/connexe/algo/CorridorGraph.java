@@ -0,0 +1,345 @@
+package fr.connexe.algo;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CancellationException;
+
+/// A maze where every **corridor** is contracted into a single weighted edge, to search it without
+/// walking the corridors one cell at a time.
+///
+/// Most cells of a maze have two open sides: they're in a corridor, and a search can only go through them.
+/// The other cells are the **nodes** of the graph: junctions (3 or 4 open sides) and dead ends (1 or none).
+/// Each chain of corridor cells between two nodes is a **chain**, and becomes an edge weighing the number of
+/// moves from one node to the other. Corridors looping on themselves without any junction get one of their
+/// cells as a node.
+///
+/// The graph is kept in compact int arrays:
+/// - the cells of all chains, one chain after the other, in the order they're walked from the first node
+///   of the chain (its **head**) to the last one (its **tail**);
+/// - the edges of each node, in the CSR format (all edges of node `i` are in `[edgeOffset[i], edgeOffset[i+1][`).
+///   An edge is the chain it goes through, or `~chain` when it goes through the chain from its tail to its head.
+///
+/// Searches run A* on the nodes, then expand each edge back into the cells of its chain. The start and the end
+/// can be inside corridors: they're linked to both ends of their chain during the search.
+///
+/// Contracting a maze goes through all of its cells, so graphs are cached by [#of(GraphMaze)], and made again
+/// once the edges of the maze change (see [GraphMaze#getVersion()]).
+public final class CorridorGraph {
+    // The last graph made for each maze. Graphs don't reference their maze, so mazes can still be collected.
+    private static final Map<GraphMaze, CorridorGraph> CACHE = new WeakHashMap<>();
+    // The location of a cell which wasn't put in the graph yet.
+    private static final int UNASSIGNED = Integer.MIN_VALUE;
+
+    private final int width;
+    private final int version;
+    // For each cell: its node index when it's a node, or ~slot when it's in a chain, slot being its index
+    // in chainCells.
+    private final int[] location;
+    // The cell of each node.
+    private final int[] nodeCells;
+    // The cells of all chains; the cells of chain c are in [chainOffset[c], chainOffset[c+1][.
+    private final int[] chainCells;
+    private final int[] chainOffset;
+    // The nodes at both ends of each chain.
+    private final int[] chainHead, chainTail;
+    // The edges of each node, as chains: see the class documentation.
+    private final int[] edgeOffset;
+    private final int[] edgeChains;
+
+    private CorridorGraph(GraphMaze maze) {
+        int n = maze.getNumCells();
+        this.width = maze.getWidth();
+        this.version = maze.getVersion();
+        this.location = new int[n];
+        Arrays.fill(location, UNASSIGNED);
+
+        // Every cell not in a corridor is a node.
+        int nodeCount = 0;
+        int[] nodes = new int[16];
+        for (int v = 0; v < n; v++) {
+            if (maze.getDegree(v) != 2) {
+                nodes = grow(nodes, nodeCount);
+                location[v] = nodeCount;
+                nodes[nodeCount++] = v;
+            }
+        }
+
+        // Walk all chains from their head. Chains are found from both of their ends: only keep the first time.
+        int[] cells = new int[n - nodeCount];
+        int slots = 0;
+        int chainCount = 0;
+        int[] offsets = new int[16], heads = new int[16], tails = new int[16];
+        int loop = 0;
+        for (int i = 0; ; i++) {
+            if (i == nodeCount) {
+                // Cells left are in corridors looping on themselves: make one of their cells a node.
+                if (nodeCount + slots == n) {
+                    break;
+                }
+                while (location[loop] != UNASSIGNED) {
+                    loop++;
+                }
+                nodes = grow(nodes, nodeCount);
+                location[loop] = nodeCount;
+                nodes[nodeCount++] = loop;
+            }
+
+            int node = nodes[i];
+            for (int first : maze.getAdjacentVertices(node)) {
+                if (location[first] != UNASSIGNED && (location[first] < 0 || location[first] < i)) {
+                    continue; // Already walked from the other end, or from the neighbor node.
+                }
+
+                offsets = grow(offsets, chainCount);
+                heads = grow(heads, chainCount);
+                tails = grow(tails, chainCount);
+                offsets[chainCount] = slots;
+                heads[chainCount] = i;
+
+                // Follow the corridor until the next node.
+                int previous = node, cell = first;
+                while (location[cell] == UNASSIGNED) {
+                    location[cell] = ~slots;
+                    cells[slots++] = cell;
+                    int next = -1;
+                    for (int neighbor : maze.getAdjacentVertices(cell)) {
+                        if (neighbor != previous) {
+                            next = neighbor;
+                        }
+                    }
+                    previous = cell;
+                    cell = next;
+                }
+                tails[chainCount++] = location[cell];
+            }
+        }
+
+        this.nodeCells = Arrays.copyOf(nodes, nodeCount);
+        this.chainCells = cells;
+        this.chainOffset = Arrays.copyOf(offsets, chainCount + 1);
+        this.chainOffset[chainCount] = slots;
+        this.chainHead = Arrays.copyOf(heads, chainCount);
+        this.chainTail = Arrays.copyOf(tails, chainCount);
+
+        // Put the edges of each node together: each chain is an edge from its head, and one from its tail.
+        this.edgeOffset = new int[nodeCount + 1];
+        for (int c = 0; c < chainCount; c++) {
+            edgeOffset[chainHead[c] + 1]++;
+            edgeOffset[chainTail[c] + 1]++;
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            edgeOffset[i + 1] += edgeOffset[i];
+        }
+        this.edgeChains = new int[chainCount * 2];
+        int[] filled = Arrays.copyOf(edgeOffset, nodeCount);
+        for (int c = 0; c < chainCount; c++) {
+            edgeChains[filled[chainHead[c]]++] = c;
+            edgeChains[filled[chainTail[c]]++] = ~c;
+        }
+    }
+
+    /// Returns the corridor graph of a maze, made when the maze is first searched, or when its edges changed
+    /// since the last time.
+    ///
+    /// @param maze the maze to contract
+    /// @return the corridor graph of the maze, as it is now
+    public static CorridorGraph of(GraphMaze maze) {
+        synchronized (CACHE) {
+            CorridorGraph graph = CACHE.get(maze);
+            if (graph == null || graph.version != maze.getVersion()) {
+                graph = new CorridorGraph(maze);
+                CACHE.put(maze, graph);
+            }
+            return graph;
+        }
+    }
+
+    /// Returns the number of nodes: junctions, dead ends, and one cell of each loop without junctions.
+    ///
+    /// @return the number of nodes
+    public int getNodeCount() {
+        return nodeCells.length;
+    }
+
+    /// Returns the number of chains, each one being an edge between two nodes.
+    ///
+    /// @return the number of chains
+    public int getChainCount() {
+        return chainHead.length;
+    }
+
+    /// Returns the version of the maze's edges this graph was made for.
+    ///
+    /// @return the version of the maze, see [GraphMaze#getVersion()]
+    public int getVersion() {
+        return version;
+    }
+
+    /// Finds the shortest path between two cells, running A* on the nodes of the graph.
+    ///
+    /// @param start    the first cell of the path
+    /// @param end      the last cell of the path
+    /// @param listener receives the cell of every expanded node
+    /// @return the cells of the path from start to end, or an empty array if there's none
+    /// @throws InvalidVertexException when a cell is out of bounds
+    /// @throws CancellationException when the listener cancelled the search
+    public int[] shortestPath(int start, int end, SolveListener listener) {
+        checkVertex(start);
+        checkVertex(end);
+        if (start == end) {
+            listener.onVisit(start);
+            return new int[]{start};
+        }
+
+        // The start and the end are nodes of their own when they're in a chain.
+        int nodeCount = nodeCells.length;
+        int source = location[start] >= 0 ? location[start] : nodeCount;
+        int target = location[end] >= 0 ? location[end] : nodeCount + 1;
+        int endChain = target == nodeCount + 1 ? chainOf(~location[end]) : -1;
+        int endX = end % width, endY = end / width;
+
+        var search = new Search(nodeCount + 2, start, end, endX, endY);
+        search.relax(source, 0, source, 0);
+
+        while (!search.open.isEmpty()) {
+            listener.checkCancelled();
+
+            int node = search.open.poll();
+            listener.onVisit(search.cellOf(node));
+            if (node == target) {
+                return search.path(source, target);
+            }
+
+            int g = search.g[node];
+            if (node == nodeCount) {
+                // Go from the start to both ends of its chain, or straight to the end when it's in the same chain.
+                int slot = ~location[start];
+                int c = chainOf(slot);
+                search.relax(chainHead[c], g + slot - chainOffset[c] + 1, node, ~c);
+                search.relax(chainTail[c], g + chainOffset[c + 1] - slot, node, c);
+                if (c == endChain) {
+                    int endSlot = ~location[end];
+                    search.relax(target, g + Math.abs(endSlot - slot), node, endSlot > slot ? c : ~c);
+                }
+                continue;
+            }
+
+            for (int e = edgeOffset[node]; e < edgeOffset[node + 1]; e++) {
+                int c = edgeChains[e];
+                int chain = c >= 0 ? c : ~c;
+                int weight = chainOffset[chain + 1] - chainOffset[chain] + 1;
+                search.relax(c >= 0 ? chainTail[chain] : chainHead[chain], g + weight, node, c);
+            }
+            if (endChain != -1) {
+                // Go from an end of the end's chain to the end.
+                int endSlot = ~location[end];
+                if (chainHead[endChain] == node) {
+                    search.relax(target, g + endSlot - chainOffset[endChain] + 1, node, endChain);
+                }
+                if (chainTail[endChain] == node) {
+                    search.relax(target, g + chainOffset[endChain + 1] - endSlot, node, ~endChain);
+                }
+            }
+        }
+        return new int[0];
+    }
+
+    // Returns the chain holding the given slot of chainCells.
+    private int chainOf(int slot) {
+        int c = Arrays.binarySearch(chainOffset, slot);
+        if (c < 0) {
+            return ~c - 1; // In the middle of the chain before the insertion point.
+        }
+        // Empty chains share their offset with the next chain: find the last chain beginning here.
+        while (chainOffset[c + 1] == slot) {
+            c++;
+        }
+        return c;
+    }
+
+    private void checkVertex(int vertex) {
+        if (vertex < 0 || vertex >= location.length) {
+            throw new InvalidVertexException("Invalid vertex id " + vertex + ". It must be in [0, "
+                    + location.length + "[.");
+        }
+    }
+
+    private static int[] grow(int[] array, int size) {
+        return size == array.length ? Arrays.copyOf(array, size * 2) : array;
+    }
+
+    // The state of an A* search on the nodes, plus the start (nodeCount) and the end (nodeCount + 1).
+    private final class Search {
+        final int[] g;
+        final int[] parent;
+        // The chain going from the parent to each node, or ~chain when going through it from its tail.
+        final int[] via;
+        final IndexedHeap open;
+        final int start, end;
+        final int endX, endY;
+
+        Search(int size, int start, int end, int endX, int endY) {
+            this.g = new int[size];
+            this.parent = new int[size];
+            this.via = new int[size];
+            this.open = new IndexedHeap(size);
+            this.start = start;
+            this.end = end;
+            this.endX = endX;
+            this.endY = endY;
+            Arrays.fill(g, Integer.MAX_VALUE);
+        }
+
+        int cellOf(int node) {
+            return node < nodeCells.length ? nodeCells[node] : node == nodeCells.length ? start : end;
+        }
+
+        // Lowers the g score of a node, reached from another one through a chain.
+        void relax(int node, int newG, int from, int chain) {
+            if (newG >= g[node]) {
+                return;
+            }
+            g[node] = newG;
+            parent[node] = from;
+            via[node] = chain;
+
+            int cell = cellOf(node);
+            int h = Math.abs(cell % width - endX) + Math.abs(cell / width - endY);
+            open.insertOrDecrease(node, ((long) (newG + h) << 32) | h);
+        }
+
+        // Expands the chains from the source to the target into cells.
+        int[] path(int source, int target) {
+            int[] path = new int[g[target] + 1];
+            int i = path.length - 1;
+            for (int node = target; node != source; node = parent[node]) {
+                path[i--] = cellOf(node);
+
+                // Add the cells of the chain between the parent and the node, backwards.
+                int c = via[node];
+                boolean forward = c >= 0;
+                int chain = forward ? c : ~c;
+                int from = chainOffset[chain], to = chainOffset[chain + 1] - 1;
+                // The start and the end are in the middle of their chain.
+                if (parent[node] == nodeCells.length) {
+                    if (forward) from = ~location[start] + 1; else to = ~location[start] - 1;
+                }
+                if (node == nodeCells.length + 1) {
+                    if (forward) to = ~location[end] - 1; else from = ~location[end] + 1;
+                }
+                if (forward) {
+                    for (int slot = to; slot >= from; slot--) {
+                        path[i--] = chainCells[slot];
+                    }
+                } else {
+                    for (int slot = from; slot <= to; slot++) {
+                        path[i--] = chainCells[slot];
+                    }
+                }
+            }
+            path[0] = cellOf(source);
+            return path;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package fr.connexe.algo;
+
+import java.util.BitSet;
+import java.util.concurrent.CancellationException;
+
+/// Fills the **dead ends** of a maze, leaving only the cells which may be on a path from the start to the end.
+///
+/// A dead end is a cell with only one open side (or none), which isn't the start or the end: no path between
+/// the endpoints goes through it, so it can be filled like a wall. Filling it lowers the degree of its
+/// neighbor, which may become a dead end too, and so on until the whole corridor is filled.
+///
+/// Filling is done in one linear sweep, with the degree of each cell in an array and the cells to fill
+/// in a worklist of ints:
+/// 1. every dead end of the maze goes into the worklist;
+/// 2. each cell taken from the worklist is filled, and its neighbors which become dead ends are added.
+///
+/// The cells left are the **live** cells. In a perfect maze, they are exactly the path from the start to
+/// the end. In an imperfect maze, the loops stay, along with the corridors linking them to the endpoints.
+/// Every path from the start to the end only goes through live cells, so the [reduced maze][#toReducedMaze()]
+/// can be given to any solving algorithm of [MazeSolver], and has the same shortest paths as the original.
+///
+/// The live cells are a snapshot of the maze: they don't change when the maze is edited afterward.
+///
+/// @see MazeSolver#fillDeadEnds(GraphMaze, SolveListener)
+public final class DeadEndFilling {
+    private final GraphMaze maze;
+    // The live cells, one bit per vertex.
+    private final BitSet live;
+    private final int liveCount;
+
+    /// Fills the dead ends of a maze.
+    ///
+    /// @param maze     the maze to fill
+    /// @param listener receives every filled cell as blocked, in the order they are filled
+    /// @throws CancellationException when the listener cancelled the filling
+    public DeadEndFilling(GraphMaze maze, SolveListener listener) {
+        this.maze = maze;
+
+        int n = maze.getNumCells();
+        int start = maze.getStart();
+        int end = maze.getEnd();
+
+        // The number of open sides of each cell which lead to a cell that isn't filled yet.
+        byte[] degrees = new byte[n];
+        // The cells to fill; each cell is added at most once, when it becomes a dead end.
+        int[] worklist = new int[n];
+        int size = 0;
+        for (int v = 0; v < n; v++) {
+            degrees[v] = (byte) maze.getDegree(v);
+            if (degrees[v] <= 1 && v != start && v != end) {
+                worklist[size++] = v;
+            }
+        }
+
+        long[] filled = new long[(n + 63) >>> 6];
+        int filledCount = 0;
+        while (size > 0) {
+            listener.checkCancelled();
+
+            int cell = worklist[--size];
+            filled[cell >>> 6] |= 1L << cell;
+            filledCount++;
+            listener.onBlock(cell);
+
+            // The only neighbor left loses a side; it's a dead end once it has one side left.
+            for (int neighbor : maze.getAdjacentVertices(cell)) {
+                if ((filled[neighbor >>> 6] & (1L << neighbor)) == 0
+                        && --degrees[neighbor] == 1 && neighbor != start && neighbor != end) {
+                    worklist[size++] = neighbor;
+                }
+            }
+        }
+
+        // Live cells are the ones which aren't filled.
+        BitSet liveCells = BitSet.valueOf(filled);
+        liveCells.flip(0, n);
+        this.live = liveCells;
+        this.liveCount = n - filledCount;
+    }
+
+    /// Returns true when the cell wasn't filled: it may be on a path from the start to the end.
+    ///
+    /// @param vertex the vertex
+    /// @return true if the vertex is live
+    /// @throws InvalidVertexException when the vertex is out of bounds
+    public boolean isLive(int vertex) {
+        if (!maze.isValidVertex(vertex)) {
+            throw new InvalidVertexException("Invalid vertex id " + vertex + ". It must be in [0, "
+                    + maze.getNumCells() + "[.");
+        }
+        return live.get(vertex);
+    }
+
+    /// Returns all the live cells.
+    ///
+    /// @return a new bitset with the live vertices
+    public BitSet getLiveCells() {
+        return (BitSet) live.clone();
+    }
+
+    /// Returns the number of live cells.
+    ///
+    /// @return the number of vertices which weren't filled
+    public int getLiveCount() {
+        return liveCount;
+    }
+
+    /// Returns the number of filled cells.
+    ///
+    /// @return the number of vertices which were filled
+    public int getFilledCount() {
+        return maze.getNumCells() - liveCount;
+    }
+
+    /// Makes a copy of the maze where the filled cells are walled off: only the passages between two live cells
+    /// are kept, and the endpoints are the same.
+    ///
+    /// Solving algorithms can run on the reduced maze as many times as needed. They find the same shortest paths,
+    /// while only going through live cells.
+    ///
+    /// @return the reduced maze
+    public GraphMaze toReducedMaze() {
+        var reduced = new GraphMaze(maze.getWidth(), maze.getHeight());
+        for (int v = live.nextSetBit(0); v >= 0; v = live.nextSetBit(v + 1)) {
+            for (int neighbor : maze.getAdjacentVertices(v)) {
+                // Each passage is seen from both sides: only add it once.
+                if (neighbor > v && live.get(neighbor)) {
+                    reduced.connect(v, neighbor);
+                }
+            }
+        }
+        reduced.setEndpoints(maze.getStart(), maze.getEnd());
+        return reduced;
+    }
+}
@@ -0,0 +1,212 @@
+package fr.connexe.algo;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/// The distance from a **source** vertex to every vertex of a maze, with the shortest path tree leading to them.
+///
+/// A distance field is made by a BFS over the whole maze, see [MazeSolver#distanceField(GraphMaze, int)].
+/// It answers questions about the whole maze at once: which cells can be reached, how far they are,
+/// and which cell is the farthest from the source.
+///
+/// The field is a snapshot: it doesn't change when the maze is edited afterward.
+///
+/// ## Sharing fields
+///
+/// A BFS over the whole maze is costly, while many parts of the app need the distance to the same cell:
+/// players measuring how far the end is, the game picking an end far from the start, A* using the
+/// exact distance to the end as its heuristic... So fields can be shared with [#of(GraphMaze, int)], which
+/// keeps the last [#MAX_SOURCES_PER_MAZE] fields of each maze, until the edges of the maze change (see
+/// [GraphMaze#getVersion()]). [#cached(GraphMaze, int)] only gives a field when it's already there.
+public final class DistanceField {
+    /// The number of fields kept for each maze, for different sources.
+    public static final int MAX_SOURCES_PER_MAZE = 4;
+    // The last fields made for each maze, the most recently used first. Fields don't reference their maze,
+    // so mazes can still be collected.
+    private static final Map<GraphMaze, Cached[]> CACHE = new WeakHashMap<>();
+
+    // A field in the cache, with the version of the maze it was made for.
+    private record Cached(DistanceField field, int version) {}
+
+    private final int source;
+    // The number of moves from the source to each vertex; -1 when the vertex can't be reached.
+    private final int[] distances;
+    // The previous vertex on the shortest path to each vertex; the source is its own parent,
+    // and unreachable vertices have -1.
+    private final int[] parents;
+    private final int reachableCount;
+    private final int farthestVertex;
+
+    DistanceField(int source, int[] distances, int[] parents) {
+        this.source = source;
+        this.distances = distances;
+        this.parents = parents;
+
+        // Find the farthest vertex, keeping the lowest one when there's a tie.
+        int reachable = 0;
+        int farthest = source;
+        for (int v = 0; v < distances.length; v++) {
+            if (distances[v] != -1) {
+                reachable++;
+                if (distances[v] > distances[farthest]) {
+                    farthest = v;
+                }
+            }
+        }
+        this.reachableCount = reachable;
+        this.farthestVertex = farthest;
+    }
+
+    /// Returns the distance field of a maze from a source vertex, sharing it with other callers.
+    ///
+    /// The field is made with [MazeSolver#distanceField(GraphMaze, int)] the first time, and then kept
+    /// until the edges of the maze change. Only the last [#MAX_SOURCES_PER_MAZE] sources used are kept.
+    ///
+    /// @param maze   the maze to go through
+    /// @param source the vertex to measure distances from
+    /// @return the distance field of the maze from the source, as it is now
+    /// @throws InvalidVertexException when the source is out of bounds
+    public static DistanceField of(GraphMaze maze, int source) {
+        DistanceField field = cached(maze, source);
+        if (field != null) {
+            return field;
+        }
+
+        // Run the BFS without holding the lock, so other mazes can use the cache meanwhile.
+        int version = maze.getVersion();
+        field = MazeSolver.distanceField(maze, source);
+
+        synchronized (CACHE) {
+            Cached[] fields = CACHE.getOrDefault(maze, new Cached[0]);
+            // Put the new field first, then the others, except the outdated one from the same source.
+            // The least recently used field (the last one) is forgotten when there's no room left.
+            Cached[] kept = new Cached[MAX_SOURCES_PER_MAZE];
+            kept[0] = new Cached(field, version);
+            int count = 1;
+            for (int i = 0; i < fields.length && fields[i] != null && count < kept.length; i++) {
+                if (fields[i].field.source != source) {
+                    kept[count++] = fields[i];
+                }
+            }
+            CACHE.put(maze, kept);
+        }
+        return field;
+    }
+
+    /// Returns the distance field of a maze from a source vertex, only if it's already kept by
+    /// [#of(GraphMaze, int)] and the edges of the maze didn't change since. Never runs a BFS.
+    ///
+    /// @param maze   the maze
+    /// @param source the source vertex of the field
+    /// @return the up-to-date distance field from the source, or null if there's none yet
+    public static DistanceField cached(GraphMaze maze, int source) {
+        synchronized (CACHE) {
+            Cached[] fields = CACHE.get(maze);
+            if (fields == null) {
+                return null;
+            }
+
+            for (int i = 0; i < fields.length && fields[i] != null; i++) {
+                Cached cached = fields[i];
+                if (cached.field.source == source && cached.version == maze.getVersion()) {
+                    // Move it first, so it's the last one to be forgotten.
+                    System.arraycopy(fields, 0, fields, 1, i);
+                    fields[0] = cached;
+                    return cached.field;
+                }
+            }
+            return null;
+        }
+    }
+
+    /// Returns the vertex the distances are measured from.
+    ///
+    /// @return the source vertex
+    public int getSource() {
+        return source;
+    }
+
+    /// Returns the number of vertices of the maze this field was made for.
+    ///
+    /// @return the number of vertices
+    public int getNumCells() {
+        return distances.length;
+    }
+
+    /// Returns true when there's a path from the source to the vertex.
+    ///
+    /// @param vertex the vertex
+    /// @return true if the vertex can be reached from the source
+    /// @throws InvalidVertexException when the vertex is out of bounds
+    public boolean isReachable(int vertex) {
+        return distances[checkVertex(vertex)] != -1;
+    }
+
+    /// Returns the number of moves of the shortest path from the source to the vertex.
+    ///
+    /// @param vertex the vertex
+    /// @return the distance to the vertex, or -1 if it can't be reached
+    /// @throws InvalidVertexException when the vertex is out of bounds
+    public int distanceTo(int vertex) {
+        return distances[checkVertex(vertex)];
+    }
+
+    /// Returns the vertex coming just before the given vertex, on the shortest path from the source.
+    ///
+    /// @param vertex the vertex
+    /// @return the parent of the vertex; the source itself for the source, and -1 if the vertex can't be reached
+    /// @throws InvalidVertexException when the vertex is out of bounds
+    public int parentOf(int vertex) {
+        return parents[checkVertex(vertex)];
+    }
+
+    /// Returns the shortest path from the source to the vertex.
+    ///
+    /// @param vertex the last vertex of the path
+    /// @return the vertices of the path, from the source to the vertex; empty if the vertex can't be reached
+    /// @throws InvalidVertexException when the vertex is out of bounds
+    public int[] pathTo(int vertex) {
+        int length = distanceTo(vertex);
+        if (length == -1) {
+            return new int[0];
+        }
+
+        int[] path = new int[length + 1];
+        int at = vertex;
+        for (int i = length; i >= 0; i--) {
+            path[i] = at;
+            at = parents[at];
+        }
+        return path;
+    }
+
+    /// Returns the number of vertices which can be reached from the source, including the source.
+    ///
+    /// @return the number of reachable vertices
+    public int getReachableCount() {
+        return reachableCount;
+    }
+
+    /// Returns the reachable vertex which is the farthest from the source.
+    /// When several vertices are as far, returns the lowest one.
+    ///
+    /// @return the farthest vertex
+    public int getFarthestVertex() {
+        return farthestVertex;
+    }
+
+    /// Returns the distance from the source to the farthest reachable vertex (its eccentricity).
+    ///
+    /// @return the largest distance
+    public int getMaxDistance() {
+        return distances[farthestVertex];
+    }
+
+    private int checkVertex(int vertex) {
+        if (vertex < 0 || vertex >= distances.length) {
+            throw new InvalidVertexException("Invalid vertex id " + vertex + ". It must be in [0, "
+                    + distances.length + "[.");
+        }
+        return vertex;
+    }
+}
@@ -47,6 +47,7 @@ import java.util.List;
 ///
 /// - [#isConnected(int, int)]: Tells if two vertices are connected.
 /// - [#getAdjacentVertices(int)]: Get all atteignable vertices based on a start vertex.
+/// - [#getDegree(int)]: Get the number of atteignable vertices based on a start vertex.
 ///
 /// You can also iterate through all vertices of this graph with a simple `for` loop:
 ///
@@ -62,7 +63,19 @@ import java.util.List;
 /// - [#connect(int, int)]: Add an edge between two vertices.
 /// - [#disconnect(int, int)]: Remove an edge between two vertices.
 /// - [#setConnected(int, int, boolean)]: Add/remove an edge between two vertices.
+/// - [#connectAll()]: Add all possible edges, removing every wall inside the maze.
 /// - [#setEndpoints(int, int)]: Set the start and end points of the maze
+///
+/// Changes to the edges can be followed with an [EdgeListener], see [#addEdgeListener(EdgeListener)].
+///
+/// ## Fingerprint
+///
+/// Every maze has a 64-bit [fingerprint][#fingerprint()] of its size, edges and endpoints, which is
+/// kept up to date after each change, in O(1). Two mazes with the same content have the same fingerprint,
+/// so it can be used as a cache key.
+///
+/// When collisions must be avoided, like for files, the 128-bit [digest][#digest()] is much stronger,
+/// but takes O(n) time.
 public class GraphMaze implements Serializable {
     // Version of this class for Java serialization. Increment it when changing the class!
     @Serial
@@ -80,6 +93,12 @@ public class GraphMaze implements Serializable {
     private int end;
     /// The adjacency list of the graph. Each vertex has a list of vertices it is connected to.
     private final List<Integer>[] edges; // Like a Map<Integer, List<Integer>> (https://i.imgur.com/HNeObED.png)
+    /// The number of times edges were added or removed. Not saved: loaded and cloned mazes start again from 0.
+    private transient int version;
+    /// The listeners told about every change to the edges. Not saved, and not cloned.
+    private transient List<EdgeListener> edgeListeners;
+    /// The fingerprint of the content of the maze. Not saved: it's computed again when loading.
+    private transient long fingerprint;
 
     /// Makes an empty maze with inaccessible cells, and no start/end points.
     ///
@@ -104,6 +123,7 @@ public class GraphMaze implements Serializable {
         for (int i = 0; i < numCells; i++) {
             edges[i] = new ArrayList<>();
         }
+        this.fingerprint = computeFingerprint();
     }
 
     // Constructor for cloning
@@ -120,6 +140,7 @@ public class GraphMaze implements Serializable {
         for (int i = 0; i < numCells; i++) {
             edges[i] = new ArrayList<>(other.edges[i]);
         }
+        this.fingerprint = other.fingerprint;
     }
 
     /// Converts 2D coordinates of a point in the maze to its corresponding vertex id.
@@ -236,9 +257,65 @@ public class GraphMaze implements Serializable {
             edges[vertexB].remove((Integer) vertexA);
         }
 
+        version++;
+        fingerprint ^= edgeKey(vertexA, vertexB);
+        if (edgeListeners != null) {
+            for (EdgeListener listener : edgeListeners) {
+                listener.onEdgeChanged(vertexA, vertexB);
+            }
+        }
         return true;
     }
 
+    /// Connects every vertex with all of its neighbors (left, right, up and down), so there's no wall left
+    /// inside the maze.
+    ///
+    /// This is way faster than calling [#connect(int, int)] for every pair of vertices, since the adjacency
+    /// lists are filled directly, without any check.
+    public void connectAll() {
+        for (int v = 0; v < numCells; v++) {
+            // Find the coordinates of the vertex to see which neighbors it has.
+            int x = v % width;
+            int y = v / width;
+
+            // Replace all edges of this vertex with all of its neighbors.
+            List<Integer> adj = edges[v];
+            adj.clear();
+            if (y > 0) { adj.add(v - width); } // Up
+            if (x > 0) { adj.add(v - 1); } // Left
+            if (x < width - 1) { adj.add(v + 1); } // Right
+            if (y < height - 1) { adj.add(v + width); } // Down
+        }
+        version++;
+        fingerprint = computeFingerprint();
+        if (edgeListeners != null) {
+            for (EdgeListener listener : edgeListeners) {
+                listener.onAllEdgesChanged();
+            }
+        }
+    }
+
+    /// Adds a listener which will be told about every edge added or removed from now on.
+    ///
+    /// Listeners aren't saved with the maze, and aren't copied by [#clone()].
+    ///
+    /// @param listener the listener to add
+    public void addEdgeListener(EdgeListener listener) {
+        if (edgeListeners == null) {
+            edgeListeners = new ArrayList<>();
+        }
+        edgeListeners.add(listener);
+    }
+
+    /// Removes a listener added with [#addEdgeListener(EdgeListener)].
+    ///
+    /// @param listener the listener to remove
+    public void removeEdgeListener(EdgeListener listener) {
+        if (edgeListeners != null) {
+            edgeListeners.remove(listener);
+        }
+    }
+
     /// Sets both start and end vertices.
     ///
     /// To indicate an absence of endpoints, both must be set to -1.
@@ -251,6 +328,7 @@ public class GraphMaze implements Serializable {
     public void setEndpoints(int start, int end) {
         if (start == -1 && end == -1) {
             // Empty start/end; clear current endpoints.
+            fingerprint ^= endpointsKey(this.start, this.end);
             this.start = -1;
             this.end = -1;
             return;
@@ -265,7 +343,8 @@ public class GraphMaze implements Serializable {
             throw new IllegalArgumentException("Start and end vertices cannot be the same.");
         }
 
-        // Set the start and end vertices.
+        // Set the start and end vertices, replacing the old ones in the fingerprint.
+        fingerprint ^= endpointsKey(this.start, this.end) ^ endpointsKey(start, end);
         this.start = start;
         this.end = end;
     }
@@ -281,6 +360,19 @@ public class GraphMaze implements Serializable {
         return Collections.unmodifiableList(this.edges[vertex]);
     }
 
+    /// Returns the number of vertices adjacent to the given vertex V, i.e. the number of missing walls around it.
+    ///
+    /// A vertex with a degree of 1 is a dead end: only one way to go!
+    ///
+    /// @param vertex The vertex to get the degree of
+    /// @throws InvalidVertexException when the vertex is invalid.
+    /// @return the number of adjacent vertices, in `[0, 4]`.
+    public int getDegree(int vertex) {
+        checkVertex(vertex);
+
+        return this.edges[vertex].size();
+    }
+
     /// Converts this maze into an [ArrayMaze], with all walls properly set to match the edges of this graph.
     ///
     /// @return a snapshot of this graph's state in [ArrayMaze] format
@@ -341,6 +433,90 @@ public class GraphMaze implements Serializable {
         return new GraphMaze(this);
     }
 
+    /// Returns a 64-bit hash of the content of the maze: its size, its edges and its endpoints.
+    ///
+    /// This is a Zobrist hash: each possible edge has its own random key, and the fingerprint is
+    /// the XOR of the keys of all edges of the maze, and of the keys of the size and the endpoints.
+    /// Adding or removing an edge XORs its key again, so the fingerprint is kept up to date in O(1),
+    /// and reading it takes O(1) too.
+    ///
+    /// Keys only depend on the vertices, not on a random seed: clones, loaded mazes and mazes built
+    /// the same way all have the same fingerprint. Mazes with different content almost always have
+    /// different fingerprints, but it's not guaranteed.
+    ///
+    /// @return the fingerprint of the maze
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    /// Returns a strong 128-bit digest of the content of the maze: its size, its edges and its endpoints.
+    ///
+    /// It's the digest stored at the end of the maze in the [compact format][CompactMazeFormat]: the first
+    /// 16 bytes of the SHA-256 of the maze in that format. Unlike the [#fingerprint()], it's computed
+    /// from scratch on every call, in O(n).
+    ///
+    /// Two mazes with the same content have the same digest, and different mazes practically never do.
+    /// It stays the same in clones and in mazes saved and loaded again, in any format.
+    ///
+    /// @return the digest of the maze
+    public CompactMazeFormat.Digest digest() {
+        try {
+            return CompactMazeFormat.write(this, OutputStream.nullOutputStream());
+        } catch (MazeSerializationException e) {
+            // Nothing can fail when writing to nowhere.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /// Computes the fingerprint from scratch, by going through all edges.
+    private long computeFingerprint() {
+        long hash = mix(((long) width << 32) | height) ^ endpointsKey(start, end);
+        for (int v = 0; v < numCells; v++) {
+            for (int neighbor : edges[v]) {
+                // Each edge is seen from both sides: only count it once.
+                if (neighbor > v) {
+                    hash ^= edgeKey(v, neighbor);
+                }
+            }
+        }
+        return hash;
+    }
+
+    /// Returns the key of the edge between two vertices next to each other, from the lowest vertex
+    /// and the direction of the other one.
+    private long edgeKey(int vertexA, int vertexB) {
+        int low = Math.min(vertexA, vertexB);
+        int gap = Math.max(vertexA, vertexB) - low;
+        int direction = gap == 1 ? 0 // Right
+                : gap == width ? 1 // Down
+                : gap == width + 1 ? 2 // Down right
+                : 3; // Down left
+        return mix(((long) low << 2) | direction);
+    }
+
+    /// Returns the key of the start and end vertices, or 0 when there are none.
+    private static long endpointsKey(int start, int end) {
+        if (start == -1) {
+            return 0;
+        }
+        return mix(~(long) start) ^ mix(~((long) end << 32));
+    }
+
+    /// Scrambles the bits of a number, so close numbers give unrelated keys. (SplitMix64's finalizer)
+    private static long mix(long x) {
+        x += 0x9E3779B97F4A7C15L;
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+
+    // Computes the fingerprint again after reading the maze with Java serialization.
+    @Serial
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.fingerprint = computeFingerprint();
+    }
+
     /// Saves this maze into to a stream.
     ///
     /// @param output The output to save the maze into.
@@ -355,13 +531,37 @@ public class GraphMaze implements Serializable {
         }
     }
 
+    /// Saves this maze into a stream, using the [compact binary format][CompactMazeFormat].
+    ///
+    /// The compact format is much smaller than the default one, but cannot be read by older versions of the app.
+    ///
+    /// @param output The output to save the maze into. It is closed once the maze is saved.
+    /// @throws MazeSerializationException when the maze failed to be saved.
+    /// @see #load(InputStream)
+    public void saveCompact(OutputStream output) throws MazeSerializationException {
+        try (output) {
+            CompactMazeFormat.write(this, output);
+        } catch (IOException e) {
+            throw new MazeSerializationException("Failed to save the maze.", e);
+        }
+    }
+
     /// Loads a maze from a stream.
     ///
+    /// Both formats are supported: the default one (see [#save(OutputStream)]), and the
+    /// [compact format][CompactMazeFormat] (see [#saveCompact(OutputStream)]).
+    ///
     /// @param input The stream to load the maze from.
     /// @throws MazeSerializationException when the maze failed to be loaded (due to IO or Java issues).
     /// @return the loaded maze, in graph format.
     public static GraphMaze load(InputStream input) throws MazeSerializationException {
-        try (ObjectInputStream in = new ObjectInputStream(input)) {
+        try (InputStream buffered = new BufferedInputStream(input)) {
+            // Look at the first bytes to find out which format is used.
+            if (CompactMazeFormat.isCompact(buffered)) {
+                return CompactMazeFormat.read(buffered);
+            }
+
+            ObjectInputStream in = new ObjectInputStream(buffered);
             return (GraphMaze) in.readObject();
         } catch (IOException | ClassNotFoundException e) {
             // When we encounter an IOException or a ClassNotFoundException, put it inside a MazeSerializationException.
@@ -447,4 +647,28 @@ public class GraphMaze implements Serializable {
     public int getEnd() {
         return end;
     }
+
+    /// Returns a number which changes every time edges are added or removed, but not when the endpoints change.
+    /// Data computed from the edges of the maze can keep the version they were computed for, to know
+    /// when they're outdated.
+    ///
+    /// The version isn't saved: loaded and cloned mazes start again from 0.
+    /// @return the version of the edges of the maze.
+    public int getVersion() {
+        return version;
+    }
+
+    /// Receives the changes made to the edges of a maze, right after they happen.
+    ///
+    /// @see #addEdgeListener(EdgeListener)
+    public interface EdgeListener {
+        /// Called when an edge was added or removed between two vertices.
+        ///
+        /// @param vertexA the first vertex of the edge
+        /// @param vertexB the second vertex of the edge
+        void onEdgeChanged(int vertexA, int vertexB);
+
+        /// Called when any edge may have changed, like after [#connectAll()].
+        void onAllEdgesChanged();
+    }
 }
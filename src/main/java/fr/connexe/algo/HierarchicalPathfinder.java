@@ -0,0 +1,454 @@
+package fr.connexe.algo;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/// Answers many shortest path queries on a large maze, using **hierarchical pathfinding** (HPA*).
+///
+/// The maze is divided into square **clusters** of cells. The cells next to an open wall between two clusters
+/// are the **entrances** of their cluster. For each cluster, the distances between all of its entrances,
+/// going only through the cluster, are computed once. Together, they make the **abstract graph**:
+/// - entrances of the same cluster are linked with the distance between them;
+/// - entrances on both sides of an open wall between two clusters are linked with a distance of 1.
+///
+/// A query first links the start and the end to the entrances of their cluster, then runs A* on the abstract
+/// graph, whose nodes are far fewer than the cells of the maze. The path is then **refined** by a BFS
+/// inside each cluster it goes through, between the entrances it uses.
+///
+/// Every open wall between two clusters is an entrance, and every shortest path is made of moves inside
+/// clusters between such walls: queries always find the shortest path.
+///
+/// Clusters are built in parallel on a [ForkJoinPool]. The pathfinder follows the changes to the maze with
+/// a [GraphMaze.EdgeListener]: only the clusters with a changed edge are built again, just before the next query.
+/// Call [#close()] once the pathfinder isn't needed anymore, so the maze stops telling it about changes.
+///
+/// Queries aren't made for threads: a pathfinder answers one query at a time.
+public final class HierarchicalPathfinder implements AutoCloseable {
+    /// The width and height of clusters, in cells, used by [#HierarchicalPathfinder(GraphMaze)].
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+    // Build clusters in tasks of at least this many clusters.
+    private static final int MIN_CLUSTERS_PER_TASK = 16;
+
+    private final GraphMaze maze;
+    private final int width, height;
+    private final int clusterSize;
+    // The number of clusters in each row and column.
+    private final int clustersX, clustersY;
+    // The most entrances a cluster can have: the cells on its border.
+    private final int maxEntrances;
+
+    // The entrances of each cluster, and the distances between them, going through the cluster only:
+    // the distance between entrances i and j is distances[k][i * count + j], or -1 when there's no path.
+    private final int[][] entrances;
+    private final int[][] distances;
+    // The cells of other clusters next to each entrance, through an open wall: partners[k][2 * i] and
+    // partners[k][2 * i + 1], or -1. An entrance in a corner of the cluster can have two of them.
+    private final int[][] partners;
+    // The index of each cell among the entrances of its cluster, or -1 when it's not an entrance.
+    private final int[] entranceIndex;
+
+    // Clusters with a changed edge, to build again before the next query.
+    private final boolean[] dirty;
+    private int[] dirtyList = new int[16];
+    private int dirtyCount = 0;
+    private boolean allDirty = false;
+    private final GraphMaze.EdgeListener edgeListener = new GraphMaze.EdgeListener() {
+        @Override
+        public void onEdgeChanged(int vertexA, int vertexB) {
+            markDirty(clusterOf(vertexA));
+            markDirty(clusterOf(vertexB));
+        }
+
+        @Override
+        public void onAllEdgesChanged() {
+            allDirty = true;
+        }
+    };
+
+    // The state of the abstract search, kept between queries. Abstract nodes are cluster * maxEntrances + index,
+    // then the start and the end. Scores are only valid when their stamp is the one of the current query.
+    private final int[] g;
+    private final int[] parent;
+    private final int[] stamps;
+    private int stamp = 0;
+    private final IndexedHeap open;
+
+    /// Divides a maze into clusters of [#DEFAULT_CLUSTER_SIZE] cells, and builds them on the common [ForkJoinPool].
+    ///
+    /// @param maze the maze to search
+    public HierarchicalPathfinder(GraphMaze maze) {
+        this(maze, DEFAULT_CLUSTER_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /// Divides a maze into clusters, and builds them on the threads of a pool.
+    ///
+    /// Small clusters make the refinement faster, and large clusters make the abstract graph smaller.
+    ///
+    /// @param maze        the maze to search
+    /// @param clusterSize the width and height of clusters, in cells; at least 2
+    /// @param pool        the pool building the clusters, or null to build them in the calling thread
+    /// @throws IllegalArgumentException when the cluster size is less than 2
+    public HierarchicalPathfinder(GraphMaze maze, int clusterSize, ForkJoinPool pool) {
+        if (clusterSize < 2) {
+            throw new IllegalArgumentException("The cluster size must be at least 2, got " + clusterSize + ".");
+        }
+
+        this.maze = maze;
+        this.width = maze.getWidth();
+        this.height = maze.getHeight();
+        this.clusterSize = clusterSize;
+        this.clustersX = (width + clusterSize - 1) / clusterSize;
+        this.clustersY = (height + clusterSize - 1) / clusterSize;
+        this.maxEntrances = 4 * clusterSize - 4;
+
+        int clusterCount = clustersX * clustersY;
+        this.entrances = new int[clusterCount][];
+        this.distances = new int[clusterCount][];
+        this.partners = new int[clusterCount][];
+        this.entranceIndex = new int[maze.getNumCells()];
+        this.dirty = new boolean[clusterCount];
+        Arrays.fill(entranceIndex, -1);
+
+        int nodes = clusterCount * maxEntrances + 2;
+        this.g = new int[nodes];
+        this.parent = new int[nodes];
+        this.stamps = new int[nodes];
+        this.open = new IndexedHeap(nodes);
+
+        buildAll(pool);
+        maze.addEdgeListener(edgeListener);
+    }
+
+    /// Finds the shortest path between two cells.
+    ///
+    /// Clusters changed since the last query are built first.
+    ///
+    /// @param start    the first cell of the path
+    /// @param end      the last cell of the path
+    /// @param listener receives the cell of every expanded entrance, with the start and the end
+    /// @return the cells of the path from start to end, or an empty array if there's none
+    /// @throws InvalidVertexException when a cell is out of bounds
+    /// @throws CancellationException when the listener cancelled the search
+    public int[] shortestPath(int start, int end, SolveListener listener) {
+        checkVertex(start);
+        checkVertex(end);
+        if (start == end) {
+            listener.onVisit(start);
+            return new int[]{start};
+        }
+
+        updateClusters();
+        if (++stamp == 0) {
+            // Stamps went around: old scores could look valid again.
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+        open.clear();
+
+        int source = stamps.length - 2, target = stamps.length - 1;
+        int startCluster = clusterOf(start), endCluster = clusterOf(end);
+        int[] fromStart = new ClusterBFS(startCluster).run(start);
+        int[] toEnd = new ClusterBFS(endCluster).run(end);
+        int endX = end % width, endY = end / width;
+
+        relax(source, 0, source, start, endX, endY);
+        while (!open.isEmpty()) {
+            listener.checkCancelled();
+
+            int node = open.poll();
+            int cell = cellOf(node, start, end);
+            listener.onVisit(cell);
+            if (node == target) {
+                return refine(source, target, start, end);
+            }
+
+            int score = g[node];
+            if (node == source) {
+                // Go to the entrances of the start's cluster, or straight to the end in the same cluster.
+                int[] cells = entrances[startCluster];
+                for (int i = 0; i < cells.length; i++) {
+                    int d = fromStart[localIndex(startCluster, cells[i])];
+                    if (d != -1) {
+                        relax(startCluster * maxEntrances + i, d, node, cells[i], endX, endY);
+                    }
+                }
+                if (startCluster == endCluster && fromStart[localIndex(startCluster, end)] != -1) {
+                    relax(target, fromStart[localIndex(startCluster, end)], node, end, endX, endY);
+                }
+                continue;
+            }
+
+            int k = node / maxEntrances, i = node % maxEntrances;
+            int count = entrances[k].length;
+            // Other entrances of the same cluster.
+            for (int j = 0; j < count; j++) {
+                int d = distances[k][i * count + j];
+                if (d > 0) {
+                    relax(k * maxEntrances + j, score + d, node, entrances[k][j], endX, endY);
+                }
+            }
+            // Entrances of the neighboring clusters.
+            for (int p = 2 * i; p <= 2 * i + 1; p++) {
+                int neighbor = partners[k][p];
+                if (neighbor != -1) {
+                    relax(clusterOf(neighbor) * maxEntrances + entranceIndex[neighbor], score + 1, node, neighbor,
+                            endX, endY);
+                }
+            }
+            // The end, from the entrances of its cluster.
+            if (k == endCluster && toEnd[localIndex(k, cell)] != -1) {
+                relax(target, score + toEnd[localIndex(k, cell)], node, end, endX, endY);
+            }
+        }
+        return new int[0];
+    }
+
+    /// Returns the number of entrances of all clusters: the number of nodes of the abstract graph,
+    /// without the start and the end.
+    ///
+    /// @return the number of entrances
+    public int getEntranceCount() {
+        updateClusters();
+        int count = 0;
+        for (int[] cells : entrances) {
+            count += cells.length;
+        }
+        return count;
+    }
+
+    /// Stops following the changes to the maze. The pathfinder must not be used afterward.
+    @Override
+    public void close() {
+        maze.removeEdgeListener(edgeListener);
+    }
+
+    // Lowers the g score of an abstract node.
+    private void relax(int node, int newG, int from, int cell, int endX, int endY) {
+        if (stamps[node] == stamp && newG >= g[node]) {
+            return;
+        }
+        stamps[node] = stamp;
+        g[node] = newG;
+        parent[node] = from;
+
+        int h = Math.abs(cell % width - endX) + Math.abs(cell / width - endY);
+        open.insertOrDecrease(node, ((long) (newG + h) << 32) | h);
+    }
+
+    // Turns the abstract path into cells: entrances of the same cluster are linked by a BFS inside the cluster,
+    // and entrances of neighboring clusters are next to each other.
+    private int[] refine(int source, int target, int start, int end) {
+        int[] path = new int[g[target] + 1];
+        int i = path.length - 1;
+        for (int node = target; node != source; node = parent[node]) {
+            int cell = cellOf(node, start, end);
+            int previous = cellOf(parent[node], start, end);
+            int k = clusterOf(cell);
+            if (k != clusterOf(previous)) {
+                path[i--] = cell; // Through a wall between two clusters.
+                continue;
+            }
+
+            // Walk back from the cell to the previous one, inside the cluster.
+            var bfs = new ClusterBFS(k);
+            int[] steps = bfs.run(cell);
+            for (int at = previous; at != cell; ) {
+                at = bfs.nextToward(steps, at);
+                path[i--] = at;
+            }
+            // The cells were added from the previous one to this one: put them back in order.
+            reverse(path, i + 1, i + steps[localIndex(k, previous)]);
+        }
+        path[0] = start;
+        return path;
+    }
+
+    private static void reverse(int[] array, int from, int to) {
+        for (; from < to; from++, to--) {
+            int swap = array[from];
+            array[from] = array[to];
+            array[to] = swap;
+        }
+    }
+
+    private int cellOf(int node, int start, int end) {
+        if (node == stamps.length - 2) {
+            return start;
+        } else if (node == stamps.length - 1) {
+            return end;
+        }
+        return entrances[node / maxEntrances][node % maxEntrances];
+    }
+
+    private int clusterOf(int cell) {
+        return (cell / width / clusterSize) * clustersX + (cell % width) / clusterSize;
+    }
+
+    // Returns the index of a cell inside its cluster, row by row.
+    private int localIndex(int cluster, int cell) {
+        int x0 = (cluster % clustersX) * clusterSize, y0 = (cluster / clustersX) * clusterSize;
+        return (cell / width - y0) * clusterSize + (cell % width - x0);
+    }
+
+    private void markDirty(int cluster) {
+        if (!dirty[cluster]) {
+            dirty[cluster] = true;
+            if (dirtyCount == dirtyList.length) {
+                dirtyList = Arrays.copyOf(dirtyList, dirtyCount * 2);
+            }
+            dirtyList[dirtyCount++] = cluster;
+        }
+    }
+
+    // Builds again the clusters changed since the last query.
+    private void updateClusters() {
+        if (allDirty) {
+            buildAll(ForkJoinPool.commonPool());
+        } else {
+            for (int i = 0; i < dirtyCount; i++) {
+                buildCluster(dirtyList[i]);
+                dirty[dirtyList[i]] = false;
+            }
+        }
+        allDirty = false;
+        Arrays.fill(dirty, false);
+        dirtyCount = 0;
+    }
+
+    private void buildAll(ForkJoinPool pool) {
+        int clusterCount = entrances.length;
+        if (pool == null || pool.getParallelism() == 1 || clusterCount < MIN_CLUSTERS_PER_TASK * 2) {
+            for (int k = 0; k < clusterCount; k++) {
+                buildCluster(k);
+            }
+        } else {
+            pool.invoke(new BuildTask(0, clusterCount));
+        }
+    }
+
+    // Finds the entrances of a cluster, and the distances between them. Only changes data of this cluster,
+    // so clusters can be built at the same time.
+    private void buildCluster(int k) {
+        int x0 = (k % clustersX) * clusterSize, y0 = (k / clustersX) * clusterSize;
+        int x1 = Math.min(x0 + clusterSize, width), y1 = Math.min(y0 + clusterSize, height);
+
+        // Forget the old entrances.
+        if (entrances[k] != null) {
+            for (int cell : entrances[k]) {
+                entranceIndex[cell] = -1;
+            }
+        }
+
+        // Border cells with an edge leaving the cluster, going through the border cells only.
+        int[] found = new int[maxEntrances];
+        int[] foundPartners = new int[maxEntrances * 2];
+        int count = 0;
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                if (y != y0 && y != y1 - 1 && x != x0 && x != x1 - 1) {
+                    x = x1 - 2; // Skip the inside of the cluster.
+                    continue;
+                }
+                int cell = y * width + x;
+                int partnerCount = 0;
+                for (int neighbor : maze.getAdjacentVertices(cell)) {
+                    if (clusterOf(neighbor) != k) {
+                        foundPartners[2 * count + partnerCount++] = neighbor;
+                    }
+                }
+                if (partnerCount > 0) {
+                    if (partnerCount == 1) {
+                        foundPartners[2 * count + 1] = -1;
+                    }
+                    entranceIndex[cell] = count;
+                    found[count++] = cell;
+                }
+            }
+        }
+
+        int[] cells = Arrays.copyOf(found, count);
+        int[] dist = new int[count * count];
+        var bfs = new ClusterBFS(k);
+        for (int i = 0; i < count; i++) {
+            int[] fromEntrance = bfs.run(cells[i]);
+            for (int j = 0; j < count; j++) {
+                dist[i * count + j] = fromEntrance[localIndex(k, cells[j])];
+            }
+        }
+        entrances[k] = cells;
+        distances[k] = dist;
+        partners[k] = Arrays.copyOf(foundPartners, count * 2);
+    }
+
+    private void checkVertex(int vertex) {
+        if (!maze.isValidVertex(vertex)) {
+            throw new InvalidVertexException("Invalid vertex id " + vertex + ". It must be in [0, "
+                    + maze.getNumCells() + "[.");
+        }
+    }
+
+    // Builds the clusters in [from, to[, splitting them between tasks.
+    private final class BuildTask extends RecursiveAction {
+        private final int from, to;
+
+        BuildTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from >= MIN_CLUSTERS_PER_TASK * 2) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BuildTask(from, middle), new BuildTask(middle, to));
+                return;
+            }
+            for (int k = from; k < to; k++) {
+                buildCluster(k);
+            }
+        }
+    }
+
+    // A BFS which doesn't leave a cluster, giving the distance to each of its cells (by local index).
+    private final class ClusterBFS {
+        private final int cluster;
+        private final int[] distances = new int[clusterSize * clusterSize];
+        private final int[] queue = new int[clusterSize * clusterSize];
+
+        ClusterBFS(int cluster) {
+            this.cluster = cluster;
+        }
+
+        // Returns the distance from the source to each cell of the cluster, or -1 when it can't be reached.
+        int[] run(int source) {
+            Arrays.fill(distances, -1);
+            int head = 0, tail = 0;
+            distances[localIndex(cluster, source)] = 0;
+            queue[tail++] = source;
+            while (head < tail) {
+                int cell = queue[head++];
+                int d = distances[localIndex(cluster, cell)];
+                for (int neighbor : maze.getAdjacentVertices(cell)) {
+                    if (clusterOf(neighbor) == cluster && distances[localIndex(cluster, neighbor)] == -1) {
+                        distances[localIndex(cluster, neighbor)] = d + 1;
+                        queue[tail++] = neighbor;
+                    }
+                }
+            }
+            return distances;
+        }
+
+        // Returns a neighbor of the cell one step closer to the source of the BFS.
+        int nextToward(int[] distances, int cell) {
+            int d = distances[localIndex(cluster, cell)];
+            for (int neighbor : maze.getAdjacentVertices(cell)) {
+                if (clusterOf(neighbor) == cluster && distances[localIndex(cluster, neighbor)] == d - 1) {
+                    return neighbor;
+                }
+            }
+            throw new IllegalStateException("No way back to the source of the BFS from " + cell + ".");
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package fr.connexe.algo;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+/// Keeps the shortest path from the start to the end of a maze **up to date while the maze is edited**,
+/// using Lifelong Planning A* (LPA*).
+///
+/// LPA* is an A* which keeps its scores between searches. Each cell has two scores:
+/// - `g`: the distance from the start found by the last search;
+/// - `rhs`: the distance it should have, looking at the `g` score of its neighbors (`min(g(neighbor) + 1)`).
+///
+/// A cell is **consistent** when both are equal. When a wall appears or disappears, only the `rhs` of the two
+/// cells around it changes: they become inconsistent, and go into the queue. The next search only fixes
+/// the inconsistent cells which may change the path, in A* order, and stops once the end is consistent
+/// and nothing left in the queue can give a shorter path. Cells far from the change keep their scores,
+/// so small edits are repaired after expanding few cells.
+///
+/// The pathfinder follows the changes to the maze with a [GraphMaze.EdgeListener]. Searches are lazy: changes
+/// are only recorded, and the path is repaired by [#shortestPath(SolveListener)]. When the endpoints change,
+/// or when all edges change at once, the search starts over. Call [#close()] once the pathfinder isn't needed
+/// anymore, so the maze stops telling it about changes.
+public final class IncrementalPathfinder implements AutoCloseable {
+    // The score of unreachable cells; small enough to add 1 without overflowing.
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+    private final GraphMaze maze;
+    private final int width;
+    private final int[] g;
+    private final int[] rhs;
+    private final IndexedHeap open;
+    // The endpoints of the current search; -1 before the first search.
+    private int start = -1, end = -1;
+    private int endX, endY;
+    // True when the search must start over before the next path.
+    private boolean reset = true;
+    private final GraphMaze.EdgeListener edgeListener = new GraphMaze.EdgeListener() {
+        @Override
+        public void onEdgeChanged(int vertexA, int vertexB) {
+            if (!reset) {
+                updateCell(vertexA);
+                updateCell(vertexB);
+            }
+        }
+
+        @Override
+        public void onAllEdgesChanged() {
+            reset = true;
+        }
+    };
+
+    /// Makes a pathfinder for the start and end of a maze, following its changes from now on.
+    /// The first search is done by the first call to [#shortestPath(SolveListener)].
+    ///
+    /// @param maze the maze to solve
+    public IncrementalPathfinder(GraphMaze maze) {
+        this.maze = maze;
+        this.width = maze.getWidth();
+        this.g = new int[maze.getNumCells()];
+        this.rhs = new int[maze.getNumCells()];
+        this.open = new IndexedHeap(maze.getNumCells());
+        maze.addEdgeListener(edgeListener);
+    }
+
+    /// Returns the shortest path from the start to the end of the maze, repairing the last search
+    /// with the changes made to the maze since then.
+    ///
+    /// @param listener receives every cell expanded to repair the search
+    /// @return the cells of the path from start to end, or an empty array if there's none
+    /// @throws CancellationException when the listener cancelled the search; the next call continues it
+    public int[] shortestPath(SolveListener listener) {
+        if (maze.getStart() == -1 || maze.getEnd() == -1) {
+            return new int[0];
+        }
+        if (reset || maze.getStart() != start || maze.getEnd() != end) {
+            initialize(maze.getStart(), maze.getEnd());
+        }
+
+        // Fix inconsistent cells, until the end is consistent and no cell in the queue could lower it.
+        while (!open.isEmpty() && (open.peekKey() < key(end) || rhs[end] != g[end])) {
+            listener.checkCancelled();
+
+            int cell = open.poll();
+            listener.onVisit(cell);
+            if (g[cell] > rhs[cell]) {
+                // Overconsistent: a shorter way was found, lower its g score.
+                g[cell] = rhs[cell];
+            } else {
+                // Underconsistent: its way got longer, forget its g score and compute it again.
+                g[cell] = INFINITY;
+                updateCell(cell);
+            }
+            for (int neighbor : maze.getAdjacentVertices(cell)) {
+                updateCell(neighbor);
+            }
+        }
+
+        return g[end] >= INFINITY ? new int[0] : tracePath();
+    }
+
+    /// Stops following the changes to the maze. The pathfinder must not be used afterward.
+    @Override
+    public void close() {
+        maze.removeEdgeListener(edgeListener);
+    }
+
+    // Starts a new search from scratch: every score is infinite, except the rhs score of the start.
+    private void initialize(int start, int end) {
+        this.start = start;
+        this.end = end;
+        this.endX = end % width;
+        this.endY = end / width;
+        this.reset = false;
+
+        Arrays.fill(g, INFINITY);
+        Arrays.fill(rhs, INFINITY);
+        open.clear();
+        rhs[start] = 0;
+        open.insert(start, key(start));
+    }
+
+    // Computes the rhs score of a cell again, and puts it in the queue if it's inconsistent.
+    private void updateCell(int cell) {
+        if (cell != start) {
+            int best = INFINITY;
+            for (int neighbor : maze.getAdjacentVertices(cell)) {
+                best = Math.min(best, g[neighbor] + 1);
+            }
+            rhs[cell] = best;
+        }
+
+        if (g[cell] != rhs[cell]) {
+            if (!open.insertOrDecrease(cell, key(cell)) && open.key(cell) != key(cell)) {
+                // The key went up: insertOrDecrease can't raise it.
+                open.remove(cell);
+                open.insert(cell, key(cell));
+            }
+        } else if (open.contains(cell)) {
+            open.remove(cell);
+        }
+    }
+
+    // The key of a cell in the queue: the smallest of both scores plus the heuristic, then the smallest score.
+    private long key(int cell) {
+        int score = Math.min(g[cell], rhs[cell]);
+        int h = Math.abs(cell % width - endX) + Math.abs(cell / width - endY);
+        return ((long) Math.min(score + h, INFINITY) << 32) | score;
+    }
+
+    // Walks back from the end, always going to the neighbor with the lowest g score.
+    private int[] tracePath() {
+        int[] path = new int[g[end] + 1];
+        int cell = end;
+        for (int i = path.length - 1; i > 0; i--) {
+            path[i] = cell;
+            int previous = -1;
+            for (int neighbor : maze.getAdjacentVertices(cell)) {
+                if (previous == -1 || g[neighbor] < g[previous]) {
+                    previous = neighbor;
+                }
+            }
+            cell = previous;
+        }
+        path[0] = start;
+        return path;
+    }
+}
@@ -0,0 +1,266 @@
+package fr.connexe.algo;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/// A min-heap of **vertices**, each having a `long` key, which supports changing the key of a vertex in the heap.
+///
+/// Unlike a [java.util.PriorityQueue], the heap knows where every vertex is, so:
+/// - [#contains(int)] and [#key(int)] take O(1) time
+/// - [#decreaseKey(int, long)] takes O(log n) time, without adding a duplicate entry
+///
+/// Vertices are ints between `0` and `capacity - 1`, and nothing is boxed. This is a 4-ary heap:
+/// it's shallower than a binary heap, so it does fewer cache misses when moving entries down.
+///
+/// Vertices with the same key are polled in no particular order; to break ties, encode the tie-breaker in the
+/// lowest bits of the key.
+public final class IndexedHeap {
+    // Number of children of each node of the heap.
+    private static final int ARITY = 4;
+
+    // The position of each vertex in the heap, or -1 when it isn't in the heap.
+    private final int[] positions;
+    // The vertices in heap order, and their keys. Grown when needed, since the heap is usually small.
+    private int[] vertices;
+    private long[] keys;
+    private int size = 0;
+
+    /// Makes a new, empty heap for vertices between `0` and `capacity - 1`.
+    ///
+    /// @param capacity the number of vertices, usually [GraphMaze#getNumCells()]
+    /// @throws IllegalArgumentException when the capacity is negative
+    public IndexedHeap(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity cannot be negative (got " + capacity + ")");
+        }
+
+        this.positions = new int[capacity];
+        Arrays.fill(positions, -1);
+        this.vertices = new int[Math.min(capacity, 64)];
+        this.keys = new long[vertices.length];
+    }
+
+    /// Returns the number of vertices in the heap.
+    ///
+    /// @return the number of vertices
+    public int size() {
+        return size;
+    }
+
+    /// Returns true when the heap has no vertices.
+    ///
+    /// @return true if the heap is empty
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /// Returns true when the vertex is in the heap.
+    ///
+    /// @param vertex the vertex
+    /// @return true if the vertex is in the heap
+    /// @throws IndexOutOfBoundsException when the vertex is out of bounds
+    public boolean contains(int vertex) {
+        return positions[vertex] != -1;
+    }
+
+    /// Returns the key of a vertex in the heap.
+    ///
+    /// @param vertex the vertex
+    /// @return the key of the vertex
+    /// @throws NoSuchElementException when the vertex isn't in the heap
+    public long key(int vertex) {
+        return keys[positionOf(vertex)];
+    }
+
+    /// Adds a vertex to the heap.
+    ///
+    /// @param vertex the vertex to add
+    /// @param key    the key of the vertex
+    /// @throws IllegalArgumentException when the vertex is already in the heap
+    /// @throws IndexOutOfBoundsException when the vertex is out of bounds
+    public void insert(int vertex, long key) {
+        if (positions[vertex] != -1) {
+            throw new IllegalArgumentException("Vertex " + vertex + " is already in the heap.");
+        }
+
+        // Grow the arrays when they're full.
+        if (size == vertices.length) {
+            int newLength = Math.max(1, Math.min(positions.length, vertices.length * 2));
+            vertices = Arrays.copyOf(vertices, newLength);
+            keys = Arrays.copyOf(keys, newLength);
+        }
+
+        vertices[size] = vertex;
+        keys[size] = key;
+        positions[vertex] = size;
+        siftUp(size++);
+    }
+
+    /// Lowers the key of a vertex in the heap.
+    ///
+    /// @param vertex the vertex
+    /// @param key    the new key of the vertex; must not be greater than its current key
+    /// @throws NoSuchElementException when the vertex isn't in the heap
+    /// @throws IllegalArgumentException when the new key is greater than the current one
+    public void decreaseKey(int vertex, long key) {
+        int pos = positionOf(vertex);
+        if (key > keys[pos]) {
+            throw new IllegalArgumentException("The new key of vertex " + vertex + " (" + key
+                    + ") is greater than its current key (" + keys[pos] + ")");
+        }
+
+        keys[pos] = key;
+        siftUp(pos);
+    }
+
+    /// Adds a vertex to the heap, or lowers its key if it's already there with a greater key.
+    ///
+    /// @param vertex the vertex
+    /// @param key    the key of the vertex
+    /// @return true if the vertex was added or its key lowered, false if it already had a lower or equal key
+    /// @throws IndexOutOfBoundsException when the vertex is out of bounds
+    public boolean insertOrDecrease(int vertex, long key) {
+        int pos = positions[vertex];
+        if (pos == -1) {
+            insert(vertex, key);
+            return true;
+        } else if (key < keys[pos]) {
+            keys[pos] = key;
+            siftUp(pos);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /// Returns the vertex with the lowest key, without removing it.
+    ///
+    /// @return the vertex with the lowest key
+    /// @throws NoSuchElementException when the heap is empty
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("The heap is empty.");
+        }
+        return vertices[0];
+    }
+
+    /// Returns the lowest key in the heap.
+    ///
+    /// @return the lowest key
+    /// @throws NoSuchElementException when the heap is empty
+    public long peekKey() {
+        if (size == 0) {
+            throw new NoSuchElementException("The heap is empty.");
+        }
+        return keys[0];
+    }
+
+    /// Removes and returns the vertex with the lowest key.
+    ///
+    /// @return the vertex with the lowest key
+    /// @throws NoSuchElementException when the heap is empty
+    public int poll() {
+        int top = peek();
+        positions[top] = -1;
+
+        // Move the last entry to the root, then push it down to its place.
+        size--;
+        if (size > 0) {
+            move(size, 0);
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /// Removes a vertex from the heap. Does nothing if it isn't in the heap.
+    ///
+    /// @param vertex the vertex to remove
+    /// @throws IndexOutOfBoundsException when the vertex is out of bounds
+    public void remove(int vertex) {
+        int pos = positions[vertex];
+        if (pos == -1) {
+            return;
+        }
+        positions[vertex] = -1;
+
+        // Fill the hole with the last entry, which may need to go either up or down.
+        size--;
+        if (pos != size) {
+            move(size, pos);
+            if (pos > 0 && keys[pos] < keys[(pos - 1) / ARITY]) {
+                siftUp(pos);
+            } else {
+                siftDown(pos);
+            }
+        }
+    }
+
+    /// Removes all vertices from the heap.
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[vertices[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private int positionOf(int vertex) {
+        int pos = positions[vertex];
+        if (pos == -1) {
+            throw new NoSuchElementException("Vertex " + vertex + " isn't in the heap.");
+        }
+        return pos;
+    }
+
+    // Moves the entry at the given position up, until its parent has a lower or equal key.
+    private void siftUp(int pos) {
+        int vertex = vertices[pos];
+        long key = keys[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) / ARITY;
+            if (keys[parent] <= key) {
+                break;
+            }
+            move(parent, pos);
+            pos = parent;
+        }
+        place(vertex, key, pos);
+    }
+
+    // Moves the entry at the given position down, until all its children have a greater or equal key.
+    private void siftDown(int pos) {
+        int vertex = vertices[pos];
+        long key = keys[pos];
+        while (true) {
+            // Find the child with the lowest key.
+            int first = pos * ARITY + 1;
+            if (first >= size) {
+                break;
+            }
+            int best = first;
+            int last = Math.min(first + ARITY, size);
+            for (int child = first + 1; child < last; child++) {
+                if (keys[child] < keys[best]) {
+                    best = child;
+                }
+            }
+
+            if (keys[best] >= key) {
+                break;
+            }
+            move(best, pos);
+            pos = best;
+        }
+        place(vertex, key, pos);
+    }
+
+    // Copies the entry at position "from" to position "to".
+    private void move(int from, int to) {
+        place(vertices[from], keys[from], to);
+    }
+
+    private void place(int vertex, long key, int pos) {
+        vertices[pos] = vertex;
+        keys[pos] = key;
+        positions[vertex] = pos;
+    }
+}
@@ -0,0 +1,269 @@
+package fr.connexe.algo;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+/// Jump Point Search (JPS) for mazes with 4-connected moves: an A* which jumps over the cells of corridors
+/// and open areas, instead of putting each of them in the queue.
+///
+/// JPS only looks for **canonical** shortest paths, which move horizontally before moving vertically:
+/// a horizontal-then-vertical path and a vertical-then-horizontal path going around a square of four cells
+/// have the same length, so only the first one needs to be searched. A vertical move may only be followed
+/// by a horizontal one when the horizontal-then-vertical way is walled off: the horizontal neighbor
+/// is then **forced**. Every shortest path can be turned into a canonical one, so JPS still finds
+/// the shortest path.
+///
+/// Searching only canonical paths, the search goes straight through cells where it can't turn:
+/// - going **vertically**, it stops on the end, or on a cell with a forced neighbor;
+/// - going **horizontally**, it stops on the end, or on a cell from which going up or down stops somewhere.
+///
+/// The cells where it stops are the **jump points**, and are the only ones put in the queue. A jump point
+/// can be reached from several directions with the same cost, and each of them has different successors:
+/// the search remembers all of them, and expands a jump point again when it's reached from a new direction
+/// after being expanded.
+///
+/// The jump point reached from a cell in a direction never changes during the search: it's remembered for
+/// every cell the jump went through, so each cell is scanned at most once per direction.
+///
+/// Jumps test many walls, so the open sides of each cell are read from the maze into 4 bits the first time
+/// the cell is reached, which is much faster than looking them up in the adjacency lists every time.
+final class JumpPointSearch {
+    // Directions, going clockwise: up, right, down, left.
+    private static final int UP = 0, RIGHT = 1, DOWN = 2, LEFT = 3;
+    private static final int KNOWN = 1 << 4;
+    // The arrival "direction" of the start, which searches all four directions.
+    private static final byte FROM_START = 1 << 4;
+
+    private final GraphMaze maze;
+    // The open sides of each cell: bit d is set when there's no wall in direction d.
+    // Bit KNOWN is set once the sides of the cell have been read from the maze.
+    private final byte[] openSides;
+    private final int width;
+    private final int end;
+    private final int endX, endY;
+    // The offset of the next cell in each direction.
+    private final int[] offsets;
+    // The jump point reached from each cell, in each direction (cell * 4 + direction), plus 2:
+    // 0 when it's not known yet, 1 when there's a wall before any jump point.
+    private final int[] jumps;
+
+    JumpPointSearch(GraphMaze maze) {
+        this.maze = maze;
+        this.width = maze.getWidth();
+        this.end = maze.getEnd();
+        this.endX = end % width;
+        this.endY = end / width;
+        this.offsets = new int[]{-width, 1, width, -1};
+
+        this.openSides = new byte[maze.getNumCells()];
+        this.jumps = new int[maze.getNumCells() * 4];
+    }
+
+    /// Finds the shortest path from the start to the end of the maze.
+    ///
+    /// @param listener receives every expanded jump point, once
+    /// @return the cells of the path from start to end, or an empty array if there's none
+    /// @throws CancellationException when the listener cancelled the search
+    int[] solve(SolveListener listener) {
+        int start = maze.getStart();
+        if (start == -1 || end == -1) {
+            return new int[0];
+        }
+
+        int n = maze.getNumCells();
+        int[] g = new int[n];
+        int[] parent = new int[n];
+        Arrays.fill(g, Integer.MAX_VALUE);
+        // The directions each cell was reached from with its best g score, and the ones already expanded.
+        byte[] arrivals = new byte[n];
+        byte[] expanded = new byte[n];
+        var open = new IndexedHeap(n);
+
+        g[start] = 0;
+        parent[start] = start;
+        arrivals[start] = FROM_START;
+        open.insert(start, 0);
+
+        while (!open.isEmpty()) {
+            listener.checkCancelled();
+
+            int cell = open.poll();
+            if (expanded[cell] == 0) {
+                listener.onVisit(cell);
+            }
+            if (cell == end) {
+                return reconstructPath(parent, start);
+            }
+
+            // Expand the successors of every direction the cell was reached from, which wasn't expanded yet.
+            int toExpand = arrivals[cell] & ~expanded[cell];
+            expanded[cell] |= (byte) toExpand;
+            int newG = g[cell];
+            if ((toExpand & FROM_START) != 0) {
+                // The start has no direction: search all four.
+                for (int dir = UP; dir <= LEFT; dir++) {
+                    push(open, g, parent, arrivals, expanded, cell, newG, jump(cell, dir), dir);
+                }
+            }
+            for (int dir = UP; dir <= LEFT; dir++) {
+                if ((toExpand & (1 << dir)) == 0) {
+                    continue;
+                }
+
+                push(open, g, parent, arrivals, expanded, cell, newG, jump(cell, dir), dir);
+                if (isVertical(dir)) {
+                    // Keep going, and turn towards the forced neighbors.
+                    int previous = cell - offsets[dir];
+                    for (int side = RIGHT; side <= LEFT; side += 2) {
+                        if (isForced(previous, cell, dir, side)) {
+                            push(open, g, parent, arrivals, expanded, cell, newG, jump(cell, side), side);
+                        }
+                    }
+                } else {
+                    // Keep going, and turn up or down.
+                    push(open, g, parent, arrivals, expanded, cell, newG, jump(cell, UP), UP);
+                    push(open, g, parent, arrivals, expanded, cell, newG, jump(cell, DOWN), DOWN);
+                }
+            }
+        }
+        return new int[0];
+    }
+
+    // Adds a jump point reached from a cell in a straight line, or lowers its key if it's shorter this way.
+    // When it's as short as its best way, the direction is added to its arrivals, and it's expanded
+    // again if needed. Does nothing when there's no jump point (-1).
+    private void push(IndexedHeap open, int[] g, int[] parent, byte[] arrivals, byte[] expanded,
+                      int from, int fromG, int jumpPoint, int dir) {
+        if (jumpPoint == -1) {
+            return;
+        }
+
+        int newG = fromG + Math.abs(jumpPoint - from) / Math.abs(offsets[dir]);
+        if (newG < g[jumpPoint]) {
+            g[jumpPoint] = newG;
+            parent[jumpPoint] = from;
+            arrivals[jumpPoint] = (byte) (1 << dir);
+        } else if (newG == g[jumpPoint] && (arrivals[jumpPoint] & (1 << dir)) == 0) {
+            arrivals[jumpPoint] |= (byte) (1 << dir);
+            if (expanded[jumpPoint] == 0 || open.contains(jumpPoint)) {
+                return; // It will be expanded with this direction later.
+            }
+        } else {
+            return;
+        }
+
+        int h = Math.abs(jumpPoint % width - endX) + Math.abs(jumpPoint / width - endY);
+        open.insertOrDecrease(jumpPoint, ((long) (newG + h) << 32) | h);
+    }
+
+    // Goes in a straight line from a cell until a jump point; returns -1 when it hits a wall first.
+    private int jump(int cell, int dir) {
+        int known = jumps[cell << 2 | dir];
+        if (known != 0) {
+            return known - 2;
+        }
+
+        // Walk until a jump point, a wall, or a cell whose jump point is already known.
+        int at = cell;
+        int jumpPoint;
+        while (true) {
+            if (!isOpen(at, dir)) {
+                jumpPoint = -1;
+                break;
+            }
+            int next = at + offsets[dir];
+            if (isJumpPoint(at, next, dir)) {
+                jumpPoint = next;
+                break;
+            }
+            known = jumps[next << 2 | dir];
+            if (known != 0) {
+                jumpPoint = known - 2;
+                break;
+            }
+            at = next;
+        }
+
+        // All the cells we walked through jump to the same point.
+        for (int c = cell; ; c += offsets[dir]) {
+            jumps[c << 2 | dir] = jumpPoint + 2;
+            if (c == at) {
+                break;
+            }
+        }
+        return jumpPoint;
+    }
+
+    // Tells if the search must stop on "next", when going from "at" in the given direction.
+    private boolean isJumpPoint(int at, int next, int dir) {
+        if (next == end) {
+            return true;
+        } else if (isVertical(dir)) {
+            return isForced(at, next, dir, RIGHT) || isForced(at, next, dir, LEFT);
+        } else {
+            return jump(next, UP) != -1 || jump(next, DOWN) != -1;
+        }
+    }
+
+    // Tells if, after going vertically from "previous" to "cell", the neighbor on the given side is forced:
+    // it's open, but can't be reached by going to the side first, then vertically.
+    private boolean isForced(int previous, int cell, int dir, int side) {
+        return isOpen(cell, side)
+                && (!isOpen(previous, side) || !isOpen(previous + offsets[side], dir));
+    }
+
+    // Tells if there's no wall between a cell and its neighbor in the given direction.
+    private boolean isOpen(int cell, int dir) {
+        int sides = openSides[cell];
+        if (sides == 0) {
+            sides = readSides(cell);
+        }
+        return (sides & (1 << dir)) != 0;
+    }
+
+    // Reads the open sides of a cell from the maze.
+    private int readSides(int cell) {
+        int sides = KNOWN;
+        for (int neighbor : maze.getAdjacentVertices(cell)) {
+            // Vertical neighbors first: they're also cell - 1 and cell + 1 when the maze is one cell wide.
+            int dir = neighbor == cell - width ? UP
+                    : neighbor == cell + width ? DOWN
+                    : neighbor == cell + 1 ? RIGHT
+                    : LEFT;
+            sides |= 1 << dir;
+        }
+        openSides[cell] = (byte) sides;
+        return sides;
+    }
+
+    private static boolean isVertical(int dir) {
+        return (dir & 1) == 0;
+    }
+
+    // Follows the parents from the end back to the start, filling the cells between jump points.
+    private int[] reconstructPath(int[] parent, int start) {
+        // Jump points are in a straight line from their parent: the path length is the sum of the distances.
+        int length = 1;
+        for (int cell = end; cell != start; cell = parent[cell]) {
+            length += Math.abs(cell - parent[cell]) / stepBetween(parent[cell], cell);
+        }
+
+        int[] path = new int[length];
+        int i = length - 1;
+        for (int cell = end; cell != start; cell = parent[cell]) {
+            // Walk back from the jump point to its parent.
+            int step = cell > parent[cell] ? stepBetween(parent[cell], cell) : -stepBetween(parent[cell], cell);
+            for (int at = cell; at != parent[cell]; at -= step) {
+                path[i--] = at;
+            }
+        }
+        path[0] = start;
+        return path;
+    }
+
+    // Returns the distance between two neighbors in the line from one jump point to another:
+    // 1 in the same row, the width otherwise.
+    private int stepBetween(int from, int to) {
+        return from / width == to / width ? 1 : width;
+    }
+}
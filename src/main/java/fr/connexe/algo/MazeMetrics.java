@@ -0,0 +1,95 @@
+package fr.connexe.algo;
+
+import java.util.Arrays;
+
+/// Cheap measurements of a maze, used to estimate its difficulty.
+///
+/// All metrics are computed in a single linear pass over the maze (see [#of(GraphMaze)]). The path length is
+/// read from a shared [DistanceField] of the start or the end instead, or from the [TreeIndex] of a perfect
+/// maze, when there's one.
+///
+/// @param pathLength the number of moves of the shortest path from the start to the end vertex;
+///                   `-1` when there's no path, or when the maze has no endpoints
+/// @param deadEnds   the number of dead ends: cells with only one neighbor
+/// @param junctions  the number of junctions: cells with three neighbors or more
+/// @param numCells   the total number of cells in the maze
+public record MazeMetrics(int pathLength, int deadEnds, int junctions, int numCells) {
+    /// Measures a maze.
+    ///
+    /// @param maze the maze to measure
+    /// @return the metrics of the maze
+    public static MazeMetrics of(GraphMaze maze) {
+        int numCells = maze.getNumCells();
+
+        // Count dead ends and junctions using the degree of each vertex.
+        int deadEnds = 0;
+        int junctions = 0;
+        for (int v = 0; v < numCells; v++) {
+            int degree = maze.getDegree(v);
+            if (degree == 1) {
+                deadEnds++;
+            } else if (degree >= 3) {
+                junctions++;
+            }
+        }
+
+        return new MazeMetrics(shortestPathLength(maze), deadEnds, junctions, numCells);
+    }
+
+    /// Returns the ratio of junctions among all cells, which tells how often the player needs to make a choice.
+    ///
+    /// @return the branching factor, between 0 and 1
+    public double branchingFactor() {
+        return (double) junctions / numCells;
+    }
+
+    // Runs a BFS from the start vertex to find the length of the shortest path to the end vertex,
+    // unless the distances from one of them were already measured, or the maze is an indexed tree.
+    private static int shortestPathLength(GraphMaze maze) {
+        int start = maze.getStart();
+        int end = maze.getEnd();
+        if (start == -1 || end == -1) {
+            return -1;
+        }
+
+        DistanceField field = DistanceField.cached(maze, start);
+        if (field != null) {
+            return field.distanceTo(end);
+        }
+        field = DistanceField.cached(maze, end);
+        if (field != null) {
+            return field.distanceTo(start);
+        }
+        var tree = TreeIndex.cached(maze);
+        if (tree.isPresent()) {
+            return tree.get().distance(start, end);
+        }
+
+        // The distance of each vertex from the start; -1 when not visited yet.
+        var distance = new int[maze.getNumCells()];
+        Arrays.fill(distance, -1);
+        distance[start] = 0;
+
+        // The BFS queue, as a plain array: each vertex is added only once.
+        var queue = new int[maze.getNumCells()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+
+        while (head < tail) {
+            int v = queue[head++];
+            if (v == end) {
+                return distance[v];
+            }
+            for (int neighbor : maze.getAdjacentVertices(v)) {
+                if (distance[neighbor] == -1) {
+                    distance[neighbor] = distance[v] + 1;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+
+        // The end vertex can't be reached.
+        return -1;
+    }
+}
@@ -1,6 +1,9 @@
 package fr.connexe.algo;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
 
 /// Solves mazes with various algorithms.
 public class MazeSolver {
@@ -46,606 +49,846 @@ public class MazeSolver {
         System.out.println("Clockwise:" + pile);
         pile = MazeSolver.solveDijkstra(g);
         System.out.println("Djikstra" + pile);
-        Stack<Stack<Integer>> pile2;
-        List<Stack<Integer>> pile3;
-        pile3 = MazeSolver.prepDFS2(g);
-        pile2 = MazeSolver.solveAStar(g);
-        System.out.println("A*2" + pile2);
-        pile2 = MazeSolver.prepLeftHand2(g);
-        System.out.println("LeftHand2:" + pile2);
-        System.out.println("DFS2:" + pile3);
-        pile2 = MazeSolver.prepClockwise2(g);
-        System.out.println("Clockwise2:" + pile2);
-        pile2 = MazeSolver.solveDijkstra2(g);
-        System.out.println("Dijkstra2:" + pile2);
+        SolveTrace trace;
+        trace = MazeSolver.solveAStar(g);
+        System.out.println("A*2" + Arrays.toString(trace.getPath()));
+        trace = MazeSolver.prepLeftHand2(g);
+        System.out.println("LeftHand2:" + Arrays.toString(trace.getPath()));
+        trace = MazeSolver.prepDFS2(g);
+        System.out.println("DFS2:" + Arrays.toString(trace.getPath()));
+        trace = MazeSolver.prepClockwise2(g);
+        System.out.println("Clockwise2:" + Arrays.toString(trace.getPath()));
+        trace = MazeSolver.solveDijkstra2(g);
+        System.out.println("Dijkstra2:" + Arrays.toString(trace.getPath()));
     }
 
     private MazeSolver() {
         // Prevent instantiation
     }
 
-    /// Goes through every path and compare them to get the best path to take to finish the maze
+    /// Runs an iterative DFS from the start to the end of the maze, and returns the first path found.
+    ///
+    /// The DFS stack always contains the path from the start to the current vertex, so the path is simply
+    /// the content of the stack once the end is reached. Neighbors are explored in the order given by
+    /// [GraphMaze#getAdjacentVertices(int)], and the search stops as soon as the end is reached.
+    ///
+    /// Runs in O(V+E) time and memory.
+    ///
+    /// The listener receives every visited vertex, and every fully explored vertex as blocked.
+    /// The DFS jumps directly to the next branch, so there are no backtrack events.
+    ///
     /// @param maze the maze to solve
-    /// @param num the node currently visited
-    /// @param visited boolean for all nodes to know if they are already visited or not in
-    /// @param currentPath the stack of nodes representing the path that is actually visited
-    /// @param allPaths list of stack of nodes representing all paths visited
-    @SuppressWarnings("unchecked")
-    private static void solveDFS(GraphMaze maze, int num, boolean[] visited, Stack<Integer> currentPath, List<Stack<Integer>> allPaths) {
-        visited[num] = true;
-        currentPath.push(num);
-        //if the current node is the end, clone the current path in the stack of all paths
-        if (num == maze.getEnd()) {
-            allPaths.add((Stack<Integer>) currentPath.clone());
-        } else {
-            for (int son : maze.getAdjacentVertices(num)) {
-                if (!visited[son]) {
-                     solveDFS(maze, son, visited, currentPath, allPaths);
-                }
-            }
-        }
-        if (num != maze.getEnd()) {
-            allPaths.add((Stack<Integer>) currentPath.clone());
-
+    /// @param listener receives the steps of the algorithm as they happen, and the path found
+    /// @return the vertices of the path from start to end, or an empty array if there's no path
+    /// @throws CancellationException when the listener cancelled the search
+    public static int[] solveDFS(GraphMaze maze, SolveListener listener) {
+        int start = maze.getStart();
+        int end = maze.getEnd();
+        if (start == -1 || end == -1) {
+            listener.onPath(new int[0]);
+            return new int[0];
         }
-        currentPath.pop();
 
-    }
+        boolean[] visited = new boolean[maze.getNumCells()];
+        // The DFS stack: the vertices of the current path, and the index of the next neighbor to explore for each.
+        int[] path = new int[maze.getNumCells()];
+        int[] nextNeighbor = new int[maze.getNumCells()];
+        int depth = 0;
+
+        // Begin with the start vertex.
+        visited[start] = true;
+        path[depth++] = start;
+        listener.onVisit(start);
+
+        while (depth > 0) {
+            listener.checkCancelled();
+            int top = path[depth - 1];
+            if (top == end) {
+                break; // Found it! The stack contains the path.
+            }
 
+            // Find the next unvisited neighbor of the top vertex.
+            List<Integer> neighbors = maze.getAdjacentVertices(top);
+            int next = -1;
+            while (nextNeighbor[depth - 1] < neighbors.size()) {
+                int candidate = neighbors.get(nextNeighbor[depth - 1]++);
+                if (!visited[candidate]) {
+                    next = candidate;
+                    break;
+                }
+            }
 
-    /// @param allPaths the list of stacks of nodes which represent all the paths visited
-    /// @return the shortest path to the enf if there is one
-    private static Stack<Integer> shortest(List<Stack<Integer>> allPaths, GraphMaze g) {
-        //create a new stack and whenever there is a path shorter than the ones before this one, it is copied and replace the last shortest if there was one
-        Stack<Integer> shortest = new Stack<>();
-        for (Stack<Integer> path : allPaths) {
-            if ((shortest.isEmpty() || path.size() < shortest.size()) && path.contains(g.getEnd())) {
-                shortest = path;
+            if (next == -1) {
+                // Dead end: go back to the previous vertex.
+                depth--;
+                listener.onBlock(top);
+            } else {
+                // Visit the neighbor, and continue from there.
+                visited[next] = true;
+                nextNeighbor[depth] = 0;
+                path[depth++] = next;
+                listener.onVisit(next);
             }
         }
-        //return the shortest path from all paths
-        return shortest;
-    }
 
+        // When the stack is empty, the end can't be reached.
+        int[] result = Arrays.copyOf(path, depth);
+        listener.onPath(result);
+        return result;
+    }
 
-    /// create whatever the function DFS needs to call it and returns the shortest path from the paths solveDFS returned
+    /// Solves the maze using a depth-first search, and returns the first path found from start to end.
     ///
     /// @param maze the maze to solve
-    /// @return stack of nodes to visit to solve the maze in the shortest way (if no path can solve it then return an empty stack)
+    /// @return stack of nodes to visit to solve the maze (if no path can solve it then return an empty stack)
     public static Stack<Integer> prepDFS(GraphMaze maze) {
         // Easter egg: Romu and Eva are the names of the 2 main characters of the game "The Legend of Zelda: Ocarina of Time"
         // (Source: GitHub Copilot)
-
-        //creation of everything that is needed for the function solveDFS
-        boolean[] visited = new boolean[maze.getNumCells()];
-        Stack<Integer> currentPath = new Stack<>();
-        List<Stack<Integer>> allPaths = new ArrayList<>();
-        //call of the function solveDFS
-        solveDFS(maze, maze.getStart(), visited, currentPath, allPaths);
-        //call of the function shortest and returns what it returns
-        return shortest(allPaths, maze);
+        return toStack(solveDFS(maze, SolveListener.NONE));
     }
 
-    /// create whatever the function DFS needs to call it and returns the shortest path from the paths solveDFS returned
+    /// Solves the maze using a depth-first search, and returns the first path found from start to end.
     /// Step by step version.
     ///
     /// @param maze the maze to solve
-    /// @return stack of stacks of nodes to visit to solve the maze with a copy of the path on top of the stack
-    public static List<Stack<Integer>> prepDFS2(GraphMaze maze) {
-        boolean[] visited = new boolean[maze.getNumCells()];
-        Stack<Integer> currentPath = new Stack<>();
-        List<Stack<Integer>> allPaths = new ArrayList<>();
-
-        solveDFS(maze, maze.getStart(), visited, currentPath, allPaths);
-        Stack<Integer> shortest;
-        shortest = shortest(allPaths, maze);
-        allPaths.add(shortest);
+    /// @return the trace of the algorithm, with the path found (empty if there's none)
+    /// @see #solveDFS(GraphMaze, SolveListener)
+    public static SolveTrace prepDFS2(GraphMaze maze) {
+        return record(maze, MazeSolver::solveDFS);
+    }
 
-        return allPaths;
+    // Runs a solving algorithm while recording all of its steps into a trace.
+    private static SolveTrace record(GraphMaze maze, BiFunction<GraphMaze, SolveListener, int[]> solver) {
+        var recorder = new SolveTrace.Recorder();
+        int[] path = solver.apply(maze, recorder);
+        return recorder.finish(path);
     }
 
-    /// The methode of the left hand if we consider that the object/ person in the maze is facing at the right wall
-    /// @param maze the maze to solve
-    /// @param num the node currently visited
-    /// @param visited the nodes already visited without the dead ends
-    /// @param blocked the nodes that lead to a dead end
-    /// @return visited (if no path is found then it's a stack with only the start that is returned)
-    private static Stack<Integer> solveClockwise(GraphMaze maze, int num, Stack<Integer> visited, Stack<Integer> blocked) {
-        if (maze.getEnd() == num) {
-            return visited;
+    // Converts an array of vertices into a stack, the first vertex being at the bottom.
+    private static Stack<Integer> toStack(int[] vertices) {
+        Stack<Integer> stack = new Stack<>();
+        stack.ensureCapacity(vertices.length);
+        for (int vertex : vertices) {
+            stack.push(vertex);
         }
-        List<Integer> subList = maze.getAdjacentVertices(num);
-
-        //if the node has at least one son check if it's possible to go the neighbouring node and if it was already visited or blocked clockwise
-        // and if it's possible calls this function with the new actual node as the node it is possible to go (it's going to visit every node until there's a path to the end from one)
-        if (!subList.isEmpty()) {
-            if (subList.contains(num - maze.getWidth()) && !visited.contains(num - maze.getWidth()) && !blocked.contains(num - maze.getWidth())) {
-                visited.push(num - maze.getWidth());
-                return solveClockwise(maze, num - maze.getWidth(), visited, blocked);
-            } else if (subList.contains(num + 1) && !visited.contains(num + 1) && !blocked.contains(num + 1)) {
-                visited.push(num + 1);
-                return solveClockwise(maze, num + 1, visited, blocked);
-            } else if (subList.contains(num + maze.getWidth()) && !visited.contains(num + maze.getWidth()) && !blocked.contains(num + maze.getWidth())) {
-                visited.push(num + maze.getWidth());
-                return solveClockwise(maze, num + maze.getWidth(), visited, blocked);
-            } else if (subList.contains(num - 1) && !visited.contains(num - 1) && !blocked.contains(num - 1)) {
-                visited.push(num - 1);
-                return solveClockwise(maze, num - 1, visited, blocked);
-            } else { //if there is no possibilities from the current node, it is considered as a dead end (remove it from the visited nodes),blocks it and calls the node who called this one
-                blocked.push(num);
-                visited.pop();
-                if (visited.isEmpty()) {
-                    return visited;
-                }
-                return solveClockwise(maze, visited.peek(), visited, blocked);
-            }
-        } else {//if the node doesn't have any son, consider it as a dead end (remove it from the visited nodes),blocks it and calls the node who called this one if it isn't the start (if it's the start, just return an empty stack)
-            blocked.push(num);
-            visited.pop();
-            if (!visited.isEmpty()) {
-                return visited;
-            }
-            return solveClockwise(maze, visited.peek(), visited, blocked);
+        return stack;
+    }
+
+    // Converts a stack of vertices into an array, the bottom of the stack being the first vertex.
+    private static int[] toArray(Stack<Integer> stack) {
+        int[] array = new int[stack.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = stack.get(i);
         }
+        return array;
     }
 
     /// create whatever the function Clockwise needs to call it and returns what it returns
     /// @param maze the maze to solve
     /// @return stack of nodes to visit to solve the maze (not always the shortest way) (if no path is found, return an empty stack)
     public static Stack<Integer> prepClockwise(GraphMaze maze) {
-        //create whatever the function solveClockwise needs
-        Stack<Integer> pile = new Stack<>();
-        Stack<Integer> visited = new Stack<>();
-        visited.push(maze.getStart());
-        Stack<Integer> blocked = new Stack<>();
-        //calls the function clockwise
-        visited = solveClockwise(maze, maze.getStart(), visited, blocked);
-        //since the top of the stack is the end, flip upside down the stack and return it
-        while (!visited.isEmpty()) {
-            pile.push(visited.pop());
-        }
-        return pile;
+        //since the top of the stack must be the start, flip the path upside down
+        return toReversedStack(followWalls(maze, false, SolveListener.NONE));
     }
 
-    /// Goes through the maze as a BFS until it reaches the end or if it doesn't have any more place to go
-    /// Then returns the best path to the end (if there isn't a path, it returns an empty stack)
+    // Headings of the wall followers go clockwise from 0 (up) to 3 (left): turning right is +1, turning left is +3 (mod 4).
+    private static final byte RIGHT = 1;
+
+    /// Follows the walls of the maze until it reaches the end, going back on dead ends.
+    ///
+    /// From each node, the follower tries the 4 directions in order, relative to its heading:
+    /// left, front, right, then behind. It goes to the first neighbor which isn't on its path or blocked.
+    /// When no neighbor is usable, the node is a dead end: it gets blocked, and the follower
+    /// goes back to the previous node of its path, **keeping its heading**.
+    ///
+    /// - The **left-hand** follower begins heading right, and turns when it moves.
+    /// - The **clockwise** follower always heads right, so it always tries up, right, down, then left.
+    ///
+    /// The path is kept in an int stack, and on-path and blocked nodes in bitsets, so each step
+    /// takes O(1) time, and there's no recursion: mazes with millions of cells can be solved.
+    ///
     /// @param maze the maze to solve
-    /// @return stack of nodes which is the best path (if no path is found, return an empty stack)
-    public static Stack<Integer> solveDijkstra(GraphMaze maze) {
-        //create whatever the function needs
-        int n = maze.getNumCells();
-        int[] dist = new int[n];
-        int[] fathers = new int[n];
-        boolean[] visited = new boolean[n];
-        //fill all distances as max value except for the start which is 0 for later
-        Arrays.fill(dist, Integer.MAX_VALUE);
-        Arrays.fill(fathers, -1);
-        dist[maze.getStart()] = 0;
-        //create a queue where the lowest distances are first to go out to have the shortest path and add start to the queue
-        PriorityQueue<Integer> queue = new PriorityQueue<>(Comparator.comparingInt(x -> dist[x]));
-        queue.add(maze.getStart());
-        //as long as queue isn't empty take the first to go out of the queue, if it isn't visited, tag him as visited
-        //and if it isn't the end take all of his sons and give them his distance+1 if they have a greater distance than this then add them to the queue
-        while (!queue.isEmpty()) {
-            int current = queue.poll();
-            if (visited[current]) {
-                continue;
-            }
-            visited[current] = true;
+    /// @param leftHand true to turn when moving (left-hand), false to always head right (clockwise)
+    /// @param listener receives every step: visiting a node, blocking a dead end, and going back
+    /// @return the path from start to end, or an empty array if there's none
+    private static int[] followWalls(GraphMaze maze, boolean leftHand, SolveListener listener) {
+        int start = maze.getStart();
+        int end = maze.getEnd();
+        if (start == -1 || end == -1) {
+            return new int[0];
+        }
 
-            if (current == maze.getEnd()) {
-                break;
+        int width = maze.getWidth();
+        int[] offsets = {-width, +1, +width, -1}; // up, right, down, left
+        BitSet onPath = new BitSet(maze.getNumCells());
+        BitSet blocked = new BitSet(maze.getNumCells());
+        int[] path = new int[maze.getNumCells()];
+        int depth = 0;
+
+        // Begin at the start, heading right.
+        int num = start;
+        byte heading = RIGHT;
+        path[depth++] = num;
+        onPath.set(num);
+        listener.onVisit(num);
+
+        while (num != end) {
+            listener.checkCancelled();
+
+            // Try left, front, right and behind; go to the first usable neighbor.
+            int next = -1;
+            byte nextHeading = heading;
+            for (int i = 0; i < 4 && next == -1; i++) {
+                byte dir = (byte) ((heading + 3 + i) & 3);
+                int candidate = num + offsets[dir];
+                if (maze.isConnected(num, candidate) && !onPath.get(candidate) && !blocked.get(candidate)) {
+                    next = candidate;
+                    nextHeading = dir;
+                }
             }
-            for (int edge : maze.getAdjacentVertices(current)) {
-                if (dist[current] + 1 < dist[edge]) {
-                    dist[edge] = dist[current] + 1;
-                    fathers[edge] = current;
-                    queue.add(edge);
+
+            if (next != -1) {
+                // Move forward, and face the direction we took (only the left-hand follower turns).
+                num = next;
+                if (leftHand) {
+                    heading = nextHeading;
+                }
+                path[depth++] = num;
+                onPath.set(num);
+                listener.onVisit(num);
+            } else {
+                // Dead end: block it and go back to the previous node, with the same heading.
+                depth--;
+                onPath.clear(num);
+                blocked.set(num);
+                listener.onBlock(num);
+                if (depth == 0) {
+                    break; // Back before the start: there's no path to the end
                 }
+                num = path[depth - 1];
+                listener.onBacktrack(num);
             }
         }
-        //when there is no more node in the queue check if the distance of the end was modified
-        Stack<Integer> path = new Stack<>();
-        if (dist[maze.getEnd()] == Integer.MAX_VALUE) {
-            return path;
-        }
-        //if it is modified, regress from the end to the start to get the shortest path to it.
-        for (int p = maze.getEnd(); p != maze.getStart(); p = fathers[p]) {
-            path.push(p);
-        }
-        path.push(maze.getStart());
-        //return the shortest path to the end
-        return path;
+
+        return Arrays.copyOf(path, depth);
     }
 
+    // Converts an array of vertices into a stack, the first vertex being at the top.
+    private static Stack<Integer> toReversedStack(int[] vertices) {
+        Stack<Integer> stack = new Stack<>();
+        stack.ensureCapacity(vertices.length);
+        for (int i = vertices.length - 1; i >= 0; i--) {
+            stack.push(vertices[i]);
+        }
+        return stack;
+    }
 
+    /// Goes through the maze as a BFS until it reaches the end or if it doesn't have any more place to go
+    /// Then returns the best path to the end (if there isn't a path, it returns an empty stack)
     /// @param maze the maze to solve
-    /// @param num the node where currently visited
-    /// @param visited nodes that we visited without the dead ends
-    /// @param blocked the nodes that lead to a dead end
-    /// @return visited
-    @SuppressWarnings("unchecked")
-    private static Stack<Stack<Integer>> solveClockwise2(GraphMaze maze, int num, Stack<Integer> visited, Stack<Integer> blocked, Stack<Stack<Integer>> pile) {
-        // at each call, save the current path
-        pile.push((Stack<Integer>) visited.clone());
-
-        // if we're at the end, we stop
-        if (maze.getEnd() == num) {
-            return pile;
-        }
+    /// @return stack of nodes which is the best path (if no path is found, return an empty stack)
+    public static Stack<Integer> solveDijkstra(GraphMaze maze) {
+        //every cell weighs 1, so the engine runs a BFS; the top of the stack must be the start
+        return toReversedStack(ShortestPathEngine.unitWeights().solve(maze, SolveListener.NONE));
+    }
 
-        List<Integer> subList = maze.getAdjacentVertices(num);
-        if (subList != null && !subList.isEmpty()) {
-            //if the node has at least one son check if it's possible to go the neighbouring node and if it was already visited or blocked clockwise
-            // and if it's possible calls this function with the new actual node as the node it is possible to go (it's going to visit every node until there's a path to the end from one)
-            if (subList.contains(num - maze.getWidth()) && !visited.contains(num - maze.getWidth()) && !blocked.contains(num - maze.getWidth())) {
-                visited.push(num - maze.getWidth());
-                return solveClockwise2(maze, num - maze.getWidth(), visited, blocked, pile);
-            } else if (subList.contains(num + 1) && !visited.contains(num + 1) && !blocked.contains(num + 1)) {
-                visited.push(num + 1);
-                return solveClockwise2(maze, num + 1, visited, blocked, pile);
-            } else if (subList.contains(num + maze.getWidth()) && !visited.contains(num + maze.getWidth()) && !blocked.contains(num + maze.getWidth())) {
-                visited.push(num + maze.getWidth());
-                return solveClockwise2(maze, num + maze.getWidth(), visited, blocked, pile);
-            } else if (subList.contains(num - 1) && !visited.contains(num - 1) && !blocked.contains(num - 1)) {
-                visited.push(num - 1);
-                return solveClockwise2(maze, num - 1, visited, blocked, pile);
-            } else {
-                // if no sons usable, it is considered as a dead end (remove it from visited), blocks it and calls the last node visited before it if there is one
-                blocked.push(num);
-                visited.pop();
-                if (visited.isEmpty()) {
-                    return pile;
-                }
-                return solveClockwise2(maze, visited.peek(), visited, blocked, pile);
-            }
-        } else {
-            // if no sons, it considers it as a dead end (remove it from visited), blocks it and calls the last node visited before it if there is one
-            blocked.push(num);
-            visited.pop();
-            if (visited.isEmpty()) {
-                return pile;  //no node visited means we're at the start and we return an empty stack
-            }
 
-            return solveClockwise2(maze, visited.peek(), visited, blocked, pile);
-        }
+    /// create whatever the function Clockwise needs to call it and returns the path it found.
+    /// @param maze the maze to solve
+    /// @param listener receives the steps of the algorithm as they happen, and the path found
+    /// @return the path from start to end (not always the shortest way), or an empty array if there's none
+    /// @throws CancellationException when the listener cancelled the search
+    public static int[] solveClockwise(GraphMaze maze, SolveListener listener) {
+        int[] path = followWalls(maze, false, listener);
+        listener.onPath(path);
+        return path;
     }
 
-
     /// create whatever the function Clockwise needs to call it and returns what it returns. Step by step version.
     /// @param maze the maze to solve
-    /// @return stack of stacks of nodes to visit to solve the maze (not always the shortest way)
-    @SuppressWarnings("unchecked")
-    public static Stack<Stack<Integer>> prepClockwise2(GraphMaze maze) {
-        //create whatever is needed for solveClockwise2
-        Stack<Stack<Integer>> tempPile = new Stack<>();
-        Stack<Stack<Integer>> pile = new Stack<>();
-        Stack<Integer> visited = new Stack<>();
-        Stack<Integer> blocked = new Stack<>();
-        //push the start in the stack
-        visited.push(maze.getStart());
-        //calls the function solveClockwise2
-        tempPile = solveClockwise2(maze, maze.getStart(), visited, blocked, tempPile);
-        //invert the stack of stacks
-        do {
-            pile.push(tempPile.pop());
-        } while (!tempPile.isEmpty());
-        //add the path to the end at the start of the stack
-        pile.push((Stack<Integer>) visited.clone());
-        //return the stack of stacks
-        return pile;
-    }
-
-    /// Goes through the maze as a BFS until it reaches the end or if it doesn't have any more place to go and return every step with the best path to the end in first position of the pile (if there isn't a path, it returns an empty stack)
-    /// @param maze the maze to solve
-    /// @return Stack of Stacks of nodes where the best path is at the top of the stack
-    @SuppressWarnings("unchecked")
-    public static Stack<Stack<Integer>> solveDijkstra2(GraphMaze maze) {
-        //create whatever is needed for the function
-        int n = maze.getNumCells();
-        int[] dist = new int[n];
-        int[] fathers = new int[n];
-        boolean[] visited = new boolean[n];
-        Stack<Integer> visit = new Stack<>();
-        Stack<Stack<Integer>> pile = new Stack<>();
-        Stack<Stack<Integer>> tempPile = new Stack<>();
-
-        //fill all distances as max value except for the start which is 0 for later
-        Arrays.fill(dist, Integer.MAX_VALUE);
-        Arrays.fill(fathers, -1);
-        dist[maze.getStart()] = 0;
-
-        //create a queue where the lowest distances are first to go out to have the shortest path and add start to the queue
-        PriorityQueue<Integer> queue = new PriorityQueue<>(Comparator.comparingInt(x -> dist[x]));
-        queue.add(maze.getStart());
-
-        //as long as queue isn't empty take the first to go out of the queue, if it isn't visited, tag him as visited and push a clone of visited in the stack of stacks
-        //and if it isn't the end take all of his sons and give them his distance+1 if they have a greater distance than this then add them to the queue
-        while (!queue.isEmpty()) {
-            int current = queue.poll();
-            if (visited[current]) {
-                continue;
-            }
-            visited[current] = true;
-            visit.push(current);
-            tempPile.push((Stack<Integer>) visit.clone());
-            if (current == maze.getEnd()) {
-                break;
-            }
-            for (int edge : maze.getAdjacentVertices(current)) {
-                if (dist[current] + 1 < dist[edge]) {
-                    dist[edge] = dist[current] + 1;
-                    fathers[edge] = current;
-                    queue.add(edge);
-                }
-            }
-        }
-        //invert the stack of stacks
-        do {
-            pile.push(tempPile.pop());
-        } while (!tempPile.isEmpty());
-
-        //when there is no more node in the queue check if the distance of the end was modified
-        Stack<Integer> path = new Stack<>();
-        if (dist[maze.getEnd()] == Integer.MAX_VALUE) {
-            pile.push((Stack<Integer>) path.clone());
-            return pile;
-        }
+    /// @return the trace of the algorithm, with the path found (not always the shortest way)
+    public static SolveTrace prepClockwise2(GraphMaze maze) {
+        return record(maze, MazeSolver::solveClockwise);
+    }
 
-        //if it is modified, regress from the end to the start to get the shortest path to it.
-        for (int at = maze.getEnd(); at != maze.getStart(); at = fathers[at]) {
-            path.push(at);
-        }
-        //and push the shortest path at the start of the stack of stacks
-        path.push(maze.getStart());
-        pile.push((Stack<Integer>) path.clone());
-        return pile;
+    /// Goes through the maze as a BFS until it reaches the end or if it doesn't have any more place to go and return every step with the best path to the end (if there isn't a path, the path is empty)
+    /// @param maze the maze to solve
+    /// @return the trace of the algorithm, with the best path
+    public static SolveTrace solveDijkstra2(GraphMaze maze) {
+        return record(maze, MazeSolver::solveDijkstra);
     }
 
+    /// Goes through the maze as a BFS until it reaches the end or if it doesn't have any more place to go,
+    /// telling every step to the listener, and returns the best path to the end.
     /// @param maze the maze to solve
-    /// @param num the node actually visited
-    /// @param dir the direction faced when visiting the node
-    /// @param visited the stack of nodes visited (without the blocked nodes)
-    /// @param blocked the list of nodes that lead to a dead end
-    /// @return the path to the end
-    @SuppressWarnings("unchecked")
-    private static Stack<Stack<Integer>> solveLeftHand(GraphMaze maze, int num, char dir, Stack<Integer> visited, List<Integer> blocked, Stack<Stack<Integer>> paths) {
+    /// @param listener receives the steps of the algorithm as they happen, and the path found
+    /// @return the best path from start to end, or an empty array if there's none
+    /// @throws CancellationException when the listener cancelled the search
+    /// @see ShortestPathEngine
+    public static int[] solveDijkstra(GraphMaze maze, SolveListener listener) {
+        //every cell weighs 1, so the engine runs a BFS
+        int[] path = ShortestPathEngine.unitWeights().solve(maze, listener);
+        listener.onPath(path);
+        return path;
+    }
 
-        if(!visited.contains(num) && !blocked.contains(num)) {
-            visited.push(num);//push the node actually visited in the stack of nodes visited and create a copy of this stack in the stack of steps
+    /// Goes through the maze as a BFS like [#solveDijkstra(GraphMaze, SolveListener)], but expands each level
+    /// of the BFS on the threads of the common [ForkJoinPool]. Made for huge mazes, with wide frontiers.
+    ///
+    /// The listener receives the same visits, in the same order, as a sequential BFS. They are sent from
+    /// the calling thread, once per level.
+    /// @param maze the maze to solve
+    /// @param listener receives the steps of the algorithm as they happen, and the path found
+    /// @return the best path from start to end, or an empty array if there's none
+    /// @throws CancellationException when the listener cancelled the search
+    public static int[] solveParallelBFS(GraphMaze maze, SolveListener listener) {
+        int start = maze.getStart();
+        int end = maze.getEnd();
+        if (start == -1 || end == -1) {
+            listener.onPath(new int[0]);
+            return new int[0];
         }
 
-        paths.push((Stack<Integer>) visited.clone());
-        if (num == maze.getEnd()){//if it's the end, return the stack of steps with the end at the top of the stack
-            return paths;
-        }
+        var bfs = new ParallelBFS(maze, start, ForkJoinPool.commonPool());
+        int[] path = bfs.run(end, listener) ? bfs.pathTo(end) : new int[0];
+        listener.onPath(path);
+        return path;
+    }
 
-        int width = maze.getWidth();
-        List<Integer> sons = maze.getAdjacentVertices(num);
+    /// Computes the distance from a vertex to every cell of the maze, using a parallel BFS on the common
+    /// [ForkJoinPool].
+    /// @param maze the maze to go through
+    /// @param source the vertex to measure distances from
+    /// @return the distance field from the source
+    /// @throws InvalidVertexException when the source is out of bounds
+    /// @see #distanceField(GraphMaze, int, ForkJoinPool)
+    public static DistanceField distanceField(GraphMaze maze, int source) {
+        return distanceField(maze, source, ForkJoinPool.commonPool());
+    }
 
-        int[] dirx = new int[4]; // left, front, right and behind
-        char[] nextDir = new char[4];
+    /// Computes the distance from a vertex to every cell of the maze, using a parallel BFS on the given pool.
+    ///
+    /// Each level of the BFS is split between the threads of the pool, and small levels are expanded by the
+    /// calling thread. The distances and parents are always the same as the ones of a sequential BFS,
+    /// whatever the number of threads.
+    /// @param maze the maze to go through
+    /// @param source the vertex to measure distances from
+    /// @param pool the pool running the BFS, or null to run it in the calling thread only
+    /// @return the distance field from the source
+    /// @throws InvalidVertexException when the source is out of bounds
+    public static DistanceField distanceField(GraphMaze maze, int source, ForkJoinPool pool) {
+        var bfs = new ParallelBFS(maze, source, pool);
+        bfs.run(-1, SolveListener.NONE);
+        return bfs.toDistanceField();
+    }
 
-        switch (dir) {//set up the directions (such as up, right, left and down) used in order and the directions for the next node (without the node visited just before)
-            case 'L':
-                dirx = new int[]{+width, -1, -width, 1};
-                nextDir = new char[]{'D', 'L', 'U', 'R'};
-                break;
-            case 'U':
-                dirx = new int[]{-1, -width, +1, +width};
-                nextDir = new char[]{'L', 'U', 'R', 'D'};
-                break;
-            case 'R':
-                dirx = new int[]{-width, +1, +width, -1};
-                nextDir = new char[]{'U', 'R', 'D', 'L'};
-                break;
-            case 'D':
-                dirx = new int[]{+1, +width, -1, -width};
-                nextDir = new char[]{'R', 'D', 'L', 'U'};
-                break;
-        }
-    //check if it's possible to go to the node at the left, then ahead, then at the right of the node depending upon the direction used
-        //and return the stack of recursions of the first node usable
-        for (int i = 0; i < 4; i++) {
-            int next = num + dirx[i];
-            if (next >= 0 && next< maze.getNumCells() && sons.contains(next) && !visited.contains(next) && !blocked.contains(next)) {
-                return solveLeftHand(maze, next, nextDir[i], visited, blocked, paths);
-            }
+    /// Tells if there's a path from the start to the end of the maze, using the [ComponentIndex] of the maze.
+    /// The index is kept with the maze, so asking again only takes O(1) time while the maze isn't changed.
+    /// @param maze the maze to check
+    /// @return true if the end can be reached from the start; false when the maze has no endpoints
+    public static boolean hasPath(GraphMaze maze) {
+        if (maze.getStart() == -1 || maze.getEnd() == -1) {
+            return false;
         }
+        return ComponentIndex.of(maze).isReachable(maze.getStart(), maze.getEnd());
+    }
 
-        // if no allowed path, go back and block this node (remove this and the last node visited to prevent errors)
-        int t = visited.pop();
-        blocked.add(t);
-        if (!visited.isEmpty()) {
-            return solveLeftHand(maze, visited.peek(), dir, visited, blocked, paths);
-        }
-        paths.push((Stack<Integer>) visited.clone());
-        //if the actual node is the start and there is no usable node, return an empty stack as the path to the end
-        return paths;
+    /// Finds all the cells which can be reached from a vertex, expanding the BFS 64 cells at a time
+    /// with a [BitParallelBFS].
+    /// @param maze the maze to go through
+    /// @param source the vertex to start from
+    /// @return a bitset with the reachable vertices, including the source
+    /// @throws InvalidVertexException when the source is out of bounds
+    public static BitSet reachableCells(GraphMaze maze, int source) {
+        return new BitParallelBFS(maze).reachable(source);
     }
 
+    /// Computes the distance from a vertex to every cell of the maze, expanding the BFS 64 cells at a time
+    /// with a [BitParallelBFS]. Faster than [#distanceField(GraphMaze, int)], but doesn't give the paths.
+    /// @param maze the maze to go through
+    /// @param source the vertex to measure distances from
+    /// @return the distance to each vertex, or -1 when it can't be reached
+    /// @throws InvalidVertexException when the source is out of bounds
+    public static int[] distanceLayers(GraphMaze maze, int source) {
+        return new BitParallelBFS(maze).distances(source);
+    }
 
     ///prepare everything needed for solveLeftHand and calls it
     /// @param maze the maze to solve
     /// @return the path to the end
     public static Stack<Integer> prepLeftHand(GraphMaze maze) {
-        Stack<Integer> pile = new Stack<>();
-        Stack<Integer> visited = new Stack<>();
-        List<Integer> blocked = new LinkedList<>();
-        Stack<Stack<Integer>> paths = new Stack<>();
-        //calls the function solveLeftHand
-        paths = solveLeftHand(maze, maze.getStart(), 'R', visited, blocked, paths);
-        //since the top of the stack is the end, flip upside down the stack and return it
-        visited=paths.pop();
-        while (!visited.isEmpty()) {
-            pile.push(visited.pop());
-        }
-        return pile;
+        //since the top of the stack must be the start, flip the path upside down
+        return toReversedStack(followWalls(maze, true, SolveListener.NONE));
     }
 
     /// prepare everything needed for solveLeftHand and calls it
     /// @param maze the maze to solve
-    /// @return a stack of stacks of nodes which represent the steps to the path to the end (if there is one) with the path at the top
-    public static Stack<Stack<Integer>> prepLeftHand2(GraphMaze maze) {
-        Stack<Integer> visited = new Stack<>();
-        List<Integer> blocked = new LinkedList<>();
-        Stack<Stack<Integer>> tempPaths = new Stack<>();
-        Stack<Stack<Integer>> paths = new Stack<>();
-        //calls the function solveLeftHand
-        tempPaths = solveLeftHand(maze, maze.getStart(), 'R', visited, blocked, tempPaths);
-        //since the top of the stack is the end, flip upside down the stack, add at the top the final path and return it
-        Stack<Integer> pile = tempPaths.peek();
-        do {
-            paths.push(tempPaths.pop());
-        }while (!tempPaths.isEmpty());
-        paths.push(pile);
-        return paths;
-    }
-
-    private static Stack<Stack<Integer>> inversionPaths (Stack<Stack<Integer>> tempPaths){
-        Stack<Stack<Integer>> paths = new Stack<>();
-        do {
-            paths.push(tempPaths.pop());
-        }while (!tempPaths.isEmpty());
-        return paths;
+    /// @return the trace of the algorithm, with the path to the end (if there is one)
+    public static SolveTrace prepLeftHand2(GraphMaze maze) {
+        return record(maze, MazeSolver::solveLeftHand);
+    }
+
+    /// prepare everything needed for solveLeftHand, calls it and returns the path it found
+    /// @param maze the maze to solve
+    /// @param listener receives the steps of the algorithm as they happen, and the path found
+    /// @return the path from start to end, or an empty array if there's none
+    /// @throws CancellationException when the listener cancelled the search
+    public static int[] solveLeftHand(GraphMaze maze, SolveListener listener) {
+        int[] path = followWalls(maze, true, listener);
+        listener.onPath(path);
+        return path;
     }
 
     /** a BFS with some conditions to be optimal (done with deepseek)
      * @param maze the maze to solve
-     * @return a stack of stacks of nodes which represent the steps and at the top is the path to the end
+     * @return the trace of the algorithm, with the path to the end
      */
-    @SuppressWarnings("unchecked")
-    public static Stack<Stack<Integer>> solveAStar(GraphMaze maze) {
+    public static SolveTrace solveAStar(GraphMaze maze) {
+        return record(maze, MazeSolver::solveAStar);
+    }
+
+    /// Solves the maze using A*, telling every node taken out of the queue to the listener.
+    /// @param maze the maze to solve
+    /// @param listener receives the steps of the algorithm as they happen, and the path found
+    /// @return the best path from start to end, or an empty array if there's none
+    /// @throws CancellationException when the listener cancelled the search
+    public static int[] solveAStar(GraphMaze maze, SolveListener listener) {
+        int[] path = aStar(maze, null, listener);
+        listener.onPath(path);
+        return path;
+    }
+
+    /// Solves the maze using A*, with the exact distance to the end as the heuristic instead of the
+    /// Manhattan distance, telling every node taken out of the queue to the listener.
+    ///
+    /// Only cells of a shortest path are explored, and cells which can't reach the end are never put in the queue.
+    /// The field must be up to date with the maze, e.g. from [DistanceField#of(GraphMaze, int)].
+    /// @param maze the maze to solve
+    /// @param distances the distance field from the end of the maze
+    /// @param listener receives the steps of the algorithm as they happen, and the path found
+    /// @return the best path from start to end, or an empty array if there's none
+    /// @throws IllegalArgumentException when the field doesn't measure distances from the end of this maze
+    /// @throws CancellationException when the listener cancelled the search
+    public static int[] solveAStar(GraphMaze maze, DistanceField distances, SolveListener listener) {
+        if (distances.getSource() != maze.getEnd() || distances.getNumCells() != maze.getNumCells()) {
+            throw new IllegalArgumentException("The distance field must measure distances from the end of the maze.");
+        }
+        int[] path = aStar(maze, distances, listener);
+        listener.onPath(path);
+        return path;
+    }
+
+    /// Solves the maze using Jump Point Search: an A* which jumps over corridors and open areas,
+    /// and only puts the cells where the path may turn in its queue.
+    ///
+    /// Finds the same path length as A*, while expanding far fewer cells in imperfect mazes with rooms.
+    /// The listener receives the expanded jump points only; the path has every cell, from start to end.
+    /// @param maze the maze to solve
+    /// @param listener receives the steps of the algorithm as they happen, and the path found
+    /// @return the best path from start to end, or an empty array if there's none
+    /// @throws CancellationException when the listener cancelled the search
+    /// @see JumpPointSearch
+    public static int[] solveJPS(GraphMaze maze, SolveListener listener) {
+        int[] path = new JumpPointSearch(maze).solve(listener);
+        listener.onPath(path);
+        return path;
+    }
+
+    /// Solves the maze using A* on its [CorridorGraph]: each corridor is a single edge, so only junctions
+    /// and dead ends are put in the queue.
+    ///
+    /// The graph is made the first time the maze is solved, and kept until its edges change, so solving the
+    /// same maze again, with any endpoints, only searches the junctions.
+    /// The listener receives the expanded junctions, dead ends, start and end; the path has every cell.
+    /// @param maze the maze to solve
+    /// @param listener receives the steps of the algorithm as they happen, and the path found
+    /// @return the best path from start to end, or an empty array if there's none
+    /// @throws CancellationException when the listener cancelled the search
+    public static int[] solveCorridorAStar(GraphMaze maze, SolveListener listener) {
+        int start = maze.getStart();
+        int end = maze.getEnd();
+        int[] path = start == -1 || end == -1
+                ? new int[0]
+                : CorridorGraph.of(maze).shortestPath(start, end, listener);
+        listener.onPath(path);
+        return path;
+    }
+
+    /// Fills the dead ends of the maze, leaving only the cells which may be on a path from the start to the end.
+    /// The [reduced maze][DeadEndFilling#toReducedMaze()] can then be solved by any algorithm of this class,
+    /// many times over, with the same shortest paths as the original maze.
+    /// @param maze the maze to fill
+    /// @param listener receives every filled cell as blocked, in the order they are filled
+    /// @return the live cells of the maze
+    /// @throws CancellationException when the listener cancelled the filling
+    public static DeadEndFilling fillDeadEnds(GraphMaze maze, SolveListener listener) {
+        return new DeadEndFilling(maze, listener);
+    }
+
+    /// Solves the maze by filling its dead ends, then running a BFS on the cells left.
+    ///
+    /// In a perfect maze, the cells left are the path, and the BFS just walks along it.
+    /// In an imperfect maze, the BFS finds the shortest path through the loops left.
+    /// @param maze the maze to solve
+    /// @param listener receives every filled cell as blocked, then the visits of the BFS, and the path found
+    /// @return the best path from start to end, or an empty array if there's none
+    /// @throws CancellationException when the listener cancelled the search
+    /// @see DeadEndFilling
+    public static int[] solveDeadEndFilling(GraphMaze maze, SolveListener listener) {
+        GraphMaze reduced = fillDeadEnds(maze, listener).toReducedMaze();
+        int[] path = ShortestPathEngine.unitWeights().solve(reduced, listener);
+        listener.onPath(path);
+        return path;
+    }
+
+    /// takes the path to the end found by A* and return it
+    /// @param maze the maze to solve
+    /// @return the best path to the end
+    public static Stack<Integer> prepAStar(GraphMaze maze) {
+        return toStack(aStar(maze, null, SolveListener.NONE));
+    }
+
+    /// The A* algorithm itself, using the Manhattan distance to the end as the heuristic, or the exact one.
+    ///
+    /// Scores are kept in int arrays, and the open set is an [IndexedHeap], so a node is never in the queue twice:
+    /// when a shorter way to reach it is found, its key is lowered instead. Keys are the f score, and then the
+    /// h score, so that among equally good nodes, the ones closest to the end are explored first.
+    ///
+    /// The heuristic is computed from tables giving the horizontal and vertical distance of each column and row
+    /// to the end. The coordinates of a neighbor are known from the coordinates of the current node,
+    /// so there's only one division per explored node.
+    ///
+    /// When a [DistanceField] from the end is given, the exact distance to the end is used instead: only cells
+    /// of a shortest path are explored, and cells which can't reach the end are never put in the queue.
+    ///
+    /// Runs in O(V log V) time and O(V) memory.
+    ///
+    /// @param maze the maze to solve
+    /// @param exact the distance field from the end to use as the heuristic, or null for the Manhattan distance
+    /// @param listener receives every node taken out of the queue
+    /// @return the path to the end, or an empty array if there's none
+    private static int[] aStar(GraphMaze maze, DistanceField exact, SolveListener listener) {
         // Initialisation
-        Stack<Stack<Integer>> paths = new Stack<>();
-        Stack<Integer> visited = new Stack<>();
         int start = maze.getStart();
         int end = maze.getEnd();
+        if (start == -1 || end == -1) {
+            return new int[0];
+        }
         int width = maze.getWidth();
+        int n = maze.getNumCells();
+
+        // Distance of each column and each row to the end, for the heuristic.
+        int[] columnDistance = axisDistances(width, end % width);
+        int[] rowDistance = axisDistances(maze.getHeight(), end / width);
 
-        // data
-        PriorityQueue<Node> openSet = new PriorityQueue<>();
-        Map<Integer, Integer> cameFrom = new HashMap<>();
-        Map<Integer, Integer> gScore = new HashMap<>();
-        Map<Integer, Integer> fScore = new HashMap<>();
+        // g scores and parents of each node; -1 when not reached yet.
+        int[] gScore = new int[n];
+        int[] cameFrom = new int[n];
+        Arrays.fill(gScore, Integer.MAX_VALUE);
+        Arrays.fill(cameFrom, -1);
+        IndexedHeap openSet = new IndexedHeap(n);
 
-        // score creation
-        gScore.put(start, 0);
-        fScore.put(start, heuristic(start, end, width));
-        openSet.add(new Node(start, fScore.get(start)));
+        gScore[start] = 0;
+        openSet.insert(start, aStarKey(0, columnDistance[start % width] + rowDistance[start / width]));
 
-        //start of the BFS
         while (!openSet.isEmpty()) {
-            Node current = openSet.poll();
-            visited.push(current.id);
-            paths.push((Stack<Integer>)visited.clone());
+            listener.checkCancelled();
+            int current = openSet.poll();
+            listener.onVisit(current);
             // stop if the end is the actual node
-            if (current.id == end) {
-                paths=inversionPaths(paths);
-                visited=reconstructPath(cameFrom, current.id);
-                paths.push((Stack<Integer>)visited.clone());
-                return paths;
+            if (current == end) {
+                return reconstructPath(cameFrom, end, gScore[end]);
             }
 
             // sons' exploration
-            for (int neighbor : maze.getAdjacentVertices(current.id)) {
-                // gScore: temporary score
-                int tryGScore = gScore.getOrDefault(current.id, Integer.MAX_VALUE) + 1;
-
-                if (tryGScore < gScore.getOrDefault(neighbor, Integer.MAX_VALUE)) {
-                    cameFrom.put(neighbor, current.id);
-                    gScore.put(neighbor, tryGScore);
-                    fScore.put(neighbor, tryGScore + heuristic(neighbor, end, width));
-
-                    // add to the queue if not already here
-                    if (!openSet.contains(new Node(neighbor, 0))) {
-                        openSet.add(new Node(neighbor, fScore.get(neighbor)));
+            int x = current % width;
+            int y = current / width;
+            int tryGScore = gScore[current] + 1;
+            for (int neighbor : maze.getAdjacentVertices(current)) {
+                if (tryGScore < gScore[neighbor]) {
+                    gScore[neighbor] = tryGScore;
+                    cameFrom[neighbor] = current;
+
+                    // Neighbors are next to the current node: find their coordinates from the offset.
+                    // Vertical offsets come first: in a maze one cell wide, going down is an offset of 1 too.
+                    int delta = neighbor - current;
+                    int ny = delta == width ? y + 1 : delta == -width ? y - 1 : y;
+                    int nx = ny != y ? x : x + delta;
+                    int h = columnDistance[nx] + rowDistance[ny];
+                    if (exact != null) {
+                        h = exact.distanceTo(neighbor);
+                        if (h == -1) {
+                            continue; // The end can't be reached from there.
+                        }
                     }
+
+                    // add to the queue, or move it up if it's already there
+                    openSet.insertOrDecrease(neighbor, aStarKey(tryGScore + h, h));
                 }
             }
         }
-        paths=inversionPaths(paths);
-        paths.push(new Stack<>());
-        return paths; // no path to the end
+        return new int[0]; // no path to the end
     }
-    /// takes the path to the end from the top of the stack returned by solveAStar and return it
+
+    /// Solves the maze using a **bidirectional BFS**: one BFS from the start, and another from the end,
+    /// until they meet.
+    ///
+    /// Both searches expand whole layers (all nodes at the same distance) one at a time, always growing the
+    /// smaller frontier. When a search reaches a node already found by the other one, the path through this
+    /// meeting point is the shortest: since no meeting happened in previous layers, no shorter path can exist.
+    ///
+    /// Nodes expanded by the search from the start are sent as visits, and the ones expanded by
+    /// the search from the end as [visits from the end][SolveListener#onVisitFromEnd(int)].
+    ///
     /// @param maze the maze to solve
-    /// @return the best path to the end
-    public static Stack<Integer> prepAStar(GraphMaze maze) {
-        Stack<Integer> path;
-        Stack<Stack<Integer>>paths;
-        paths=solveAStar(maze);
-        path=paths.pop();
-        return path;
-    }
+    /// @param listener receives the steps of the algorithm as they happen, and the path found
+    /// @return the shortest path from start to end, or an empty array if there's none
+    /// @throws CancellationException when the listener cancelled the search
+    public static int[] solveBidirectionalBFS(GraphMaze maze, SolveListener listener) {
+        int start = maze.getStart();
+        int end = maze.getEnd();
+        if (start == -1 || end == -1) {
+            listener.onPath(new int[0]);
+            return new int[0];
+        }
 
-    ///solve the manhattan's distance
-    /// @param width the width of the maze
-    /// @param a the node compared to the end
-    /// @param b the end
-    /// @return manhattan's distance
-    private static int heuristic(int a, int b, int width) {
-        int x1 = a % width, y1 = a / width;
-        int x2 = b % width, y2 = b / width;
-        return Math.abs(x1 - x2) + Math.abs(y1 - y2);
-    }
+        int n = maze.getNumCells();
+        // Parents of each node in both searches; -1 when not found yet. The roots are their own parents.
+        int[] forwardParent = new int[n];
+        int[] backwardParent = new int[n];
+        Arrays.fill(forwardParent, -1);
+        Arrays.fill(backwardParent, -1);
+        forwardParent[start] = start;
+        backwardParent[end] = end;
+
+        // The queues of both searches. Each node is enqueued at most once per search.
+        int[] forwardQueue = new int[n];
+        int[] backwardQueue = new int[n];
+        int forwardHead = 0, forwardTail = 0, backwardHead = 0, backwardTail = 0;
+        forwardQueue[forwardTail++] = start;
+        backwardQueue[backwardTail++] = end;
+
+        // The meeting point: the last node of the forward path, and the first node of the backward path.
+        int meetForward = -1, meetBackward = -1;
+        if (start == end) {
+            meetForward = meetBackward = start;
+        }
 
-    /// creation of the path to the end
-    /// @param current the end
-    /// @param parent the dictionary of sons - parents
-    /// @return the path to the end
-    private static Stack<Integer> reconstructPath(Map<Integer, Integer> parent, int current) {
-        Stack<Integer> path = new Stack<>();
-        path.push(current);
+        while (meetForward == -1 && forwardHead < forwardTail && backwardHead < backwardTail) {
+            // Expand the whole next layer of the smaller frontier.
+            boolean forward = forwardTail - forwardHead <= backwardTail - backwardHead;
+            int[] queue = forward ? forwardQueue : backwardQueue;
+            int[] parent = forward ? forwardParent : backwardParent;
+            int[] otherParent = forward ? backwardParent : forwardParent;
+            int head = forward ? forwardHead : backwardHead;
+            int tail = forward ? forwardTail : backwardTail;
+            int layerEnd = tail;
+
+            while (head < layerEnd && meetForward == -1) {
+                listener.checkCancelled();
+                int current = queue[head++];
+                if (forward) {
+                    listener.onVisit(current);
+                } else {
+                    listener.onVisitFromEnd(current);
+                }
 
-        while (parent.containsKey(current)) {
-            current = parent.get(current);
-            path.push(current);
+                for (int neighbor : maze.getAdjacentVertices(current)) {
+                    if (otherParent[neighbor] != -1) {
+                        // The searches meet: the path goes through current, then neighbor.
+                        meetForward = forward ? current : neighbor;
+                        meetBackward = forward ? neighbor : current;
+                        break;
+                    }
+                    if (parent[neighbor] == -1) {
+                        parent[neighbor] = current;
+                        queue[tail++] = neighbor;
+                    }
+                }
+            }
+
+            if (forward) {
+                forwardHead = head;
+                forwardTail = tail;
+            } else {
+                backwardHead = head;
+                backwardTail = tail;
+            }
         }
 
-        //inversion of the path to get start->end
-        Collections.reverse(path);
+        int[] path = meetForward == -1 ? new int[0]
+                : joinPaths(forwardParent, meetForward, backwardParent, meetBackward);
+        listener.onPath(path);
         return path;
     }
 
-    /// Class helper for priority queue
-    static class Node implements Comparable<Node> {
-        int id;
-        int fScore;
+    /// Solves the maze using a **bidirectional A***: one A* from the start to the end, and another from the end
+    /// to the start, until they meet.
+    ///
+    /// Both searches use the Manhattan distance to their target, and the one with the smaller open set
+    /// expands a node at each step. Every time a search reaches a node found by the other one,
+    /// it gives a candidate path. The search stops when the best candidate is no longer than the lowest f score
+    /// of either open set: since the heuristic is consistent, no shorter path can be found after that.
+    ///
+    /// Nodes expanded by the search from the start are sent as visits, and the ones expanded by
+    /// the search from the end as [visits from the end][SolveListener#onVisitFromEnd(int)].
+    ///
+    /// @param maze the maze to solve
+    /// @param listener receives the steps of the algorithm as they happen, and the path found
+    /// @return the shortest path from start to end, or an empty array if there's none
+    /// @throws CancellationException when the listener cancelled the search
+    public static int[] solveBidirectionalAStar(GraphMaze maze, SolveListener listener) {
+        int start = maze.getStart();
+        int end = maze.getEnd();
+        if (start == -1 || end == -1) {
+            listener.onPath(new int[0]);
+            return new int[0];
+        }
 
-        /// constructor of Node
-        /// @param id the node
-        /// @param fScore the score of the node
-        public Node(int id, int fScore) {
-            this.id = id;
-            this.fScore = fScore;
+        int width = maze.getWidth();
+        int n = maze.getNumCells();
+        // Heuristics of both searches, as distance tables for each column and row.
+        int[] forwardColumns = axisDistances(width, end % width);
+        int[] forwardRows = axisDistances(maze.getHeight(), end / width);
+        int[] backwardColumns = axisDistances(width, start % width);
+        int[] backwardRows = axisDistances(maze.getHeight(), start / width);
+
+        int[] forwardG = new int[n];
+        int[] backwardG = new int[n];
+        int[] forwardParent = new int[n];
+        int[] backwardParent = new int[n];
+        Arrays.fill(forwardG, Integer.MAX_VALUE);
+        Arrays.fill(backwardG, Integer.MAX_VALUE);
+        Arrays.fill(forwardParent, -1);
+        Arrays.fill(backwardParent, -1);
+        IndexedHeap forwardOpen = new IndexedHeap(n);
+        IndexedHeap backwardOpen = new IndexedHeap(n);
+
+        int startH = forwardColumns[start % width] + forwardRows[start / width];
+        int endH = backwardColumns[end % width] + backwardRows[end / width];
+        forwardG[start] = 0;
+        forwardParent[start] = start;
+        forwardOpen.insert(start, aStarKey(startH, startH));
+        backwardG[end] = 0;
+        backwardParent[end] = end;
+        backwardOpen.insert(end, aStarKey(endH, endH));
+
+        // The best path found so far: its length, and its meeting point.
+        int best = Integer.MAX_VALUE;
+        int meetForward = -1, meetBackward = -1;
+        if (start == end) {
+            best = 0;
+            meetForward = meetBackward = start;
+        }
+
+        while (!forwardOpen.isEmpty() && !backwardOpen.isEmpty()) {
+            // Stop when neither search can find a shorter path.
+            long lowestF = Math.max(forwardOpen.peekKey() >>> 32, backwardOpen.peekKey() >>> 32);
+            if (best <= lowestF) {
+                break;
+            }
+            listener.checkCancelled();
+
+            // Expand a node of the smaller open set.
+            boolean forward = forwardOpen.size() <= backwardOpen.size();
+            IndexedHeap open = forward ? forwardOpen : backwardOpen;
+            int[] g = forward ? forwardG : backwardG;
+            int[] parent = forward ? forwardParent : backwardParent;
+            int[] otherG = forward ? backwardG : forwardG;
+            int[] columns = forward ? forwardColumns : backwardColumns;
+            int[] rows = forward ? forwardRows : backwardRows;
+
+            int current = open.poll();
+            if (forward) {
+                listener.onVisit(current);
+            } else {
+                listener.onVisitFromEnd(current);
+            }
+
+            int x = current % width;
+            int y = current / width;
+            int tryG = g[current] + 1;
+            for (int neighbor : maze.getAdjacentVertices(current)) {
+                if (tryG < g[neighbor]) {
+                    g[neighbor] = tryG;
+                    parent[neighbor] = current;
+
+                    // Neighbors are next to the current node: find their coordinates from the offset.
+                    // Vertical offsets come first: in a maze one cell wide, going down is an offset of 1 too.
+                    int delta = neighbor - current;
+                    int ny = delta == width ? y + 1 : delta == -width ? y - 1 : y;
+                    int nx = ny != y ? x : x + delta;
+                    int h = columns[nx] + rows[ny];
+                    open.insertOrDecrease(neighbor, aStarKey(tryG + h, h));
+                }
+
+                // Did we reach the other search with a shorter path?
+                if (otherG[neighbor] != Integer.MAX_VALUE && g[current] + 1 + otherG[neighbor] < best) {
+                    best = g[current] + 1 + otherG[neighbor];
+                    meetForward = forward ? current : neighbor;
+                    meetBackward = forward ? neighbor : current;
+                }
+            }
         }
 
-        /// compare 2 scores and return the lesser one
-        /// @param other the other node
-        /// @return the element of node with the lesser score
-        @Override
-        public int compareTo(Node other) {
-            return Integer.compare(this.fScore, other.fScore);
+        int[] path = meetForward == -1 ? new int[0]
+                : joinPaths(forwardParent, meetForward, backwardParent, meetBackward);
+        listener.onPath(path);
+        return path;
+    }
+
+    // Returns the distance of each coordinate in [0, length[ to the target coordinate.
+    private static int[] axisDistances(int length, int target) {
+        int[] distances = new int[length];
+        for (int i = 0; i < length; i++) {
+            distances[i] = Math.abs(i - target);
         }
+        return distances;
+    }
 
+    // Joins the path from the start to meetForward, and the path from meetBackward to the end.
+    // Both meeting nodes are either the same node, or neighbors. Roots are their own parents.
+    private static int[] joinPaths(int[] forwardParent, int meetForward, int[] backwardParent, int meetBackward) {
+        int forwardLength = 1;
+        for (int at = meetForward; forwardParent[at] != at; at = forwardParent[at]) {
+            forwardLength++;
+        }
+        int backwardLength = meetForward == meetBackward ? 0 : 1;
+        for (int at = meetBackward; backwardParent[at] != at; at = backwardParent[at]) {
+            backwardLength++;
+        }
 
-        /// compare an object with an element of Node/
-        /// @param o the object to compare
-        /// @return true if the object has the same class and the same id as the element of Node
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            Node node = (Node) o;
-            return id == node.id;
+        int[] path = new int[forwardLength + backwardLength];
+        int at = meetForward;
+        for (int i = forwardLength - 1; i >= 0; i--) {
+            path[i] = at;
+            at = forwardParent[at];
+        }
+        at = meetBackward;
+        for (int i = forwardLength; i < path.length; i++) {
+            path[i] = at;
+            at = backwardParent[at];
         }
+        return path;
+    }
+
+    // Makes the key of a node in the A* open set: sorted by f score, then by h score.
+    private static long aStarKey(int f, int h) {
+        return ((long) f << 32) | h;
+    }
 
-        /// @return the hashcode of the element
-        @Override
-        public int hashCode() {
-            return Objects.hash(id);
+    /// creation of the path to the end, by following the parents from the end to the start
+    /// @param parent the parent of each node
+    /// @param end the end
+    /// @param length the number of edges from the start to the end
+    /// @return the path from start to end
+    private static int[] reconstructPath(int[] parent, int end, int length) {
+        int[] path = new int[length + 1];
+        int at = end;
+        for (int i = length; i >= 0; i--) {
+            path[i] = at;
+            at = parent[at];
         }
+        return path;
     }
 }
-
@@ -0,0 +1,293 @@
+package fr.connexe.algo;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/// A level-synchronous BFS, which expands each level of the search on several threads of a [ForkJoinPool].
+///
+/// The BFS goes one level at a time: the **frontier** holds all vertices at distance `d`, and expanding it
+/// gives the vertices at distance `d + 1`. Large frontiers are cut into chunks, each expanded by one task:
+/// 1. **Claim**: for each unvisited neighbor, the task lowers the parent of the neighbor to the position of
+///    the frontier vertex reaching it, with a compare-and-set. Once all tasks are done, every new vertex
+///    has the first frontier vertex reaching it as its parent, just like in a sequential BFS.
+/// 2. **Collect**: each task goes through its chunk again, and puts the neighbors it won into its own
+///    buffer, in order.
+/// 3. **Merge**: buffers are copied one after the other into the next frontier, at offsets given by the
+///    sizes of the previous buffers; tasks then turn parent positions into vertices, and mark new vertices
+///    as visited in a bitset, with an atomic OR.
+///
+/// Since buffers follow the order of the chunks, the next frontier is in the exact order a sequential BFS
+/// would put vertices in its queue: distances, parents, and the order of visits are the same whatever
+/// the number of threads. No locks are used: tasks only share the visited bits and the parents, through
+/// [VarHandle]s.
+///
+/// Small frontiers are expanded by the calling thread, without any atomic operation, since forking
+/// tasks would cost more than it saves.
+final class ParallelBFS {
+    /// The smallest number of frontier vertices given to a task.
+    static final int MIN_CHUNK = 2048;
+    // Number of chunks per thread, so threads finishing early can steal work from the others.
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final GraphMaze maze;
+    private final int source;
+    // The pool running the tasks; null to expand every level in the calling thread.
+    private final ForkJoinPool pool;
+    private final int maxChunks;
+
+    // One bit per vertex, set once the vertex is in a frontier.
+    private final long[] visited;
+    private final int[] distances;
+    // During a level, the parent of a new vertex is the position of its parent in the frontier,
+    // and becomes the parent vertex during the merge.
+    private final int[] parents;
+
+    // The vertices of the current level, and of the next one.
+    private int[] frontier = new int[64];
+    private int frontierSize = 0;
+    private int[] next = new int[64];
+    // The buffer and its size of each chunk.
+    private int[][] buffers = new int[0][];
+    private int[] bufferSizes = new int[0];
+    private int[] offsets = new int[0];
+
+    /// Prepares a BFS from the source vertex.
+    ///
+    /// @param maze   the maze to go through
+    /// @param source the vertex to start from
+    /// @param pool   the pool running the tasks, or null to run everything in the calling thread
+    ParallelBFS(GraphMaze maze, int source, ForkJoinPool pool) {
+        int n = maze.getNumCells();
+        if (source < 0 || source >= n) {
+            throw new InvalidVertexException("Invalid vertex id " + source + ". It must be in [0, " + n + "[.");
+        }
+
+        this.maze = maze;
+        this.source = source;
+        this.pool = pool == null || pool.getParallelism() == 1 ? null : pool;
+        this.maxChunks = this.pool == null ? 1 : this.pool.getParallelism() * CHUNKS_PER_THREAD;
+
+        this.visited = new long[(n + 63) >>> 6];
+        this.distances = new int[n];
+        this.parents = new int[n];
+        Arrays.fill(distances, -1);
+        Arrays.fill(parents, -1);
+    }
+
+    /// Runs the BFS until the target is visited, or until all reachable vertices are visited.
+    ///
+    /// The listener receives the vertices of each level in the calling thread, in the order of a sequential
+    /// BFS, up to the target.
+    ///
+    /// @param target   the vertex to stop at, or -1 to visit the whole maze
+    /// @param listener receives every visited vertex
+    /// @return true if the target was visited
+    /// @throws CancellationException when the listener cancelled the search
+    boolean run(int target, SolveListener listener) {
+        visited[source >>> 6] |= 1L << source;
+        distances[source] = 0;
+        parents[source] = source;
+        frontier[0] = source;
+        frontierSize = 1;
+
+        for (int level = 0; frontierSize > 0; level++) {
+            listener.checkCancelled();
+            for (int i = 0; i < frontierSize; i++) {
+                listener.onVisit(frontier[i]);
+                if (frontier[i] == target) {
+                    return true;
+                }
+            }
+
+            expand(level + 1);
+            int[] swap = frontier;
+            frontier = next;
+            next = swap;
+        }
+        return false;
+    }
+
+    /// Returns the distances and parents found by the BFS. Should be called after [#run(int, SolveListener)].
+    ///
+    /// @return the distance field from the source
+    DistanceField toDistanceField() {
+        return new DistanceField(source, distances, parents);
+    }
+
+    /// Returns the shortest path from the source to a vertex reached by the BFS.
+    ///
+    /// @param vertex the last vertex of the path
+    /// @return the vertices of the path, from the source to the vertex; empty if the vertex wasn't reached
+    int[] pathTo(int vertex) {
+        if (distances[vertex] == -1) {
+            return new int[0];
+        }
+
+        int[] path = new int[distances[vertex] + 1];
+        int at = vertex;
+        for (int i = path.length - 1; i >= 0; i--) {
+            path[i] = at;
+            at = parents[at];
+        }
+        return path;
+    }
+
+    // Expands the frontier into the next one, whose vertices are at the given distance.
+    private void expand(int distance) {
+        int chunks = (int) Math.min(maxChunks, (frontierSize + MIN_CHUNK - 1L) / MIN_CHUNK);
+        if (chunks <= 1) {
+            expandInline(distance);
+            return;
+        }
+
+        if (buffers.length < chunks) {
+            buffers = Arrays.copyOf(buffers, chunks);
+            bufferSizes = new int[chunks];
+            offsets = new int[chunks];
+        }
+
+        pool.invoke(new LevelTask(Pass.CLAIM, 0, chunks, chunks, distance));
+        pool.invoke(new LevelTask(Pass.COLLECT, 0, chunks, chunks, distance));
+
+        // Each buffer goes right after the previous one.
+        int total = 0;
+        for (int c = 0; c < chunks; c++) {
+            offsets[c] = total;
+            total += bufferSizes[c];
+        }
+        if (next.length < total) {
+            next = new int[Math.max(total, next.length * 2)];
+        }
+
+        pool.invoke(new LevelTask(Pass.MERGE, 0, chunks, chunks, distance));
+        frontierSize = total;
+    }
+
+    // Expands the whole frontier in the calling thread: the first frontier vertex reaching a vertex
+    // is its parent, so there's no need for the claim pass.
+    private void expandInline(int distance) {
+        int size = 0;
+        for (int i = 0; i < frontierSize; i++) {
+            int current = frontier[i];
+            for (int neighbor : maze.getAdjacentVertices(current)) {
+                long bit = 1L << neighbor;
+                if ((visited[neighbor >>> 6] & bit) == 0) {
+                    visited[neighbor >>> 6] |= bit;
+                    distances[neighbor] = distance;
+                    parents[neighbor] = current;
+
+                    if (size == next.length) {
+                        next = Arrays.copyOf(next, size * 2);
+                    }
+                    next[size++] = neighbor;
+                }
+            }
+        }
+        frontierSize = size;
+    }
+
+    // Lowers the parent of an unvisited vertex to the given frontier position.
+    // Unclaimed vertices have -1, the greatest position when compared as unsigned ints.
+    private void claim(int vertex, int position) {
+        int current = (int) INTS.getVolatile(parents, vertex);
+        while (Integer.compareUnsigned(position, current) < 0) {
+            int witness = (int) INTS.compareAndExchange(parents, vertex, current, position);
+            if (witness == current) {
+                return;
+            }
+            current = witness;
+        }
+    }
+
+    private boolean isVisited(int vertex) {
+        return (visited[vertex >>> 6] & (1L << vertex)) != 0;
+    }
+
+    // The passes of a level, run one after the other on all chunks.
+    private enum Pass {CLAIM, COLLECT, MERGE}
+
+    // Runs a pass on the chunks in [from, to[, splitting them between tasks.
+    private final class LevelTask extends RecursiveAction {
+        private final Pass pass;
+        private final int from, to;
+        private final int chunks;
+        private final int distance;
+
+        LevelTask(Pass pass, int from, int to, int chunks, int distance) {
+            this.pass = pass;
+            this.from = from;
+            this.to = to;
+            this.chunks = chunks;
+            this.distance = distance;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new LevelTask(pass, from, middle, chunks, distance),
+                        new LevelTask(pass, middle, to, chunks, distance));
+                return;
+            }
+
+            // The range of frontier positions of this chunk.
+            int start = (int) ((long) frontierSize * from / chunks);
+            int end = (int) ((long) frontierSize * (from + 1) / chunks);
+            switch (pass) {
+                case CLAIM -> claimChunk(start, end);
+                case COLLECT -> collectChunk(from, start, end);
+                case MERGE -> mergeChunk(from);
+            }
+        }
+
+        private void claimChunk(int start, int end) {
+            for (int i = start; i < end; i++) {
+                for (int neighbor : maze.getAdjacentVertices(frontier[i])) {
+                    if (!isVisited(neighbor)) {
+                        claim(neighbor, i);
+                    }
+                }
+            }
+        }
+
+        // Puts the neighbors won by this chunk into its buffer, in order. Visited bits don't change
+        // during this pass, and a vertex only has one parent position, so no vertex is added twice.
+        private void collectChunk(int chunk, int start, int end) {
+            int[] buffer = buffers[chunk] == null ? new int[64] : buffers[chunk];
+            int size = 0;
+            for (int i = start; i < end; i++) {
+                for (int neighbor : maze.getAdjacentVertices(frontier[i])) {
+                    if (!isVisited(neighbor) && parents[neighbor] == i) {
+                        if (size == buffer.length) {
+                            buffer = Arrays.copyOf(buffer, size * 2);
+                        }
+                        buffer[size++] = neighbor;
+                    }
+                }
+            }
+            buffers[chunk] = buffer;
+            bufferSizes[chunk] = size;
+        }
+
+        private void mergeChunk(int chunk) {
+            int[] buffer = buffers[chunk];
+            int size = bufferSizes[chunk];
+            System.arraycopy(buffer, 0, next, offsets[chunk], size);
+
+            for (int i = 0; i < size; i++) {
+                int vertex = buffer[i];
+                parents[vertex] = frontier[parents[vertex]];
+                distances[vertex] = distance;
+                // Other chunks may set bits in the same word.
+                LONGS.getAndBitwiseOr(visited, vertex >>> 6, 1L << vertex);
+            }
+        }
+    }
+}
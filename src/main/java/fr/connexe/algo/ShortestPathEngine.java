@@ -0,0 +1,341 @@
+package fr.connexe.algo;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+/// Finds the **shortest path** from the start to the end of a maze, using the fastest queue for the weights of
+/// its cells.
+///
+/// The cost of a path is the sum of the weights of the cells it enters (the start is free). Depending on
+/// the [weight model][Strategy], the engine uses:
+/// - [Strategy#BFS] when all cells weigh 1: a plain BFS, with an int array as the queue.
+/// - [Strategy#DIAL] when weights are small integers: Dial's algorithm, with a circular array of buckets.
+/// - [Strategy#RADIX] when weights can be large: Dijkstra with a radix heap.
+///
+/// All three run in (almost) linear time, and never box anything. Every vertex taken out of the queue
+/// is sent to the [SolveListener] as a visit, and the search stops as soon as the end is reached.
+///
+/// For example, to solve a maze where every cell has a weight between 1 and 5:
+/// ```java
+/// var engine = ShortestPathEngine.weighted(vertex -> weights[vertex], 5);
+/// int[] path = engine.solve(maze, SolveListener.NONE);
+///```
+public final class ShortestPathEngine {
+    /// The largest maximum weight for which [Strategy#DIAL] is used, instead of [Strategy#RADIX].
+    public static final int DIAL_MAX_WEIGHT = 256;
+
+    // The engine for mazes without weights, which is always the same.
+    private static final ShortestPathEngine UNIT = new ShortestPathEngine(Strategy.BFS, v -> 1, 1);
+
+    private final Strategy strategy;
+    private final CellWeights weights;
+    private final int maxWeight;
+
+    /// The algorithm used by a [ShortestPathEngine], chosen from the weight model.
+    public enum Strategy {
+        /// Breadth-first search: every cell weighs 1.
+        BFS,
+        /// Dial's algorithm: weights are small integers, up to [#DIAL_MAX_WEIGHT].
+        DIAL,
+        /// Dijkstra's algorithm with a radix heap: weights are any positive int.
+        RADIX
+    }
+
+    /// Gives the weight of every cell of a maze: the cost of entering it.
+    @FunctionalInterface
+    public interface CellWeights {
+        /// Returns the cost of entering a vertex.
+        ///
+        /// @param vertex the vertex
+        /// @return the weight of the vertex; must be between 1 and the maximum weight of the engine
+        int weight(int vertex);
+    }
+
+    private ShortestPathEngine(Strategy strategy, CellWeights weights, int maxWeight) {
+        this.strategy = strategy;
+        this.weights = weights;
+        this.maxWeight = maxWeight;
+    }
+
+    /// Returns the engine for mazes where every cell weighs 1, which uses a BFS.
+    ///
+    /// @return the engine for unweighted mazes
+    public static ShortestPathEngine unitWeights() {
+        return UNIT;
+    }
+
+    /// Returns an engine for mazes with weighted cells, picking the best strategy for the maximum weight.
+    ///
+    /// @param weights   the weight of each cell, between 1 and `maxWeight`
+    /// @param maxWeight the largest weight of any cell
+    /// @return the engine for these weights
+    /// @throws IllegalArgumentException when the maximum weight is lower than 1
+    public static ShortestPathEngine weighted(CellWeights weights, int maxWeight) {
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("maxWeight must be >= 1 (got " + maxWeight + ")");
+        }
+
+        Strategy strategy = maxWeight == 1 ? Strategy.BFS
+                : maxWeight <= DIAL_MAX_WEIGHT ? Strategy.DIAL
+                : Strategy.RADIX;
+        return new ShortestPathEngine(strategy, weights, maxWeight);
+    }
+
+    /// Returns the algorithm used by this engine.
+    ///
+    /// @return the strategy of this engine
+    public Strategy strategy() {
+        return strategy;
+    }
+
+    /// Finds the shortest path from the start to the end of the maze.
+    ///
+    /// @param maze     the maze to solve
+    /// @param listener receives every vertex taken out of the queue, in order
+    /// @return the vertices of the shortest path from start to end, or an empty array if there's none
+    /// @throws IllegalArgumentException when a cell has a weight outside of `[1, maxWeight]`
+    /// @throws CancellationException when the listener cancelled the search
+    public int[] solve(GraphMaze maze, SolveListener listener) {
+        int start = maze.getStart();
+        int end = maze.getEnd();
+        if (start == -1 || end == -1) {
+            return new int[0];
+        }
+
+        int[] parent = new int[maze.getNumCells()];
+        Arrays.fill(parent, -1);
+        parent[start] = start;
+
+        boolean found = switch (strategy) {
+            case BFS -> bfs(maze, parent, listener);
+            case DIAL -> dial(maze, parent, listener);
+            case RADIX -> radix(maze, parent, listener);
+        };
+        return found ? pathTo(end, parent) : new int[0];
+    }
+
+    // Runs a BFS from the start, filling the parents, until the end is found.
+    private boolean bfs(GraphMaze maze, int[] parent, SolveListener listener) {
+        int end = maze.getEnd();
+
+        // Each vertex is enqueued once, so the queue never needs more room than there are vertices.
+        int[] queue = new int[maze.getNumCells()];
+        int head = 0, tail = 0;
+        queue[tail++] = maze.getStart();
+
+        while (head < tail) {
+            listener.checkCancelled();
+            int current = queue[head++];
+            listener.onVisit(current);
+            if (current == end) {
+                return true;
+            }
+
+            for (int neighbor : maze.getAdjacentVertices(current)) {
+                if (parent[neighbor] == -1) {
+                    parent[neighbor] = current;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Runs Dial's algorithm from the start, filling the parents, until the end is found.
+    private boolean dial(GraphMaze maze, int[] parent, SolveListener listener) {
+        int end = maze.getEnd();
+        int[] dist = new int[maze.getNumCells()];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+
+        // Vertices waiting in the queue all have a distance in [d, d + maxWeight], so maxWeight + 1
+        // buckets are enough: the bucket of distance k is k % buckets.length.
+        var buckets = new IntBag[maxWeight + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new IntBag();
+        }
+        dist[maze.getStart()] = 0;
+        buckets[0].add(maze.getStart());
+        int queued = 1;
+
+        for (int d = 0; queued > 0; d++) {
+            IntBag bucket = buckets[d % buckets.length];
+            while (!bucket.isEmpty()) {
+                listener.checkCancelled();
+                int current = bucket.removeLast();
+                queued--;
+                if (dist[current] != d) {
+                    continue; // Already settled with a shorter distance.
+                }
+
+                listener.onVisit(current);
+                if (current == end) {
+                    return true;
+                }
+
+                for (int neighbor : maze.getAdjacentVertices(current)) {
+                    int newDist = d + weightOf(neighbor);
+                    if (newDist < dist[neighbor]) {
+                        dist[neighbor] = newDist;
+                        parent[neighbor] = current;
+                        buckets[newDist % buckets.length].add(neighbor);
+                        queued++;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // Runs Dijkstra's algorithm with a radix heap from the start, filling the parents, until the end is found.
+    private boolean radix(GraphMaze maze, int[] parent, SolveListener listener) {
+        int end = maze.getEnd();
+        int[] dist = new int[maze.getNumCells()];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+
+        var heap = new RadixHeap();
+        dist[maze.getStart()] = 0;
+        heap.push(0, maze.getStart());
+
+        while (!heap.isEmpty()) {
+            listener.checkCancelled();
+            int current = heap.pop();
+            int d = heap.lastKey();
+            if (dist[current] != d) {
+                continue; // Already settled with a shorter distance.
+            }
+
+            listener.onVisit(current);
+            if (current == end) {
+                return true;
+            }
+
+            for (int neighbor : maze.getAdjacentVertices(current)) {
+                int newDist = Math.addExact(d, weightOf(neighbor));
+                if (newDist < dist[neighbor]) {
+                    dist[neighbor] = newDist;
+                    parent[neighbor] = current;
+                    heap.push(newDist, neighbor);
+                }
+            }
+        }
+        return false;
+    }
+
+    private int weightOf(int vertex) {
+        int weight = weights.weight(vertex);
+        if (weight < 1 || weight > maxWeight) {
+            throw new IllegalArgumentException("The weight of vertex " + vertex + " must be in [1, " + maxWeight
+                    + "] (got " + weight + ")");
+        }
+        return weight;
+    }
+
+    // Follows the parents from the end back to the start, and returns the path from start to end.
+    private static int[] pathTo(int end, int[] parent) {
+        int length = 1;
+        for (int at = end; parent[at] != at; at = parent[at]) {
+            length++;
+        }
+
+        int[] path = new int[length];
+        int at = end;
+        for (int i = length - 1; i >= 0; i--) {
+            path[i] = at;
+            at = parent[at];
+        }
+        return path;
+    }
+
+    // A growable stack of ints.
+    private static final class IntBag {
+        private int[] items = new int[16];
+        private int size = 0;
+
+        void add(int item) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = item;
+        }
+
+        int removeLast() {
+            return items[--size];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+
+    /// A monotone priority queue of vertices with int keys: keys pushed can't be lower than the last popped key.
+    ///
+    /// Bucket `i` holds the keys which differ from the last popped key at bit `i - 1` at most, so each key
+    /// only moves to lower buckets, at most 32 times overall: pushing and popping take O(1) amortized time.
+    private static final class RadixHeap {
+        private final IntBag[] keys = new IntBag[33];
+        private final IntBag[] vertices = new IntBag[33];
+        private int size = 0;
+        private int last = 0;
+
+        RadixHeap() {
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = new IntBag();
+                vertices[i] = new IntBag();
+            }
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        // The key of the last popped vertex.
+        int lastKey() {
+            return last;
+        }
+
+        void push(int key, int vertex) {
+            int bucket = bucketOf(key);
+            keys[bucket].add(key);
+            vertices[bucket].add(vertex);
+            size++;
+        }
+
+        int pop() {
+            if (keys[0].isEmpty()) {
+                // Find the first non-empty bucket, and take its lowest key as the new last key.
+                int i = 1;
+                while (keys[i].isEmpty()) {
+                    i++;
+                }
+                IntBag bucketKeys = keys[i];
+                IntBag bucketVertices = vertices[i];
+                int min = Integer.MAX_VALUE;
+                for (int j = 0; j < bucketKeys.size; j++) {
+                    min = Math.min(min, bucketKeys.items[j]);
+                }
+                last = min;
+
+                // Spread the bucket into the lower buckets; the lowest keys land in bucket 0.
+                for (int j = 0; j < bucketKeys.size; j++) {
+                    int bucket = bucketOf(bucketKeys.items[j]);
+                    keys[bucket].add(bucketKeys.items[j]);
+                    vertices[bucket].add(bucketVertices.items[j]);
+                }
+                bucketKeys.clear();
+                bucketVertices.clear();
+            }
+
+            size--;
+            keys[0].removeLast();
+            return vertices[0].removeLast();
+        }
+
+        private int bucketOf(int key) {
+            return key == last ? 0 : 32 - Integer.numberOfLeadingZeros(key ^ last);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package fr.connexe.algo;
+
+import java.util.concurrent.CancellationException;
+
+/// Receives the steps of a maze-solving algorithm **as they happen**.
+///
+/// Solving algorithms call this listener for every step they take, then once with the path they found.
+/// All methods do nothing by default, so listeners only need to implement the events they care about.
+/// For example, printing every visited vertex:
+/// ```java
+/// MazeSolver.solveDFS(maze, new SolveListener() {
+///     @Override
+///     public void onVisit(int vertex) {
+///         System.out.println("Visited " + vertex);
+///     }
+/// });
+///```
+///
+/// Since events aren't stored, very large mazes can be solved step by step without keeping their history
+/// in memory. To keep the history, use a [SolveTrace.Recorder].
+///
+/// A long search can be stopped by returning true in [#isCancelled()]: the algorithm then throws a
+/// [CancellationException] through [#checkCancelled()].
+///
+/// @see SolveTrace.Kind
+public interface SolveListener {
+    /// A listener doing nothing, for when only the path is needed.
+    SolveListener NONE = new SolveListener() {};
+
+    /// Called when the algorithm visits a vertex for the first time.
+    ///
+    /// @param vertex the visited vertex
+    default void onVisit(int vertex) {}
+
+    /// Called when a bidirectional algorithm visits a vertex for the first time, while searching from the end.
+    ///
+    /// @param vertex the visited vertex
+    default void onVisitFromEnd(int vertex) {}
+
+    /// Called when the algorithm goes back to a vertex it already visited.
+    ///
+    /// @param vertex the vertex the algorithm went back to
+    default void onBacktrack(int vertex) {}
+
+    /// Called when the algorithm marks a vertex as a dead end: it won't go there again.
+    ///
+    /// @param vertex the vertex marked as a dead end
+    default void onBlock(int vertex) {}
+
+    /// Called once the algorithm is done, with the path it found.
+    ///
+    /// @param path the vertices of the path from start to end; empty when there's no path.
+    ///             The array must not be modified.
+    default void onPath(int[] path) {}
+
+    /// Tells if the algorithm should stop as soon as possible. Checked by the algorithm at every step.
+    ///
+    /// @return true to cancel the search
+    default boolean isCancelled() {
+        return false;
+    }
+
+    /// Stops the algorithm if [#isCancelled()] returns true. Algorithms call this at every step.
+    ///
+    /// @throws CancellationException when the search is cancelled
+    default void checkCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("The maze solving algorithm was cancelled.");
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package fr.connexe.algo;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+
+/// The history of a maze-solving algorithm: every step it took, and the path it found.
+///
+/// Each step is an **event** on a vertex, with a [Kind]:
+/// - [Kind#VISIT]: the algorithm visited the vertex
+/// - [Kind#BACKTRACK]: the algorithm went back to a vertex it already visited
+/// - [Kind#BLOCK]: the algorithm marked the vertex as a dead end
+/// - [Kind#VISIT_FROM_END]: a bidirectional algorithm visited the vertex, while searching from the end
+///
+/// Events are packed into a single `int[]` (`vertex << 2 | kind`), so a trace only uses one int per step,
+/// plus one int per vertex of the path.
+///
+/// Events can be replayed in chronological order using a [Cursor]:
+/// ```java
+/// SolveTrace.Cursor cursor = trace.cursor();
+/// while (cursor.next()) {
+///     System.out.println(cursor.kind() + " " + cursor.vertex());
+/// }
+///```
+///
+/// Traces are made by giving a [Recorder] to a solving algorithm.
+public final class SolveTrace {
+    // The packed events: (vertex << KIND_BITS) | kind.
+    private final int[] events;
+    // The number of events in the array (the array may be larger).
+    private final int eventCount;
+    // The path from start to end, empty if there's none.
+    private final int[] path;
+
+    // Number of bits used by the kind of each event.
+    private static final int KIND_BITS = 2;
+    private static final int KIND_MASK = (1 << KIND_BITS) - 1;
+    private static final Kind[] KINDS = Kind.values();
+
+    /// The largest vertex that can be stored in a trace.
+    public static final int MAX_VERTEX = -1 >>> KIND_BITS;
+
+    /// The kind of an event in the trace.
+    public enum Kind {
+        /// The algorithm visited the vertex for the first time.
+        VISIT,
+        /// The algorithm went back to a vertex it already visited.
+        BACKTRACK,
+        /// The algorithm marked the vertex as a dead end: it won't go there again.
+        BLOCK,
+        /// A bidirectional algorithm visited the vertex for the first time, while searching from the end.
+        VISIT_FROM_END
+    }
+
+    private SolveTrace(int[] events, int eventCount, int[] path) {
+        this.events = events;
+        this.eventCount = eventCount;
+        this.path = path;
+    }
+
+    /// Returns the number of events in this trace.
+    ///
+    /// @return the number of events
+    public int size() {
+        return eventCount;
+    }
+
+    /// Returns the vertex of the n-th event.
+    ///
+    /// @param index the index of the event, in chronological order
+    /// @return the vertex of the event
+    /// @throws IndexOutOfBoundsException when the index is invalid
+    public int vertex(int index) {
+        return events[checkIndex(index)] >>> KIND_BITS;
+    }
+
+    /// Returns the kind of the n-th event.
+    ///
+    /// @param index the index of the event, in chronological order
+    /// @return the kind of the event
+    /// @throws IndexOutOfBoundsException when the index is invalid
+    public Kind kind(int index) {
+        return KINDS[events[checkIndex(index)] & KIND_MASK];
+    }
+
+    /// Returns true if the algorithm found a path from start to end.
+    ///
+    /// @return true if there's a path
+    public boolean hasPath() {
+        return path.length > 0;
+    }
+
+    /// Returns the number of vertices in the path found by the algorithm.
+    ///
+    /// @return the length of the path; 0 when there's no path
+    public int pathLength() {
+        return path.length;
+    }
+
+    /// Returns the n-th vertex of the path found by the algorithm.
+    ///
+    /// @param index the index of the vertex in the path; 0 is the start
+    /// @return the vertex
+    /// @throws IndexOutOfBoundsException when the index is invalid
+    public int pathVertex(int index) {
+        return path[index];
+    }
+
+    /// Returns a copy of the path found by the algorithm, from start to end.
+    ///
+    /// @return the vertices of the path; empty when there's no path
+    public int[] getPath() {
+        return path.clone();
+    }
+
+    /// Returns the number of distinct vertices visited by the algorithm, including the path.
+    ///
+    /// @return the number of visited vertices
+    public int countVisitedVertices() {
+        var visited = new BitSet();
+        for (int i = 0; i < eventCount; i++) {
+            visited.set(events[i] >>> KIND_BITS);
+        }
+        for (int vertex : path) {
+            visited.set(vertex);
+        }
+        return visited.cardinality();
+    }
+
+    /// Returns a new cursor to replay the events of this trace, placed before the first event.
+    ///
+    /// @return a new cursor
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    private int checkIndex(int index) {
+        return Objects.checkIndex(index, eventCount);
+    }
+
+    /// Replays the events of a [SolveTrace] in chronological order.
+    ///
+    /// The cursor begins before the first event; call [#next()] to move to the next one.
+    public final class Cursor {
+        private int index = -1;
+
+        private Cursor() {}
+
+        /// Moves to the next event.
+        ///
+        /// @return true if there's a next event, false when all events have been replayed
+        public boolean next() {
+            if (index + 1 < eventCount) {
+                index++;
+                return true;
+            }
+            index = eventCount;
+            return false;
+        }
+
+        /// Returns the index of the current event.
+        ///
+        /// @return the index of the current event
+        public int index() {
+            return index;
+        }
+
+        /// Returns the vertex of the current event.
+        ///
+        /// @return the vertex of the current event
+        /// @throws IndexOutOfBoundsException when the cursor isn't on an event
+        public int vertex() {
+            return SolveTrace.this.vertex(index);
+        }
+
+        /// Returns the kind of the current event.
+        ///
+        /// @return the kind of the current event
+        /// @throws IndexOutOfBoundsException when the cursor isn't on an event
+        public Kind kind() {
+            return SolveTrace.this.kind(index);
+        }
+    }
+
+    /// Records the events of a solving algorithm to make a [SolveTrace].
+    ///
+    /// Recorders are [listeners][SolveListener], so they can be given to any solving algorithm.
+    public static final class Recorder implements SolveListener {
+        private int[] events = new int[64];
+        private int eventCount = 0;
+
+        /// Makes a new, empty recorder.
+        public Recorder() {}
+
+        /// Records a [Kind#VISIT] event.
+        ///
+        /// @param vertex the visited vertex
+        @Override
+        public void onVisit(int vertex) {
+            add(vertex, Kind.VISIT);
+        }
+
+        /// Records a [Kind#BACKTRACK] event.
+        ///
+        /// @param vertex the vertex the algorithm went back to
+        @Override
+        public void onBacktrack(int vertex) {
+            add(vertex, Kind.BACKTRACK);
+        }
+
+        /// Records a [Kind#VISIT_FROM_END] event.
+        ///
+        /// @param vertex the visited vertex
+        @Override
+        public void onVisitFromEnd(int vertex) {
+            add(vertex, Kind.VISIT_FROM_END);
+        }
+
+        /// Records a [Kind#BLOCK] event.
+        ///
+        /// @param vertex the vertex marked as a dead end
+        @Override
+        public void onBlock(int vertex) {
+            add(vertex, Kind.BLOCK);
+        }
+
+        /// Records an event.
+        ///
+        /// @param vertex the vertex of the event
+        /// @param kind   the kind of the event
+        /// @throws IllegalArgumentException when the vertex is negative or greater than [SolveTrace#MAX_VERTEX]
+        public void add(int vertex, Kind kind) {
+            if (vertex < 0 || vertex > MAX_VERTEX) {
+                throw new IllegalArgumentException("vertex must be in [0, " + MAX_VERTEX + "] (got " + vertex + ")");
+            }
+
+            // Grow the array when it's full.
+            if (eventCount == events.length) {
+                events = Arrays.copyOf(events, events.length * 2);
+            }
+            events[eventCount++] = (vertex << KIND_BITS) | kind.ordinal();
+        }
+
+        /// Makes the trace with all recorded events, and the path found by the algorithm.
+        ///
+        /// The events are copied into an array of the right size, so traces kept around don't waste memory.
+        ///
+        /// @param path the vertices of the path from start to end; empty when there's no path
+        /// @return the trace
+        public SolveTrace finish(int[] path) {
+            return new SolveTrace(Arrays.copyOf(events, eventCount), eventCount, path.clone());
+        }
+    }
+}
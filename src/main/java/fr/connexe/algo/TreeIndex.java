@@ -0,0 +1,220 @@
+package fr.connexe.algo;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+
+/// Answers path queries between **any two cells of a perfect maze** without searching, using their
+/// **lowest common ancestor** (LCA).
+///
+/// A perfect maze is a tree: there's exactly one path between two cells. Once the tree is rooted (at the start
+/// of the maze, or at cell 0 when it has no endpoints), that path goes up from the first cell to the lowest
+/// ancestor both cells have in common, and then down to the second cell. So:
+/// - the distance between `a` and `b` is `depth(a) + depth(b) - 2 * depth(lca(a, b))`;
+/// - the path is found by walking up the parents of both cells until the LCA.
+///
+/// The LCA is found with a **heavy-light decomposition**: the tree is cut into chains, each cell continuing
+/// the chain of its parent when it has the largest subtree among its siblings. Going from a cell to the root
+/// crosses O(log n) chains, so finding the LCA takes O(log n) time, jumping from the head of a chain to its parent.
+///
+/// Everything is stored in three int arrays (parent, depth and chain head of each cell), built in O(n) time
+/// without recursion. Queries don't allocate anything, except for the path.
+///
+/// Indexes are cached by [#of(GraphMaze)], and made again once the edges of the maze change
+/// (see [GraphMaze#getVersion()]). Mazes which aren't trees are refused.
+public final class TreeIndex {
+    // The last index made for each maze. Indexes don't reference their maze, so mazes can still be collected.
+    private static final Map<GraphMaze, Cached> CACHE = new WeakHashMap<>();
+
+    private final int root;
+    private final int version;
+    // The parent of each cell in the tree; -1 for the root.
+    private final int[] parent;
+    // The number of moves from the root to each cell.
+    private final int[] depth;
+    // The first cell (closest to the root) of the chain of each cell.
+    private final int[] head;
+
+    // An index in the cache, or null when the maze wasn't a tree, for this version of the maze.
+    private record Cached(TreeIndex index, int version) {}
+
+    private TreeIndex(GraphMaze maze, int root) {
+        int n = maze.getNumCells();
+        this.root = root;
+        this.version = maze.getVersion();
+        this.parent = new int[n];
+        this.depth = new int[n];
+        this.head = new int[n];
+
+        // Go through the tree from the root (BFS), so parents always come before their children in the order.
+        int[] order = new int[n];
+        int count = 0;
+        order[count++] = root;
+        parent[root] = -1;
+        for (int i = 0; i < count; i++) {
+            int cell = order[i];
+            for (int neighbor : maze.getAdjacentVertices(cell)) {
+                if (neighbor != parent[cell]) {
+                    parent[neighbor] = cell;
+                    depth[neighbor] = depth[cell] + 1;
+                    order[count++] = neighbor;
+                }
+            }
+        }
+
+        // Find the size of each subtree, children first, and the child of each cell with the largest subtree
+        // (its heavy child). Sizes are kept in the head array, which is only filled afterward.
+        int[] size = head;
+        int[] heavy = new int[n];
+        Arrays.fill(size, 1);
+        Arrays.fill(heavy, -1);
+        for (int i = n - 1; i > 0; i--) {
+            int cell = order[i];
+            int p = parent[cell];
+            size[p] += size[cell];
+            if (heavy[p] == -1 || size[cell] > size[heavy[p]]) {
+                heavy[p] = cell;
+            }
+        }
+
+        // Every heavy child continues the chain of its parent; other cells begin a new chain.
+        // Parents come first in the order, so their head is always known.
+        head[root] = root;
+        for (int i = 1; i < n; i++) {
+            int cell = order[i];
+            int p = parent[cell];
+            head[cell] = heavy[p] == cell ? head[p] : cell;
+        }
+    }
+
+    /// Returns the index of a maze, if the maze is a tree: all of its cells can be reached, and it has no cycle.
+    ///
+    /// The tree is rooted at the start of the maze, or at cell 0 when it has no endpoints.
+    /// The index is cached, until the edges of the maze change.
+    ///
+    /// @param maze the maze to index
+    /// @return the index of the maze, or an empty [Optional] when the maze isn't perfect
+    public static Optional<TreeIndex> of(GraphMaze maze) {
+        int root = maze.getStart() == -1 ? 0 : maze.getStart();
+        synchronized (CACHE) {
+            Cached cached = CACHE.get(maze);
+            if (cached == null || cached.version != maze.getVersion()
+                    || (cached.index != null && cached.index.root != root)) {
+                // A tree has one component, and no cycle.
+                var components = new ComponentIndex(maze);
+                boolean isTree = components.getComponentCount() == 1 && !components.hasCycles();
+
+                cached = new Cached(isTree ? new TreeIndex(maze, root) : null, maze.getVersion());
+                CACHE.put(maze, cached);
+            }
+            return Optional.ofNullable(cached.index);
+        }
+    }
+
+    /// Returns the index of a maze, only if it was already made by [#of(GraphMaze)] for the current edges
+    /// of the maze. Its root may be an old start of the maze: distances and paths don't depend on it.
+    ///
+    /// @param maze the indexed maze
+    /// @return the up-to-date index of the maze, or an empty [Optional] when there's none yet
+    public static Optional<TreeIndex> cached(GraphMaze maze) {
+        synchronized (CACHE) {
+            Cached cached = CACHE.get(maze);
+            if (cached == null || cached.version != maze.getVersion()) {
+                return Optional.empty();
+            }
+            return Optional.ofNullable(cached.index);
+        }
+    }
+
+    /// Returns the root of the tree: the start of the maze, or cell 0 when it has no endpoints.
+    ///
+    /// @return the root vertex
+    public int getRoot() {
+        return root;
+    }
+
+    /// Returns the version of the maze this index was made for; see [GraphMaze#getVersion()].
+    ///
+    /// @return the version of the maze
+    public int getVersion() {
+        return version;
+    }
+
+    /// Returns the number of moves from the root to a cell.
+    ///
+    /// @param vertex the vertex
+    /// @return the depth of the vertex
+    /// @throws InvalidVertexException when the vertex is out of bounds
+    public int depthOf(int vertex) {
+        return depth[checkVertex(vertex)];
+    }
+
+    /// Returns the lowest common ancestor of two cells: the cell where the path between them stops going up
+    /// toward the root, and starts going down. In O(log n) time.
+    ///
+    /// @param vertexA the first vertex
+    /// @param vertexB the second vertex
+    /// @return the lowest common ancestor of both vertices
+    /// @throws InvalidVertexException when either vertex is out of bounds
+    public int lowestCommonAncestor(int vertexA, int vertexB) {
+        int a = checkVertex(vertexA);
+        int b = checkVertex(vertexB);
+
+        // Climb chain by chain, always from the chain which begins the deepest, until both are on the same chain.
+        while (head[a] != head[b]) {
+            if (depth[head[a]] > depth[head[b]]) {
+                a = parent[head[a]];
+            } else {
+                b = parent[head[b]];
+            }
+        }
+        return depth[a] < depth[b] ? a : b;
+    }
+
+    /// Returns the number of moves of the path between two cells, in O(log n) time.
+    ///
+    /// @param vertexA the first vertex
+    /// @param vertexB the second vertex
+    /// @return the distance between both vertices
+    /// @throws InvalidVertexException when either vertex is out of bounds
+    public int distance(int vertexA, int vertexB) {
+        int lca = lowestCommonAncestor(vertexA, vertexB);
+        return depth[vertexA] + depth[vertexB] - 2 * depth[lca];
+    }
+
+    /// Returns the path between two cells, in O(log n + path length) time.
+    ///
+    /// @param vertexA the first vertex of the path
+    /// @param vertexB the last vertex of the path
+    /// @return the vertices of the path, from the first vertex to the last one
+    /// @throws InvalidVertexException when either vertex is out of bounds
+    public int[] path(int vertexA, int vertexB) {
+        int lca = lowestCommonAncestor(vertexA, vertexB);
+        int up = depth[vertexA] - depth[lca];
+        int down = depth[vertexB] - depth[lca];
+
+        int[] path = new int[up + down + 1];
+        // Go up from A to the LCA, at the beginning of the path...
+        int cell = vertexA;
+        for (int i = 0; i <= up; i++) {
+            path[i] = cell;
+            cell = parent[cell];
+        }
+        // ...and up from B to the LCA, at the end of the path, backwards.
+        cell = vertexB;
+        for (int i = path.length - 1; i > up; i--) {
+            path[i] = cell;
+            cell = parent[cell];
+        }
+        return path;
+    }
+
+    private int checkVertex(int vertex) {
+        if (vertex < 0 || vertex >= parent.length) {
+            throw new InvalidVertexException("Invalid vertex id " + vertex + ". It must be in [0, "
+                    + parent.length + "[.");
+        }
+        return vertex;
+    }
+}
@@ -0,0 +1,104 @@
+package fr.connexe.algo.generation;
+
+import java.util.Random;
+
+/// Chooses which cell of the active list to grow next, in the
+/// [growing tree algorithm][MazeGenerator#makeGrowingTree(int, int, Endpoints, CellSelector, Long)].
+///
+/// The active list contains all cells that may still have unvisited neighbors, **in the order they were added**:
+/// index `0` is the oldest cell, and index `count - 1` is the newest one.
+///
+/// The selection strategy dictates the texture of the maze:
+/// - [#newest()] always grows the newest cell, which behaves like a randomized DFS: long, winding corridors.
+/// - [#random()] grows a random cell, which behaves like Prim's algorithm: lots of short dead ends.
+/// - [#oldest()] grows the oldest cell, making very straight and boring corridors.
+/// - [#mix(double, double, double)] picks one of those three strategies randomly, with the given weights.
+///
+/// Keeping the active list in order costs time when a cell is removed from its middle. Selectors which don't
+/// care about the order, like [#random()], say so with [#needsOrder()], so the generator can skip it.
+@FunctionalInterface
+public interface CellSelector {
+    /// Chooses the index of the next cell to grow in the active list.
+    ///
+    /// @param count  the number of cells in the active list; always positive
+    /// @param random the RNG of the generator, to use for any random choice
+    /// @return the index of the chosen cell, between `0` (oldest) and `count - 1` (newest)
+    int select(int count, Random random);
+
+    /// Returns true when this selector relies on the order of the active list: index `0` must be the oldest cell,
+    /// and `count - 1` the newest one. When false, cells may be moved around in the list.
+    ///
+    /// @return true if the active list must stay in order; true by default
+    default boolean needsOrder() {
+        return true;
+    }
+
+    /// Always chooses the newest cell: gives long corridors, like a randomized DFS.
+    ///
+    /// @return a selector choosing the newest cell
+    static CellSelector newest() {
+        return (count, random) -> count - 1;
+    }
+
+    /// Always chooses the oldest cell: gives long, straight corridors.
+    ///
+    /// @return a selector choosing the oldest cell
+    static CellSelector oldest() {
+        return (count, random) -> 0;
+    }
+
+    /// Chooses a random cell: gives a "bushy" maze with many dead ends, like Prim's algorithm.
+    ///
+    /// @return a selector choosing a random cell
+    static CellSelector random() {
+        return new CellSelector() {
+            @Override
+            public int select(int count, Random random) {
+                return random.nextInt(count);
+            }
+
+            @Override
+            public boolean needsOrder() {
+                return false; // Any cell may be chosen, wherever it is in the list.
+            }
+        };
+    }
+
+    /// Chooses either the newest, the oldest, or a random cell, with the given weights.
+    ///
+    /// Weights don't need to add up to 1; for example, `mix(3, 0, 1)` chooses the newest cell 75% of the time,
+    /// and a random cell 25% of the time.
+    ///
+    /// @param newest the weight of the newest cell strategy
+    /// @param oldest the weight of the oldest cell strategy
+    /// @param random the weight of the random cell strategy
+    /// @return a selector mixing all three strategies
+    /// @throws IllegalArgumentException when a weight is negative, or when all weights are zero
+    static CellSelector mix(double newest, double oldest, double random) {
+        if (newest < 0 || oldest < 0 || random < 0) {
+            throw new IllegalArgumentException("Weights cannot be negative (newest=" + newest
+                    + ", oldest=" + oldest + ", random=" + random + ")");
+        }
+        double total = newest + oldest + random;
+        if (total <= 0) {
+            throw new IllegalArgumentException("At least one weight must be positive.");
+        }
+        if (newest == 0 && oldest == 0) {
+            return random(); // Only random choices: the order doesn't matter.
+        }
+
+        // Turn the weights into thresholds within [0, 1[.
+        double newestThreshold = newest / total;
+        double oldestThreshold = (newest + oldest) / total;
+        return (count, rng) -> {
+            double roll = rng.nextDouble();
+            if (roll < newestThreshold) {
+                return count - 1;
+            } else if (roll < oldestThreshold) {
+                return 0;
+            } else {
+                return rng.nextInt(count);
+            }
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package fr.connexe.algo.generation;
+
+/// Generates mazes using a randomized depth-first search.
+///
+/// @see MazeGenerator#makeDFS(int, int, Endpoints, Long)
+public class DFSAlgorithm implements MazeGenerationAlgorithm {
+    // The DFS is recursive: very large mazes would overflow the stack.
+    private static final Descriptor DESCRIPTOR =
+            new Descriptor("dfs", "DFS", true, false, false, 500);
+
+    /// Makes a new [DFSAlgorithm] instance.
+    public DFSAlgorithm() {}
+
+    @Override
+    public Descriptor descriptor() {
+        return DESCRIPTOR;
+    }
+
+    @Override
+    public MazeGenResult generate(int width, int height, Endpoints endpoints, Long seed) {
+        return MazeGenerator.makeDFS(width, height, endpoints, seed);
+    }
+}
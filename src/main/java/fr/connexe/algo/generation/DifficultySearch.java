@@ -0,0 +1,134 @@
+package fr.connexe.algo.generation;
+
+import fr.connexe.algo.MazeMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+/// Finds a maze matching a [DifficultyTarget] by generating **many candidates concurrently**, using seeds
+/// derived from a single one.
+///
+/// Each candidate is scored with [MazeMetrics]. The search stops as soon as a candidate meets the target;
+/// otherwise, the candidate closest to the target is returned.
+///
+/// The result only depends on the seed, not on the number of threads or their timing:
+/// the **first** matching candidate (in seed order) is always returned.
+public class DifficultySearch {
+    /// The default maximum number of candidates to try before giving up.
+    public static final int DEFAULT_MAX_CANDIDATES = 64;
+
+    // No need to instantiate this!
+    private DifficultySearch() {}
+
+    /// The result of a search.
+    ///
+    /// @param result     the generated maze and its log
+    /// @param metrics    the metrics of the maze
+    /// @param seed       the derived seed used to generate this maze
+    /// @param candidates the number of candidates generated during the search
+    /// @param targetMet  true if the maze matches the target; false if it's only the closest one
+    public record Result(MazeGenResult result, MazeMetrics metrics, long seed, int candidates, boolean targetMet) {}
+
+    /// Searches for a maze matching the target, using all available processors.
+    ///
+    /// The generator receives a derived seed for each candidate, and can do anything to make the maze
+    /// (e.g. [MazeGenerator#introduceChaos(MazeGenResult, float, Long)]), as long as it only depends on the seed.
+    /// It is called **from multiple threads** at the same time.
+    ///
+    /// @param generator     generates a candidate maze using the given seed
+    /// @param seed          an optional seed to derive candidate seeds from; a `null` value will generate a seed randomly.
+    /// @param target        the difficulty target to reach
+    /// @param maxCandidates the maximum number of candidates to generate
+    /// @return the first candidate matching the target, or the closest one if none match
+    /// @throws IllegalArgumentException when maxCandidates is not positive
+    public static Result search(LongFunction<MazeGenResult> generator, Long seed, DifficultyTarget target,
+                                int maxCandidates) {
+        if (maxCandidates <= 0) {
+            throw new IllegalArgumentException("maxCandidates must be positive (got " + maxCandidates + ")");
+        }
+
+        // Derive all seeds upfront, so candidate n always gets the same seed.
+        var random = seed != null ? new SplittableRandom(seed) : new SplittableRandom();
+        long[] seeds = new long[maxCandidates];
+        for (int i = 0; i < maxCandidates; i++) {
+            seeds[i] = random.nextLong();
+        }
+
+        // The metrics of each candidate, and the index of the first one matching the target so far.
+        // Workers never take candidates after the first match: they can't be better.
+        var candidates = new Candidate[maxCandidates];
+        var nextIndex = new AtomicInteger(0);
+        var firstMatch = new AtomicInteger(Integer.MAX_VALUE);
+
+        int threads = Math.min(maxCandidates, Runtime.getRuntime().availableProcessors());
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads, DifficultySearch::newWorkerThread)) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    int i;
+                    while ((i = nextIndex.getAndIncrement()) < maxCandidates && i < firstMatch.get()) {
+                        // Generate the candidate and measure it.
+                        MazeGenResult result = generator.apply(seeds[i]);
+                        MazeMetrics metrics = MazeMetrics.of(result.maze());
+                        double distance = target.distance(metrics);
+                        candidates[i] = new Candidate(result, metrics, distance);
+
+                        // Found a match! Stop everyone from taking later candidates.
+                        if (distance == 0) {
+                            firstMatch.accumulateAndGet(i, Math::min);
+                        }
+                    }
+                }));
+            }
+
+            // Wait for all workers, and forward any exception of the generator.
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException("Failed to generate a candidate maze.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The search has been interrupted.", e);
+        }
+
+        // Pick the first match, or else the closest candidate (the first one in case of a tie).
+        int best = firstMatch.get();
+        if (best == Integer.MAX_VALUE) {
+            best = 0; // All candidates have been generated since nothing matched.
+            for (int i = 1; i < maxCandidates; i++) {
+                if (candidates[i].distance < candidates[best].distance) {
+                    best = i;
+                }
+            }
+        }
+
+        // Count how many candidates we've generated, for statistics.
+        int generated = 0;
+        for (Candidate candidate : candidates) {
+            if (candidate != null) {
+                generated++;
+            }
+        }
+
+        Candidate chosen = candidates[best];
+        return new Result(chosen.result, chosen.metrics, seeds[best], generated, chosen.distance == 0);
+    }
+
+    // A generated candidate, with its distance to the target.
+    private record Candidate(MazeGenResult result, MazeMetrics metrics, double distance) {}
+
+    // Makes a daemon thread for the worker pool, so it never prevents the app from closing.
+    private static Thread newWorkerThread(Runnable runnable) {
+        var thread = new Thread(runnable, "difficulty-search");
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,127 @@
+package fr.connexe.algo.generation;
+
+import fr.connexe.algo.MazeMetrics;
+
+/// A target band for the difficulty of a maze, used by [DifficultySearch] to find a maze matching it.
+///
+/// Each metric has a minimum and a maximum value, both inclusive. Use `0` and [Integer#MAX_VALUE]
+/// to leave a metric unbounded.
+///
+/// Use [#preset(Level, int, int)] to get sensible targets for a maze size.
+///
+/// @param minPathLength the minimum length of the shortest path from start to end
+/// @param maxPathLength the maximum length of the shortest path from start to end
+/// @param minDeadEnds   the minimum number of dead ends
+/// @param maxDeadEnds   the maximum number of dead ends
+/// @param minJunctions  the minimum number of junctions
+/// @param maxJunctions  the maximum number of junctions
+public record DifficultyTarget(int minPathLength, int maxPathLength,
+                               int minDeadEnds, int maxDeadEnds,
+                               int minJunctions, int maxJunctions) {
+    /// Makes a new [DifficultyTarget] with the given bands.
+    ///
+    /// @param minPathLength the minimum length of the shortest path from start to end
+    /// @param maxPathLength the maximum length of the shortest path from start to end
+    /// @param minDeadEnds   the minimum number of dead ends
+    /// @param maxDeadEnds   the maximum number of dead ends
+    /// @param minJunctions  the minimum number of junctions
+    /// @param maxJunctions  the maximum number of junctions
+    /// @throws IllegalArgumentException when a minimum is negative or greater than its maximum
+    public DifficultyTarget {
+        checkBand("pathLength", minPathLength, maxPathLength);
+        checkBand("deadEnds", minDeadEnds, maxDeadEnds);
+        checkBand("junctions", minJunctions, maxJunctions);
+    }
+
+    /// Difficulty levels with preset targets.
+    public enum Level {
+        /// A short path to the exit.
+        EASY("Facile"),
+        /// A path of average length.
+        MEDIUM("Moyen"),
+        /// A long, winding path with lots of dead ends.
+        HARD("Difficile");
+
+        private final String displayName;
+
+        Level(String displayName) {
+            this.displayName = displayName;
+        }
+
+        /// Returns the name of this level shown to the user.
+        ///
+        /// @return the display name of this level
+        public String displayName() {
+            return displayName;
+        }
+    }
+
+    /// Returns the preset target of a difficulty level, for a maze of the given size.
+    ///
+    /// Path lengths are relative to the shortest possible path from a corner to the opposite one
+    /// (`width + height - 2` moves), and dead ends are relative to the number of cells.
+    ///
+    /// @param level  the difficulty level
+    /// @param width  the width of the maze
+    /// @param height the height of the maze
+    /// @return the target for this level
+    public static DifficultyTarget preset(Level level, int width, int height) {
+        int diagonal = Math.max(1, width + height - 2);
+        int cells = width * height;
+        return switch (level) {
+            case EASY -> new DifficultyTarget(0, (int) (diagonal * 1.5),
+                    0, Integer.MAX_VALUE,
+                    0, Integer.MAX_VALUE);
+            case MEDIUM -> new DifficultyTarget((int) (diagonal * 1.5), diagonal * 3,
+                    0, Integer.MAX_VALUE,
+                    0, Integer.MAX_VALUE);
+            case HARD -> new DifficultyTarget(diagonal * 3, Integer.MAX_VALUE,
+                    cells / 10, Integer.MAX_VALUE,
+                    0, Integer.MAX_VALUE);
+        };
+    }
+
+    /// Tells if the metrics of a maze are inside all bands of this target.
+    ///
+    /// A maze without any path from start to end never matches.
+    ///
+    /// @param metrics the metrics of the maze
+    /// @return true if the maze matches this target
+    public boolean matches(MazeMetrics metrics) {
+        return distance(metrics) == 0;
+    }
+
+    /// Returns how far the metrics of a maze are from this target: `0` when inside all bands,
+    /// and higher values when further away. Each metric outside its band adds its relative distance to the band.
+    ///
+    /// A maze without any path from start to end has an infinite distance.
+    ///
+    /// @param metrics the metrics of the maze
+    /// @return the distance between the maze and this target
+    public double distance(MazeMetrics metrics) {
+        if (metrics.pathLength() < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return bandDistance(metrics.pathLength(), minPathLength, maxPathLength)
+                + bandDistance(metrics.deadEnds(), minDeadEnds, maxDeadEnds)
+                + bandDistance(metrics.junctions(), minJunctions, maxJunctions);
+    }
+
+    // Returns the distance between a value and a band, relative to the closest bound of the band.
+    private static double bandDistance(int value, int min, int max) {
+        if (value < min) {
+            return (double) (min - value) / min;
+        } else if (value > max) {
+            return (double) (value - max) / Math.max(1, max);
+        } else {
+            return 0;
+        }
+    }
+
+    // Checks that the band is valid.
+    private static void checkBand(String name, int min, int max) {
+        if (min < 0 || min > max) {
+            throw new IllegalArgumentException("Invalid " + name + " band: [" + min + ", " + max + "]");
+        }
+    }
+}
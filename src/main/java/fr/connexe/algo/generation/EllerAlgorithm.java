@@ -0,0 +1,34 @@
+package fr.connexe.algo.generation;
+
+import fr.connexe.algo.MazeSerializationException;
+
+import java.io.OutputStream;
+
+/// Generates mazes using Eller's algorithm, row by row. Huge mazes can be written into a file
+/// without keeping them in memory.
+///
+/// @see MazeGenerator#makeEller(int, int, Endpoints, Long)
+/// @see MazeGenerator#streamEller(int, int, Endpoints, Long, OutputStream)
+public class EllerAlgorithm implements MazeGenerationAlgorithm {
+    private static final Descriptor DESCRIPTOR =
+            new Descriptor("eller", "Eller", true, false, true, 4000);
+
+    /// Makes a new [EllerAlgorithm] instance.
+    public EllerAlgorithm() {}
+
+    @Override
+    public Descriptor descriptor() {
+        return DESCRIPTOR;
+    }
+
+    @Override
+    public MazeGenResult generate(int width, int height, Endpoints endpoints, Long seed) {
+        return MazeGenerator.makeEller(width, height, endpoints, seed);
+    }
+
+    @Override
+    public void generateTo(int width, int height, Endpoints endpoints, Long seed, OutputStream output)
+            throws MazeSerializationException {
+        MazeGenerator.streamEller(width, height, endpoints, seed, output);
+    }
+}
@@ -0,0 +1,60 @@
+package fr.connexe.algo.generation;
+
+import java.util.Optional;
+
+/// Generates mazes using the growing tree algorithm, mixing the "newest" and "random" cell selection strategies.
+///
+/// Its [setting][#setting()] is the corridor ratio, as a percentage: 100% always grows the newest cell
+/// (long corridors), 0% always grows a random cell (bushy maze).
+///
+/// @param corridorRatio the probability to grow the newest cell instead of a random one, between 0 and 1;
+///                      higher values give longer corridors
+/// @see MazeGenerator#makeGrowingTree(int, int, Endpoints, CellSelector, Long)
+public record GrowingTreeAlgorithm(double corridorRatio) implements MazeGenerationAlgorithm {
+    private static final Descriptor DESCRIPTOR =
+            new Descriptor("growing-tree", "Arbre croissant", true, false, false, 4000);
+
+    /// Makes a new [GrowingTreeAlgorithm] with the given corridor ratio.
+    ///
+    /// @param corridorRatio the probability to grow the newest cell instead of a random one, between 0 and 1
+    /// @throws IllegalArgumentException when the ratio is not between 0 and 1
+    public GrowingTreeAlgorithm {
+        if (!(corridorRatio >= 0 && corridorRatio <= 1)) {
+            throw new IllegalArgumentException("corridorRatio must be between 0 and 1 (got " + corridorRatio + ")");
+        }
+    }
+
+    /// Makes a new [GrowingTreeAlgorithm] with a corridor ratio of 50%.
+    public GrowingTreeAlgorithm() {
+        this(0.5);
+    }
+
+    /// Returns a copy of this algorithm with another corridor ratio.
+    ///
+    /// @param corridorRatio the probability to grow the newest cell instead of a random one, between 0 and 1
+    /// @return the algorithm with the new corridor ratio
+    public GrowingTreeAlgorithm withCorridorRatio(double corridorRatio) {
+        return new GrowingTreeAlgorithm(corridorRatio);
+    }
+
+    @Override
+    public Descriptor descriptor() {
+        return DESCRIPTOR;
+    }
+
+    @Override
+    public Optional<Setting> setting() {
+        return Optional.of(new Setting("% Couloirs", 0, 100, (int) Math.round(corridorRatio * 100), 5));
+    }
+
+    @Override
+    public GrowingTreeAlgorithm withSetting(int value) {
+        return withCorridorRatio(value / 100.0);
+    }
+
+    @Override
+    public MazeGenResult generate(int width, int height, Endpoints endpoints, Long seed) {
+        var selector = CellSelector.mix(corridorRatio, 0, 1 - corridorRatio);
+        return MazeGenerator.makeGrowingTree(width, height, endpoints, selector, seed);
+    }
+}
@@ -40,6 +40,15 @@ public sealed interface MazeGenEvent {
     /// @see GraphMaze#disconnect
     record Disconnect(int vertexA, int vertexB) implements MazeGenEvent {}
 
+    /// **All vertices** of the [maze graph][GraphMaze] **have been connected** with their neighbors:
+    /// **every wall inside the maze is now broken**.
+    ///
+    /// Used by algorithms that start from an empty grid and add walls, instead of connecting
+    /// vertices one by one.
+    ///
+    /// @see GraphMaze#connectAll()
+    record ConnectAll() implements MazeGenEvent {}
+
     /// Start and end vertices of the [maze graph][GraphMaze] have been set.
     /// Either values can be set to -1 to indicate no start or end.
     ///
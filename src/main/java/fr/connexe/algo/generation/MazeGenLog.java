@@ -126,6 +126,7 @@ public class MazeGenLog implements Iterable<MazeGenEvent> {
         switch (event) {
             case MazeGenEvent.Connect(int vertexA, int vertexB) -> maze.connect(vertexA, vertexB);
             case MazeGenEvent.Disconnect(int vertexA, int vertexB) -> maze.disconnect(vertexA, vertexB);
+            case MazeGenEvent.ConnectAll() -> maze.connectAll();
             case MazeGenEvent.SetEndpoints(int startVertex, int endVertex) -> maze.setEndpoints(startVertex, endVertex);
         }
     }
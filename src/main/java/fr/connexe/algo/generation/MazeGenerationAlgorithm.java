@@ -0,0 +1,145 @@
+package fr.connexe.algo.generation;
+
+import fr.connexe.algo.CompactMazeFormat;
+import fr.connexe.algo.MazeSerializationException;
+
+import java.io.OutputStream;
+import java.util.Optional;
+
+/// A maze generation algorithm, which can be discovered by the [MazeGenerationAlgorithms] registry.
+///
+/// Implementations are **service providers** registered in `module-info.java`, using:
+/// ```java
+/// provides fr.connexe.algo.generation.MazeGenerationAlgorithm with MyAlgorithm;
+/// ```
+///
+/// They must have a public constructor with no arguments, so [java.util.ServiceLoader] can create them.
+/// Once registered, the algorithm is available in the GUI, the console app, and the benchmark app.
+///
+/// An algorithm can have a [setting][#setting()] the user can change before generating a maze, like the
+/// texture of the maze. Front ends show it without knowing the algorithm, and apply it with [#withSetting(int)].
+///
+/// @see MazeGenerationAlgorithms
+public interface MazeGenerationAlgorithm {
+    /// Returns the descriptor of this algorithm, with its name and capabilities.
+    ///
+    /// @return the descriptor of this algorithm
+    Descriptor descriptor();
+
+    /// Generates a **perfect maze** using this algorithm.
+    ///
+    /// @param width     the width of the maze to generate
+    /// @param height    the height of the maze to generate
+    /// @param endpoints the start and end vertices of the maze to generate; if `null`, the endpoints will be set to default.
+    /// @param seed      an optional seed for the RNG; a `null` value will generate a seed randomly.
+    /// @return the generated perfect maze and its log, inside a [MazeGenResult]
+    /// @throws IllegalArgumentException when the dimensions are invalid
+    MazeGenResult generate(int width, int height, Endpoints endpoints, Long seed);
+
+    /// Generates a **perfect maze** using this algorithm, and writes it into a stream using the
+    /// [compact format][CompactMazeFormat].
+    ///
+    /// By default, the maze is generated in memory, then written. Algorithms which are
+    /// [streaming-capable][Descriptor#streamingCapable()] write the maze while generating it,
+    /// without keeping it in memory.
+    ///
+    /// @param width     the width of the maze to generate
+    /// @param height    the height of the maze to generate
+    /// @param endpoints the start and end vertices of the maze to generate; if `null`, the endpoints will be set to default.
+    /// @param seed      an optional seed for the RNG; a `null` value will generate a seed randomly.
+    /// @param output    the stream to write the maze into; it is not closed
+    /// @throws MazeSerializationException when the maze failed to be written
+    /// @throws IllegalArgumentException when the dimensions are invalid
+    default void generateTo(int width, int height, Endpoints endpoints, Long seed, OutputStream output)
+            throws MazeSerializationException {
+        CompactMazeFormat.write(generate(width, height, endpoints, seed).maze(), output);
+    }
+
+    /// Returns the setting the user can change before generating a maze with this algorithm, if it has one.
+    ///
+    /// @return the setting of this algorithm, with its current value as default; empty by default
+    default Optional<Setting> setting() {
+        return Optional.empty();
+    }
+
+    /// Returns a copy of this algorithm using another value for its [setting][#setting()].
+    ///
+    /// @param value the new value of the setting, within its bounds
+    /// @return the algorithm using the new value
+    /// @throws UnsupportedOperationException when the algorithm has no setting
+    /// @throws IllegalArgumentException when the value is out of the bounds of the setting
+    default MazeGenerationAlgorithm withSetting(int value) {
+        throw new UnsupportedOperationException("The " + descriptor().id() + " algorithm has no setting.");
+    }
+
+    /// A whole number the user can choose to change how an algorithm generates mazes.
+    ///
+    /// @param displayName  the name shown to the user (e.g. `% Couloirs`)
+    /// @param min          the lowest value
+    /// @param max          the highest value
+    /// @param defaultValue the value used when the user doesn't change it
+    /// @param step         how much the value goes up or down with each click of the user
+    public record Setting(String displayName, int min, int max, int defaultValue, int step) {
+        /// Makes a new [Setting] with the given name and bounds.
+        ///
+        /// @param displayName  the name shown to the user
+        /// @param min          the lowest value
+        /// @param max          the highest value
+        /// @param defaultValue the value used when the user doesn't change it
+        /// @param step         how much the value goes up or down with each click of the user
+        /// @throws IllegalArgumentException when the name is blank, the bounds are reversed, the default value
+        ///                                  is out of bounds, or the step isn't positive
+        public Setting {
+            if (displayName == null || displayName.isBlank()) {
+                throw new IllegalArgumentException("displayName cannot be blank");
+            }
+            if (min > max || defaultValue < min || defaultValue > max) {
+                throw new IllegalArgumentException("defaultValue must be in [" + min + ", " + max + "] (got "
+                        + defaultValue + ")");
+            }
+            if (step <= 0) {
+                throw new IllegalArgumentException("step must be positive (got " + step + ")");
+            }
+        }
+    }
+
+    /// Describes a maze generation algorithm: how to identify it, and what it's capable of.
+    ///
+    /// @param id                 a unique identifier for the algorithm, used by the console and benchmark apps
+    ///                           (e.g. `prim`)
+    /// @param displayName        the name shown to the user (e.g. `Prim`)
+    /// @param supportsLogging    true when the generation log contains every step of the algorithm,
+    ///                           so it can be shown step-by-step
+    /// @param parallelCapable    true when the algorithm can use multiple threads to generate large mazes
+    /// @param streamingCapable   true when the algorithm can write huge mazes to a file without keeping
+    ///                           them in memory
+    /// @param maxRecommendedSize the maximum recommended width and height for this algorithm;
+    ///                           larger mazes can be generated but will be slow
+    public record Descriptor(String id,
+                             String displayName,
+                             boolean supportsLogging,
+                             boolean parallelCapable,
+                             boolean streamingCapable,
+                             int maxRecommendedSize) {
+        /// Makes a new [Descriptor] with the given name and capabilities.
+        ///
+        /// @param id                 a unique identifier for the algorithm
+        /// @param displayName        the name shown to the user
+        /// @param supportsLogging    true when the generation log contains every step of the algorithm
+        /// @param parallelCapable    true when the algorithm can use multiple threads
+        /// @param streamingCapable   true when the algorithm can write huge mazes to a file
+        /// @param maxRecommendedSize the maximum recommended width and height for this algorithm
+        /// @throws IllegalArgumentException when the id or display name is blank, or when the size is < 2
+        public Descriptor {
+            if (id == null || id.isBlank()) {
+                throw new IllegalArgumentException("id cannot be blank");
+            }
+            if (displayName == null || displayName.isBlank()) {
+                throw new IllegalArgumentException("displayName cannot be blank");
+            }
+            if (maxRecommendedSize < 2) {
+                throw new IllegalArgumentException("maxRecommendedSize must be >= 2 (got " + maxRecommendedSize + ")");
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package fr.connexe.algo.generation;
+
+import fr.connexe.algo.AlgorithmRegistry;
+
+import java.util.List;
+import java.util.Optional;
+
+/// Registry of all [maze generation algorithms][MazeGenerationAlgorithm] available in the app.
+///
+/// Algorithms are discovered using [java.util.ServiceLoader], from the `provides` declarations in
+/// `module-info.java`. They're listed in the same order as declared there.
+public class MazeGenerationAlgorithms {
+    private static final AlgorithmRegistry<MazeGenerationAlgorithm> REGISTRY =
+            new AlgorithmRegistry<>(MazeGenerationAlgorithm.class, a -> a.descriptor().id(), "generation");
+
+    // No need to instantiate this!
+    private MazeGenerationAlgorithms() {}
+
+    /// Returns all available generation algorithms.
+    ///
+    /// @return an unmodifiable list of all algorithms, in their declaration order
+    /// @throws IllegalStateException when two algorithms have the same id
+    public static List<MazeGenerationAlgorithm> all() {
+        return REGISTRY.all();
+    }
+
+    /// Finds a generation algorithm using its id, ignoring case.
+    ///
+    /// @param id the id of the algorithm to find (e.g. `prim`)
+    /// @return the algorithm with this id, or an empty [Optional] if there's none
+    public static Optional<MazeGenerationAlgorithm> find(String id) {
+        return REGISTRY.find(id);
+    }
+}
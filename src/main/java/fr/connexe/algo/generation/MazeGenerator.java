@@ -1,10 +1,18 @@
 package fr.connexe.algo.generation;
 
+import fr.connexe.algo.CompactMazeFormat;
+import fr.connexe.algo.ComponentIndex;
 import fr.connexe.algo.GraphMaze;
+import fr.connexe.algo.InvalidVertexException;
+import fr.connexe.algo.MazeSerializationException;
 import fr.connexe.algo.MazeSolver;
 import fr.connexe.algo.Point;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.List;
 
 /// Generates mazes (perfect and not perfect) using various algorithms.
@@ -188,6 +196,529 @@ public class MazeGenerator {
         }
     }
 
+    /// Generates a **perfect maze** randomly, using the growing tree algorithm, with default endpoints.
+    ///
+    /// @param width    the width of the maze to generate
+    /// @param height   the height of the maze to generate
+    /// @param selector the strategy choosing which cell to grow next; see [CellSelector]
+    /// @param seed     an optional seed for the RNG; a `null` value will generate a seed randomly.
+    /// @return the generated perfect maze and its log, inside a [MazeGenResult]
+    /// @see #makeGrowingTree(int, int, Endpoints, CellSelector, Long)
+    public static MazeGenResult makeGrowingTree(int width, int height, CellSelector selector, Long seed) {
+        return makeGrowingTree(width, height, null, selector, seed);
+    }
+
+    /// Generates a **perfect maze** randomly, using the growing tree algorithm.
+    ///
+    /// The algorithm keeps an **active list** of cells, beginning with the first cell. Then, until the list is empty:
+    /// 1. The [CellSelector] chooses a cell from the active list.
+    /// 2. If the cell has unvisited neighbors, one of them is connected to it, and added to the active list.
+    /// 3. Otherwise, the cell is removed from the active list.
+    ///
+    /// Depending on the selector, this algorithm can behave like a randomized DFS ([CellSelector#newest()]),
+    /// like Prim's algorithm ([CellSelector#random()]), or anything in between
+    /// ([CellSelector#mix(double, double, double)]).
+    ///
+    /// @param width     the width of the maze to generate
+    /// @param height    the height of the maze to generate
+    /// @param endpoints the start and end vertices of the maze to generate; if `null`, the endpoints will be set to default.
+    /// @param selector  the strategy choosing which cell to grow next; see [CellSelector]
+    /// @param seed      an optional seed for the RNG; a `null` value will generate a seed randomly.
+    /// @return the generated perfect maze and its log, inside a [MazeGenResult]
+    public static MazeGenResult makeGrowingTree(int width, int height, Endpoints endpoints, CellSelector selector,
+                                                Long seed) {
+        if (selector == null) {
+            throw new IllegalArgumentException("selector cannot be null");
+        }
+
+        // Make the maze and generation log with the right dimensions.
+        checkDimensions(width, height);
+        var maze = new GraphMaze(width, height);
+        var log = new MazeGenLog(width, height);
+
+        // Apply the start and end vertices contained in "endpoints" if we have some.
+        // Otherwise, we're going to use the default: [first vertex, last vertex].
+        applyEndpoints(maze, log, endpoints);
+
+        // Create the random instance using the given seed (or none).
+        var random = seed != null ? new Random(seed) : new Random();
+
+        // Make the visited array, where visited[n] <=> n'th vertex is visited.
+        int numCells = maze.getNumCells();
+        var visited = new boolean[numCells];
+
+        // The active list, containing cells in [head, tail[, from oldest to newest when the selector needs order.
+        // Each cell is added only once, so the tail will never go past the end of the array.
+        var active = new int[numCells];
+        int head = 0;
+        int tail = 0;
+
+        // Buffer for unvisited neighbors of the current cell, so we don't allocate an array for each cell.
+        var candidates = new int[4];
+        boolean ordered = selector.needsOrder();
+
+        // Begin with the first cell.
+        visited[0] = true;
+        active[tail++] = 0;
+
+        while (tail > head) {
+            // Let the selector choose the cell to grow.
+            int index = head + selector.select(tail - head, random);
+            int cell = active[index];
+
+            // Find all unvisited neighbors of this cell.
+            int x = cell % width;
+            int y = cell / width;
+            int numCandidates = 0;
+            if (y > 0 && !visited[cell - width]) { candidates[numCandidates++] = cell - width; } // Up
+            if (x > 0 && !visited[cell - 1]) { candidates[numCandidates++] = cell - 1; } // Left
+            if (x < width - 1 && !visited[cell + 1]) { candidates[numCandidates++] = cell + 1; } // Right
+            if (y < height - 1 && !visited[cell + width]) { candidates[numCandidates++] = cell + width; } // Down
+
+            if (numCandidates > 0) {
+                // Connect a random unvisited neighbor, and add it to the active list.
+                int neighbor = candidates[random.nextInt(numCandidates)];
+                log.add(maze, new MazeGenEvent.Connect(cell, neighbor));
+                visited[neighbor] = true;
+                active[tail++] = neighbor;
+            } else if (index == tail - 1) {
+                // Dead end: remove the newest cell.
+                tail--;
+            } else if (index == head) {
+                // Dead end: remove the oldest cell.
+                head++;
+            } else if (!ordered) {
+                // Dead end in the middle of the list, and the order doesn't matter: replace it with the newest cell.
+                active[index] = active[--tail];
+            } else if (index - head < tail - 1 - index) {
+                // Dead end in the middle of the list, closer to the oldest cell: shift the older cells
+                // one slot towards the newest ones, so the list stays ordered for the next selections.
+                System.arraycopy(active, head, active, head + 1, index - head);
+                head++;
+            } else {
+                // Dead end in the middle of the list, closer to the newest cell: shift the newer cells instead.
+                System.arraycopy(active, index + 1, active, index, tail - 1 - index);
+                tail--;
+            }
+        }
+
+        return new MazeGenResult(maze, log);
+    }
+
+    /// Generates a **perfect maze** randomly, using the recursive division algorithm, with default endpoints.
+    ///
+    /// @param width  the width of the maze to generate
+    /// @param height the height of the maze to generate
+    /// @param seed   an optional seed for the RNG; a `null` value will generate a seed randomly.
+    /// @return the generated perfect maze and its log, inside a [MazeGenResult]
+    /// @see #makeRecursiveDivision(int, int, Endpoints, Long, boolean)
+    public static MazeGenResult makeRecursiveDivision(int width, int height, Long seed) {
+        return makeRecursiveDivision(width, height, null, seed);
+    }
+
+    /// Generates a **perfect maze** randomly, using the recursive division algorithm.
+    ///
+    /// Large mazes (at least [#PARALLEL_DIVISION_MIN_CELLS] cells) are divided in parallel.
+    ///
+    /// @param width     the width of the maze to generate
+    /// @param height    the height of the maze to generate
+    /// @param endpoints the start and end vertices of the maze to generate; if `null`, the endpoints will be set to default.
+    /// @param seed      an optional seed for the RNG; a `null` value will generate a seed randomly.
+    /// @return the generated perfect maze and its log, inside a [MazeGenResult]
+    /// @see #makeRecursiveDivision(int, int, Endpoints, Long, boolean)
+    public static MazeGenResult makeRecursiveDivision(int width, int height, Endpoints endpoints, Long seed) {
+        boolean parallel = (long) width * height >= PARALLEL_DIVISION_MIN_CELLS;
+        return makeRecursiveDivision(width, height, endpoints, seed, parallel);
+    }
+
+    /// Generates a **perfect maze** randomly, using the recursive division algorithm.
+    ///
+    /// Unlike other algorithms, this one **adds walls** instead of removing them:
+    /// 1. The maze starts with no walls at all: one big chamber.
+    /// 2. A chamber is split in two by a wall with a single passage, horizontally or vertically.
+    /// 3. Both resulting chambers are split again, until they are only one cell wide.
+    ///
+    /// Chambers are processed using an explicit work stack, so there's no risk of stack overflow.
+    /// Since both halves of a chamber are independent, they can be divided **in parallel** on the
+    /// common [ForkJoinPool]. The generated maze and its log are the same whether `parallel` is enabled or not.
+    ///
+    /// The log begins with a [MazeGenEvent.ConnectAll] event, followed by [MazeGenEvent.Disconnect] events
+    /// for each added wall.
+    ///
+    /// @param width     the width of the maze to generate
+    /// @param height    the height of the maze to generate
+    /// @param endpoints the start and end vertices of the maze to generate; if `null`, the endpoints will be set to default.
+    /// @param seed      an optional seed for the RNG; a `null` value will generate a seed randomly.
+    /// @param parallel  true to divide large chambers in parallel using the common [ForkJoinPool]
+    /// @return the generated perfect maze and its log, inside a [MazeGenResult]
+    public static MazeGenResult makeRecursiveDivision(int width, int height, Endpoints endpoints, Long seed,
+                                                      boolean parallel) {
+        // Make the maze and generation log with the right dimensions.
+        checkDimensions(width, height);
+        var maze = new GraphMaze(width, height);
+        var log = new MazeGenLog(width, height);
+
+        // Apply the start and end vertices contained in "endpoints" if we have some.
+        // Otherwise, we're going to use the default: [first vertex, last vertex].
+        applyEndpoints(maze, log, endpoints);
+
+        // Remove all walls in one go, we're going to add them back while dividing chambers.
+        log.add(maze, new MazeGenEvent.ConnectAll());
+
+        // Create the random instance using the given seed (or none).
+        // We're using a SplittableRandom so each chamber gets its own RNG, no matter the thread it runs on.
+        var random = seed != null ? new SplittableRandom(seed) : new SplittableRandom();
+
+        // The first chamber is... the entire maze!
+        var root = new Chamber(0, 0, width, height, random);
+
+        // Divide all chambers, and collect every Disconnect event in the right order.
+        // Dividing only computes the walls: the maze isn't changed yet, so tasks never write to it at the same time.
+        List<MazeGenEvent> events;
+        if (parallel) {
+            events = ForkJoinPool.commonPool().invoke(new DivisionTask(width, root));
+        } else {
+            events = new ArrayList<>();
+            divideChambers(width, root, events);
+        }
+
+        // Add all the walls to the maze from this thread, and put them in the log.
+        for (MazeGenEvent event : events) {
+            log.add(maze, event);
+        }
+
+        return new MazeGenResult(maze, log);
+    }
+
+    /// The minimum number of cells required for [#makeRecursiveDivision(int, int, Endpoints, Long)]
+    /// to divide chambers in parallel.
+    public static final int PARALLEL_DIVISION_MIN_CELLS = 512 * 512;
+
+    // Chambers smaller than this won't be divided in a separate fork-join task.
+    private static final int DIVISION_TASK_MIN_CELLS = 64 * 64;
+
+    // Divides a chamber and all its sub-chambers, using an explicit stack instead of recursion.
+    // All Disconnect events are added to "events" in depth-first order, without changing the maze.
+    private static void divideChambers(int mazeWidth, Chamber first, List<MazeGenEvent> events) {
+        // The work stack, containing all chambers left to divide.
+        var stack = new ArrayDeque<Chamber>();
+        stack.push(first);
+
+        while (!stack.isEmpty()) {
+            Chamber chamber = stack.pop();
+
+            // Divide the chamber in two halves, and divide them later on.
+            Chamber[] halves = divideChamber(mazeWidth, chamber, events);
+            if (halves != null) {
+                // Push the second half first, so the first half is divided first.
+                stack.push(halves[1]);
+                stack.push(halves[0]);
+            }
+        }
+    }
+
+    // Divides ONE chamber in two halves, separated by a wall with a single passage, added to "events".
+    // Returns both halves, or null if the chamber is too small to be divided.
+    private static Chamber[] divideChamber(int mazeWidth, Chamber c, List<MazeGenEvent> events) {
+        // A chamber which is one cell wide is just a corridor, nothing to divide.
+        if (c.width < 2 || c.height < 2) {
+            return null;
+        }
+
+        // Cut the chamber across its longest side, so we don't end up with very long corridors.
+        // When the chamber is a square, pick the orientation randomly.
+        boolean horizontal = c.height > c.width || (c.height == c.width && c.rng.nextBoolean());
+
+        Chamber first, second;
+        if (horizontal) {
+            // Put a horizontal wall below the row y+k-1, with a passage at a random column.
+            int k = 1 + c.rng.nextInt(c.height - 1);
+            int passage = c.x + c.rng.nextInt(c.width);
+            int row = c.y + k - 1;
+            for (int x = c.x; x < c.x + c.width; x++) {
+                if (x != passage) {
+                    // Add a wall between (x, row) and (x, row+1).
+                    int above = x + row * mazeWidth;
+                    events.add(new MazeGenEvent.Disconnect(above, above + mazeWidth));
+                }
+            }
+
+            // Make the two halves: above and below the wall. Each one gets its own RNG.
+            first = new Chamber(c.x, c.y, c.width, k, c.rng.split());
+            second = new Chamber(c.x, c.y + k, c.width, c.height - k, c.rng.split());
+        } else {
+            // Put a vertical wall to the right of the column x+k-1, with a passage at a random row.
+            int k = 1 + c.rng.nextInt(c.width - 1);
+            int passage = c.y + c.rng.nextInt(c.height);
+            int col = c.x + k - 1;
+            for (int y = c.y; y < c.y + c.height; y++) {
+                if (y != passage) {
+                    // Add a wall between (col, y) and (col+1, y).
+                    int left = col + y * mazeWidth;
+                    events.add(new MazeGenEvent.Disconnect(left, left + 1));
+                }
+            }
+
+            // Make the two halves: left and right of the wall. Each one gets its own RNG.
+            first = new Chamber(c.x, c.y, k, c.height, c.rng.split());
+            second = new Chamber(c.x + k, c.y, c.width - k, c.height, c.rng.split());
+        }
+
+        return new Chamber[]{first, second};
+    }
+
+    /// A rectangular area of the maze, with no walls inside, that's going to be divided by the recursive division
+    /// algorithm. Each chamber has its own RNG so the maze is the same no matter the order of division.
+    private record Chamber(int x, int y, int width, int height, SplittableRandom rng) {}
+
+    /// A fork-join task dividing a chamber and all its sub-chambers, returning all Disconnect events
+    /// in depth-first order.
+    ///
+    /// Tasks don't change the maze: the maze keeps shared state (its version, fingerprint and listeners)
+    /// which must only be updated from one thread. The walls are added once all tasks are done.
+    private static class DivisionTask extends RecursiveTask<List<MazeGenEvent>> {
+        private final int mazeWidth;
+        private final Chamber chamber;
+
+        DivisionTask(int mazeWidth, Chamber chamber) {
+            this.mazeWidth = mazeWidth;
+            this.chamber = chamber;
+        }
+
+        @Override
+        protected List<MazeGenEvent> compute() {
+            var events = new ArrayList<MazeGenEvent>();
+
+            // Small chamber: not worth splitting across threads, divide it sequentially.
+            if ((long) chamber.width * chamber.height < DIVISION_TASK_MIN_CELLS) {
+                divideChambers(mazeWidth, chamber, events);
+                return events;
+            }
+
+            // Large chamber: divide it once, then divide both halves in parallel.
+            Chamber[] halves = divideChamber(mazeWidth, chamber, events);
+            if (halves != null) {
+                var first = new DivisionTask(mazeWidth, halves[0]);
+                var second = new DivisionTask(mazeWidth, halves[1]);
+                invokeAll(first, second);
+
+                // Keep the same order as the sequential version: the first half, then the second one.
+                events.addAll(first.join());
+                events.addAll(second.join());
+            }
+            return events;
+        }
+    }
+
+    /// Generates a **perfect maze** randomly, using Eller's algorithm, with default endpoints.
+    ///
+    /// @param width  the width of the maze to generate
+    /// @param height the height of the maze to generate
+    /// @param seed   an optional seed for the RNG; a `null` value will generate a seed randomly.
+    /// @return the generated perfect maze and its log, inside a [MazeGenResult]
+    /// @see #makeEller(int, int, Endpoints, Long)
+    public static MazeGenResult makeEller(int width, int height, Long seed) {
+        return makeEller(width, height, null, seed);
+    }
+
+    /// Generates a **perfect maze** randomly, using Eller's algorithm.
+    ///
+    /// Eller's algorithm generates the maze **row by row**, only remembering which cells of the current row
+    /// are already connected together. See [#streamEller(int, int, Endpoints, Long, OutputStream)] to write
+    /// huge mazes directly into a file.
+    ///
+    /// Both methods generate the same maze with the same seed.
+    ///
+    /// @param width     the width of the maze to generate
+    /// @param height    the height of the maze to generate
+    /// @param endpoints the start and end vertices of the maze to generate; if `null`, the endpoints will be set to default.
+    /// @param seed      an optional seed for the RNG; a `null` value will generate a seed randomly.
+    /// @return the generated perfect maze and its log, inside a [MazeGenResult]
+    public static MazeGenResult makeEller(int width, int height, Endpoints endpoints, Long seed) {
+        // Make the maze and generation log with the right dimensions.
+        checkDimensions(width, height);
+        var maze = new GraphMaze(width, height);
+        var log = new MazeGenLog(width, height);
+
+        // Apply the start and end vertices contained in "endpoints" if we have some.
+        // Otherwise, we're going to use the default: [first vertex, last vertex].
+        applyEndpoints(maze, log, endpoints);
+
+        // Create the random instance using the given seed (or none).
+        var random = seed != null ? new Random(seed) : new Random();
+
+        // Connect the cells of each row as soon as they're generated.
+        try {
+            ellerRows(width, height, random, (y, cells) -> {
+                for (int x = 0; x < width; x++) {
+                    int v = x + y * width;
+                    if ((cells[x] & CompactMazeFormat.OPEN_RIGHT) != 0) {
+                        log.add(maze, new MazeGenEvent.Connect(v, v + 1));
+                    }
+                    if ((cells[x] & CompactMazeFormat.OPEN_DOWN) != 0) {
+                        log.add(maze, new MazeGenEvent.Connect(v, v + width));
+                    }
+                }
+            });
+        } catch (MazeSerializationException e) {
+            throw new AssertionError("Unreachable", e); // We're not writing anything!
+        }
+
+        return new MazeGenResult(maze, log);
+    }
+
+    /// Generates a **perfect maze** randomly using Eller's algorithm, and writes it **directly into a stream**,
+    /// using the [compact format][CompactMazeFormat], which can be loaded with [GraphMaze#load(InputStream)].
+    ///
+    /// The maze is never entirely in memory: only one row is kept at a time, so **memory usage doesn't depend
+    /// on the height** of the maze. This allows generating mazes larger than the available memory.
+    /// No generation log is made.
+    ///
+    /// To write into a [java.nio.channels.FileChannel], use [java.nio.channels.Channels#newOutputStream].
+    ///
+    /// @param width     the width of the maze to generate
+    /// @param height    the height of the maze to generate
+    /// @param endpoints the start and end vertices of the maze to generate; if `null`, the endpoints will be set to default.
+    /// @param seed      an optional seed for the RNG; a `null` value will generate a seed randomly.
+    /// @param output    the stream to write the maze into; it is not closed
+    /// @throws MazeSerializationException when the maze failed to be written
+    /// @throws InvalidVertexException when the endpoints are outside the maze
+    /// @see #makeEller(int, int, Endpoints, Long)
+    public static void streamEller(int width, int height, Endpoints endpoints, Long seed, OutputStream output)
+            throws MazeSerializationException {
+        checkDimensions(width, height);
+        int numCells = Math.multiplyExact(width, height);
+
+        // Find the endpoints, defaulting to [first vertex, last vertex], and check them since we have no GraphMaze.
+        if (endpoints == null) {
+            endpoints = new Endpoints(0, numCells - 1);
+        } else if (endpoints.startVertex() >= numCells || endpoints.endVertex() >= numCells) {
+            throw new InvalidVertexException("Endpoints are outside the maze: " + endpoints);
+        }
+
+        // Create the random instance using the given seed (or none).
+        var random = seed != null ? new Random(seed) : new Random();
+
+        // Write each row as soon as it's generated.
+        var writer = new CompactMazeFormat.Writer(output, width, height, endpoints.startVertex(), endpoints.endVertex());
+        ellerRows(width, height, random, (y, cells) -> writer.writeRow(cells));
+        writer.finish();
+    }
+
+    // Receives the rows generated by Eller's algorithm, one by one.
+    @FunctionalInterface
+    private interface EllerRowSink {
+        // Cells contain OPEN_RIGHT and OPEN_DOWN bits of CompactMazeFormat. The array is reused for the next row!
+        void accept(int y, byte[] cells) throws MazeSerializationException;
+    }
+
+    // The heart of Eller's algorithm: generates all rows of the maze, and gives them to the sink.
+    // Only uses O(width) memory.
+    private static void ellerRows(int width, int height, Random random, EllerRowSink sink)
+            throws MazeSerializationException {
+        // The set of each cell in the current row: two cells in the same set are connected together
+        // through the rows above. There are at most "width" sets in a row, so labels are in [0, width[.
+        var labels = new int[width];
+        // Union-find structure to merge sets while connecting cells of the same row.
+        var parent = new int[width];
+        // For each set: does it have a cell going down? How many cells are in the set, and which one
+        // goes down if we need one? (chosen randomly with reservoir sampling)
+        var hasDown = new boolean[width];
+        var count = new int[width];
+        var candidate = new int[width];
+        // The new label of each set in the next row.
+        var remap = new int[width];
+        // The generated cells of the current row.
+        var cells = new byte[width];
+
+        // The first row has one set per cell: nothing is connected yet.
+        for (int x = 0; x < width; x++) {
+            labels[x] = x;
+        }
+
+        for (int y = 0; y < height; y++) {
+            boolean lastRow = y == height - 1;
+
+            // Reset the state of each set.
+            for (int i = 0; i < width; i++) {
+                parent[i] = i;
+                hasDown[i] = false;
+                count[i] = 0;
+            }
+            Arrays.fill(cells, (byte) 0);
+
+            // Randomly connect adjacent cells of different sets, merging them.
+            // On the last row, connect all of them, so all sets end up merged into one.
+            for (int x = 0; x < width - 1; x++) {
+                int a = findSet(parent, labels[x]);
+                int b = findSet(parent, labels[x + 1]);
+                if (a != b && (lastRow || random.nextBoolean())) {
+                    cells[x] |= CompactMazeFormat.OPEN_RIGHT;
+                    parent[b] = a;
+                }
+            }
+
+            if (!lastRow) {
+                // Randomly connect cells to the row below. Each set needs at least one cell going down,
+                // or it would be isolated from the rest of the maze!
+                for (int x = 0; x < width; x++) {
+                    int set = findSet(parent, labels[x]);
+                    labels[x] = set;
+
+                    // Pick a cell of the set uniformly, in case no cell goes down.
+                    count[set]++;
+                    if (random.nextInt(count[set]) == 0) {
+                        candidate[set] = x;
+                    }
+
+                    if (random.nextBoolean()) {
+                        cells[x] |= CompactMazeFormat.OPEN_DOWN;
+                        hasDown[set] = true;
+                    }
+                }
+                for (int x = 0; x < width; x++) {
+                    int set = labels[x];
+                    if (!hasDown[set] && candidate[set] == x) {
+                        cells[x] |= CompactMazeFormat.OPEN_DOWN;
+                    }
+                }
+            }
+
+            // The row is done!
+            sink.accept(y, cells);
+
+            if (!lastRow) {
+                // Make the labels of the next row: cells going down keep their set, others get a new one.
+                // Labels are renumbered from 0 so they stay within [0, width[.
+                Arrays.fill(remap, -1);
+                int nextLabel = 0;
+                for (int x = 0; x < width; x++) {
+                    if ((cells[x] & CompactMazeFormat.OPEN_DOWN) != 0) {
+                        int set = labels[x];
+                        if (remap[set] == -1) {
+                            remap[set] = nextLabel++;
+                        }
+                        labels[x] = remap[set];
+                    }
+                }
+                for (int x = 0; x < width; x++) {
+                    if ((cells[x] & CompactMazeFormat.OPEN_DOWN) == 0) {
+                        labels[x] = nextLabel++;
+                    }
+                }
+            }
+        }
+    }
+
+    // Finds the representative of a set in a union-find structure, halving paths along the way.
+    private static int findSet(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
     /// Transforms a **perfect maze** into a **non-perfect maze** by randomly introducing chaos: some
     /// walls will appear, and some will be removed, randomly.
     ///
@@ -300,68 +831,110 @@ public class MazeGenerator {
         } while (!changedTheMaze || !isImperfect(maze)); // Repeat if the maze wasn't modified, or if it's imperfect.
     }
 
-    // Makes sure that the maze is indeed imperfect.
-    private static boolean isImperfect(GraphMaze maze) {
-        // First, see if graph is NOT connected. If it's not connected, then it's already imperfect.
-        boolean[] visited = new boolean[maze.getNumCells()];
-        dfsConnectedGraph(maze, visited, 0);
-        for (boolean b : visited) {
-            if (!b) {
-                // One vertex wasn't visited, so the graph is not connected: imperfect!
-                return true;
+    /// **Braids** a maze by removing some of its **dead ends**: cells with only one open side.
+    ///
+    /// Every dead end is found in a single scan of the maze. Then, a random `fraction` of them is removed, by
+    /// breaking a wall towards a **preferred neighbor**:
+    /// 1. a neighbor which is itself a dead end, so both dead ends are removed at once;
+    /// 2. otherwise, the neighbor with the fewest open sides, so we don't create large open areas.
+    ///
+    /// Each broken wall is added to the log as a [MazeGenEvent.Connect] event, so the generation can still be replayed.
+    ///
+    /// Runs in `O(cells)` time, with at most two `int`s per dead end as additional memory (the list of dead ends
+    /// grows while they're found).
+    ///
+    /// Walls are only removed, so any path from start to end is left untouched.
+    ///
+    /// @param result   the result from a previous generation, which will be braided
+    /// @param fraction the fraction of dead ends to remove (0.0 to 1.0); 1.0 removes all of them
+    /// @param seed     an optional seed for the RNG; a `null` value will generate a seed randomly.
+    public static void braid(MazeGenResult result, float fraction, Long seed) {
+        // Grab the maze and log from the result, so we can change them!
+        GraphMaze maze = result.maze();
+        MazeGenLog log = result.log();
+
+        // Make the Random instance based off the seed.
+        var random = seed != null ? new Random(seed) : new Random();
+
+        // Keep the fraction in a valid range.
+        fraction = Math.clamp(fraction, 0.0f, 1.0f);
+
+        // Find all dead ends in one scan. The array doubles its size when it's full,
+        // so it takes about as much memory as there are dead ends, not cells.
+        int[] deadEnds = new int[16];
+        int numDeadEnds = 0;
+        for (int v = 0; v < maze.getNumCells(); v++) {
+            if (maze.getDegree(v) == 1) {
+                if (numDeadEnds == deadEnds.length) {
+                    deadEnds = Arrays.copyOf(deadEnds, numDeadEnds * 2);
+                }
+                deadEnds[numDeadEnds++] = v;
             }
         }
 
-        // Reset the visited array for future use.
-        Arrays.fill(visited, false);
+        // Calculate how many dead ends we need to remove.
+        int toRemove = Math.round(fraction * numDeadEnds);
+
+        // Pick the dead ends to remove randomly, using a partial Fisher-Yates shuffle:
+        // the first "toRemove" elements of the array are shuffled, and that's all we need.
+        for (int i = 0; i < toRemove; i++) {
+            // Pick an index at random in [i, numDeadEnds[, and swap it with the i'th element.
+            int randomIdx = i + random.nextInt(numDeadEnds - i);
+            int deadEnd = deadEnds[randomIdx];
+            deadEnds[randomIdx] = deadEnds[i];
+            deadEnds[i] = deadEnd;
+
+            // This dead end might not be one anymore, if a previously removed dead end was its neighbor.
+            if (maze.getDegree(deadEnd) != 1) {
+                continue;
+            }
 
-        // Too bad: it's a connected graph! Let's find a cycle in it.
-        // We only have one connected component, so this DFS will traverse the entire graph for cycles.
-        return dfsCycles(maze, visited, new boolean[maze.getNumCells()], -1, 0);
+            // Find the neighbor we'd like to connect with, and break the wall between them!
+            int neighbor = preferredBraidNeighbor(maze, random, deadEnd);
+            if (neighbor != -1) {
+                log.add(maze, new MazeGenEvent.Connect(deadEnd, neighbor));
+            }
+        }
     }
 
-    // Determines if a graph is connected by filling in the "visited" array with boolean for every vertex.
-    // If there's one vertex that's not visited, then the graph is not connected.'
-    private static void dfsConnectedGraph(GraphMaze maze, boolean[] visited, int vertex) {
-        // Mark this vertex as visited.
-        visited[vertex] = true;
+    // Finds the best neighbor to connect a dead end with when braiding a maze. Returns -1 if there's none.
+    private static int preferredBraidNeighbor(GraphMaze maze, Random random, int deadEnd) {
+        int best = -1; // The best neighbor we've found so far
+        int bestDegree = Integer.MAX_VALUE; // The degree of the best neighbor
+        int ties = 0; // Number of neighbors with the same degree as the best one, for random tie-breaking
 
-        // Classic DFS traversal.
-        for (int adjacent : maze.getAdjacentVertices(vertex)) {
-            if (!visited[adjacent]) {
-                dfsConnectedGraph(maze, visited, adjacent);
+        for (int neighbor : neighbors(maze, deadEnd)) {
+            // Ignore the neighbor we're already connected to.
+            if (maze.isConnected(deadEnd, neighbor)) {
+                continue;
             }
-        }
-    }
 
-    // Returns true if there's a cycle in the maze.
-    private static boolean dfsCycles(GraphMaze maze, boolean[] visited, boolean[] inChain, int parent, int vertex) {
-        // Mark this vertex as visited.
-        visited[vertex] = true;
-        // Put it in the current "chain", i.e. the stack of visited vertices during a DFS traversal
-        inChain[vertex] = true;
-
-        for (int adjacent : maze.getAdjacentVertices(vertex)) {
-            if (!visited[adjacent]) {
-                // New vertex: visit it. If it found a cycle, end early.
-                boolean cycleFound = dfsCycles(maze, visited, inChain, vertex, adjacent);
-                if (cycleFound) {
-                    return true;
-                }
-            } else if (inChain[adjacent] && parent != adjacent) {
-                // This adjacent vertex is:
-                // - already visited
-                // - in the current chain (for example, vertex=2 and adjacent=3: 1 - 3 - 4 - 2)
-                // - not the previous vertex (remember that edges are undirected!)
-                //
-                // So... that's a CYCLE! Report it!
-                return true;
+            // Dead ends (degree 1) come first, then the neighbors with the least connections.
+            // Neighbors with a degree of 0 are completely walled off (imperfect mazes): they're the least
+            // interesting ones to connect, so put them last.
+            int degree = maze.getDegree(neighbor);
+            int rank = degree == 0 ? 5 : degree;
+
+            if (rank < bestDegree) {
+                // Found a better neighbor!
+                best = neighbor;
+                bestDegree = rank;
+                ties = 1;
+            } else if (rank == bestDegree && random.nextInt(++ties) == 0) {
+                // Same degree: replace it with a probability of 1/ties, so each tie has the same chance of winning.
+                best = neighbor;
             }
         }
 
-        // We're done visiting this vertex; remove it from the chain, and report that we've found no cycle.
-        inChain[vertex] = false;
-        return false;
+        return best;
+    }
+
+    // Makes sure that the maze is indeed imperfect.
+    private static boolean isImperfect(GraphMaze maze) {
+        // The maze is imperfect when it's NOT connected (some cells can't be reached), or when it has a cycle.
+        // Both are found by merging the cells of every edge into components, in one pass.
+        var components = new ComponentIndex(maze);
+        return components.getComponentCount() > 1 || components.hasCycles();
     }
 
     // Returns all the neighbors of a given vertex in a particular maze.
@@ -0,0 +1,22 @@
+package fr.connexe.algo.generation;
+
+/// Generates mazes using Prim's algorithm.
+///
+/// @see MazeGenerator#makePrim(int, int, Endpoints, Long)
+public class PrimAlgorithm implements MazeGenerationAlgorithm {
+    private static final Descriptor DESCRIPTOR =
+            new Descriptor("prim", "Prim", true, false, false, 300);
+
+    /// Makes a new [PrimAlgorithm] instance.
+    public PrimAlgorithm() {}
+
+    @Override
+    public Descriptor descriptor() {
+        return DESCRIPTOR;
+    }
+
+    @Override
+    public MazeGenResult generate(int width, int height, Endpoints endpoints, Long seed) {
+        return MazeGenerator.makePrim(width, height, endpoints, seed);
+    }
+}
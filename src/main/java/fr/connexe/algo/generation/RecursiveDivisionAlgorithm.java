@@ -0,0 +1,22 @@
+package fr.connexe.algo.generation;
+
+/// Generates mazes using the recursive division algorithm, in parallel for large mazes.
+///
+/// @see MazeGenerator#makeRecursiveDivision(int, int, Endpoints, Long)
+public class RecursiveDivisionAlgorithm implements MazeGenerationAlgorithm {
+    private static final Descriptor DESCRIPTOR =
+            new Descriptor("recursive-division", "Division récursive", true, true, false, 8000);
+
+    /// Makes a new [RecursiveDivisionAlgorithm] instance.
+    public RecursiveDivisionAlgorithm() {}
+
+    @Override
+    public Descriptor descriptor() {
+        return DESCRIPTOR;
+    }
+
+    @Override
+    public MazeGenResult generate(int width, int height, Endpoints endpoints, Long seed) {
+        return MazeGenerator.makeRecursiveDivision(width, height, endpoints, seed);
+    }
+}
@@ -0,0 +1,27 @@
+package fr.connexe.algo.solving;
+
+import fr.connexe.algo.GraphMaze;
+import fr.connexe.algo.MazeSolver;
+import fr.connexe.algo.SolveListener;
+
+/// Solves mazes using A* with the Manhattan distance, which always finds the shortest path.
+///
+/// @see MazeSolver#solveAStar(GraphMaze, SolveListener)
+public class AStarSolver implements MazeSolvingAlgorithm {
+    // Guided by the distance to the end, so it usually visits fewer cells than Dijkstra.
+    private static final Descriptor DESCRIPTOR =
+            new Descriptor("a-star", "A*", true, 2000);
+
+    /// Makes a new [AStarSolver] instance.
+    public AStarSolver() {}
+
+    @Override
+    public Descriptor descriptor() {
+        return DESCRIPTOR;
+    }
+
+    @Override
+    public int[] solve(GraphMaze maze, SolveListener listener) {
+        return MazeSolver.solveAStar(maze, listener);
+    }
+}
@@ -0,0 +1,27 @@
+package fr.connexe.algo.solving;
+
+import fr.connexe.algo.GraphMaze;
+import fr.connexe.algo.MazeSolver;
+import fr.connexe.algo.SolveListener;
+
+/// Solves mazes using two A* searches, from the start and from the end, which always finds the shortest path.
+///
+/// @see MazeSolver#solveBidirectionalAStar(GraphMaze, SolveListener)
+public class BidirectionalAStarSolver implements MazeSolvingAlgorithm {
+    // Expands fewer nodes than A* on mazes with cycles, where both searches meet halfway.
+    private static final Descriptor DESCRIPTOR =
+            new Descriptor("bidirectional-a-star", "A* bidirectionnel", true, 2000);
+
+    /// Makes a new [BidirectionalAStarSolver] instance.
+    public BidirectionalAStarSolver() {}
+
+    @Override
+    public Descriptor descriptor() {
+        return DESCRIPTOR;
+    }
+
+    @Override
+    public int[] solve(GraphMaze maze, SolveListener listener) {
+        return MazeSolver.solveBidirectionalAStar(maze, listener);
+    }
+}
@@ -0,0 +1,27 @@
+package fr.connexe.algo.solving;
+
+import fr.connexe.algo.GraphMaze;
+import fr.connexe.algo.MazeSolver;
+import fr.connexe.algo.SolveListener;
+
+/// Solves mazes using two BFS, from the start and from the end, which always finds the shortest path.
+///
+/// @see MazeSolver#solveBidirectionalBFS(GraphMaze, SolveListener)
+public class BidirectionalBFSSolver implements MazeSolvingAlgorithm {
+    // Expands about half as many nodes as a BFS on mazes with cycles, where both searches meet halfway.
+    private static final Descriptor DESCRIPTOR =
+            new Descriptor("bidirectional-bfs", "BFS bidirectionnel", true, 2000);
+
+    /// Makes a new [BidirectionalBFSSolver] instance.
+    public BidirectionalBFSSolver() {}
+
+    @Override
+    public Descriptor descriptor() {
+        return DESCRIPTOR;
+    }
+
+    @Override
+    public int[] solve(GraphMaze maze, SolveListener listener) {
+        return MazeSolver.solveBidirectionalBFS(maze, listener);
+    }
+}
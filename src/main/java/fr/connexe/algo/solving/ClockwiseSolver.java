@@ -0,0 +1,27 @@
+package fr.connexe.algo.solving;
+
+import fr.connexe.algo.GraphMaze;
+import fr.connexe.algo.MazeSolver;
+import fr.connexe.algo.SolveListener;
+
+/// Solves mazes by always trying the directions clockwise (up, right, down, left), going back on dead ends.
+///
+/// @see MazeSolver#solveClockwise(GraphMaze, SolveListener)
+public class ClockwiseSolver implements MazeSolvingAlgorithm {
+    // Iterative, with O(1) steps, but it may explore most of the maze before finding the end.
+    private static final Descriptor DESCRIPTOR =
+            new Descriptor("clockwise", "Méthode horaire", false, 4000);
+
+    /// Makes a new [ClockwiseSolver] instance.
+    public ClockwiseSolver() {}
+
+    @Override
+    public Descriptor descriptor() {
+        return DESCRIPTOR;
+    }
+
+    @Override
+    public int[] solve(GraphMaze maze, SolveListener listener) {
+        return MazeSolver.solveClockwise(maze, listener);
+    }
+}
@@ -0,0 +1,28 @@
+package fr.connexe.algo.solving;
+
+import fr.connexe.algo.GraphMaze;
+import fr.connexe.algo.MazeSolver;
+import fr.connexe.algo.SolveListener;
+
+/// Solves mazes using A* on the junctions of the maze, each corridor being a single edge.
+/// Always finds the shortest path.
+///
+/// @see MazeSolver#solveCorridorAStar(GraphMaze, SolveListener)
+public class CorridorAStarSolver implements MazeSolvingAlgorithm {
+    // The corridor graph is kept with the maze, so solving the same maze again is much faster.
+    private static final Descriptor DESCRIPTOR =
+            new Descriptor("corridor-a-star", "A* sur les carrefours", true, 2000);
+
+    /// Makes a new [CorridorAStarSolver] instance.
+    public CorridorAStarSolver() {}
+
+    @Override
+    public Descriptor descriptor() {
+        return DESCRIPTOR;
+    }
+
+    @Override
+    public int[] solve(GraphMaze maze, SolveListener listener) {
+        return MazeSolver.solveCorridorAStar(maze, listener);
+    }
+}
@@ -0,0 +1,27 @@
+package fr.connexe.algo.solving;
+
+import fr.connexe.algo.GraphMaze;
+import fr.connexe.algo.MazeSolver;
+import fr.connexe.algo.SolveListener;
+
+/// Solves mazes using a depth-first search, which returns the first path found.
+///
+/// @see MazeSolver#solveDFS(GraphMaze, SolveListener)
+public class DFSSolver implements MazeSolvingAlgorithm {
+    // Iterative, so it works on any maze that fits in memory.
+    private static final Descriptor DESCRIPTOR =
+            new Descriptor("dfs", "Depth-first search", false, 4000);
+
+    /// Makes a new [DFSSolver] instance.
+    public DFSSolver() {}
+
+    @Override
+    public Descriptor descriptor() {
+        return DESCRIPTOR;
+    }
+
+    @Override
+    public int[] solve(GraphMaze maze, SolveListener listener) {
+        return MazeSolver.solveDFS(maze, listener);
+    }
+}
@@ -0,0 +1,28 @@
+package fr.connexe.algo.solving;
+
+import fr.connexe.algo.GraphMaze;
+import fr.connexe.algo.MazeSolver;
+import fr.connexe.algo.SolveListener;
+
+/// Solves mazes by filling their dead ends, then searching the cells left with a BFS.
+/// Always finds the shortest path.
+///
+/// @see MazeSolver#solveDeadEndFilling(GraphMaze, SolveListener)
+public class DeadEndFillingSolver implements MazeSolvingAlgorithm {
+    // Filling goes through every cell once, but only the cells left are searched.
+    private static final Descriptor DESCRIPTOR =
+            new Descriptor("dead-end-filling", "Remplissage des impasses", true, 2000);
+
+    /// Makes a new [DeadEndFillingSolver] instance.
+    public DeadEndFillingSolver() {}
+
+    @Override
+    public Descriptor descriptor() {
+        return DESCRIPTOR;
+    }
+
+    @Override
+    public int[] solve(GraphMaze maze, SolveListener listener) {
+        return MazeSolver.solveDeadEndFilling(maze, listener);
+    }
+}
@@ -0,0 +1,27 @@
+package fr.connexe.algo.solving;
+
+import fr.connexe.algo.GraphMaze;
+import fr.connexe.algo.MazeSolver;
+import fr.connexe.algo.SolveListener;
+
+/// Solves mazes using Dijkstra's algorithm, which always finds the shortest path.
+///
+/// @see MazeSolver#solveDijkstra(GraphMaze, SolveListener)
+public class DijkstraSolver implements MazeSolvingAlgorithm {
+    // Every edge has the same weight, so this explores the maze like a BFS.
+    private static final Descriptor DESCRIPTOR =
+            new Descriptor("dijkstra", "Dijkstra", true, 2000);
+
+    /// Makes a new [DijkstraSolver] instance.
+    public DijkstraSolver() {}
+
+    @Override
+    public Descriptor descriptor() {
+        return DESCRIPTOR;
+    }
+
+    @Override
+    public int[] solve(GraphMaze maze, SolveListener listener) {
+        return MazeSolver.solveDijkstra(maze, listener);
+    }
+}
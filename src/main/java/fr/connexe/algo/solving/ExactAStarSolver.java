@@ -0,0 +1,31 @@
+package fr.connexe.algo.solving;
+
+import fr.connexe.algo.DistanceField;
+import fr.connexe.algo.GraphMaze;
+import fr.connexe.algo.MazeSolver;
+import fr.connexe.algo.SolveListener;
+
+/// Solves mazes using A* with the exact distance to the end as the heuristic, which always finds the shortest path.
+///
+/// The distances come from the [distance field][DistanceField#of(GraphMaze, int)] of the end, which is measured
+/// the first time and then kept until the maze changes. Only cells of a shortest path are explored.
+///
+/// @see MazeSolver#solveAStar(GraphMaze, DistanceField, SolveListener)
+public class ExactAStarSolver implements MazeSolvingAlgorithm {
+    // Measuring the distance field goes through the whole maze, as fast as a BFS.
+    private static final Descriptor DESCRIPTOR =
+            new Descriptor("exact-a-star", "A* (distance exacte)", true, 2000);
+
+    /// Makes a new [ExactAStarSolver] instance.
+    public ExactAStarSolver() {}
+
+    @Override
+    public Descriptor descriptor() {
+        return DESCRIPTOR;
+    }
+
+    @Override
+    public int[] solve(GraphMaze maze, SolveListener listener) {
+        return MazeSolver.solveAStar(maze, DistanceField.of(maze, maze.getEnd()), listener);
+    }
+}
@@ -0,0 +1,27 @@
+package fr.connexe.algo.solving;
+
+import fr.connexe.algo.GraphMaze;
+import fr.connexe.algo.MazeSolver;
+import fr.connexe.algo.SolveListener;
+
+/// Solves mazes using Jump Point Search, which always finds the shortest path.
+///
+/// @see MazeSolver#solveJPS(GraphMaze, SolveListener)
+public class JumpPointSolver implements MazeSolvingAlgorithm {
+    // Only jump points are visited, so the animation skips whole corridors.
+    private static final Descriptor DESCRIPTOR =
+            new Descriptor("jps", "Jump Point Search", true, 2000);
+
+    /// Makes a new [JumpPointSolver] instance.
+    public JumpPointSolver() {}
+
+    @Override
+    public Descriptor descriptor() {
+        return DESCRIPTOR;
+    }
+
+    @Override
+    public int[] solve(GraphMaze maze, SolveListener listener) {
+        return MazeSolver.solveJPS(maze, listener);
+    }
+}
@@ -0,0 +1,27 @@
+package fr.connexe.algo.solving;
+
+import fr.connexe.algo.GraphMaze;
+import fr.connexe.algo.MazeSolver;
+import fr.connexe.algo.SolveListener;
+
+/// Solves mazes by following the wall on the left, going back on dead ends.
+///
+/// @see MazeSolver#solveLeftHand(GraphMaze, SolveListener)
+public class LeftHandSolver implements MazeSolvingAlgorithm {
+    // Iterative, with O(1) steps, but it may explore most of the maze before finding the end.
+    private static final Descriptor DESCRIPTOR =
+            new Descriptor("left-hand", "Méthode de la main gauche", false, 4000);
+
+    /// Makes a new [LeftHandSolver] instance.
+    public LeftHandSolver() {}
+
+    @Override
+    public Descriptor descriptor() {
+        return DESCRIPTOR;
+    }
+
+    @Override
+    public int[] solve(GraphMaze maze, SolveListener listener) {
+        return MazeSolver.solveLeftHand(maze, listener);
+    }
+}
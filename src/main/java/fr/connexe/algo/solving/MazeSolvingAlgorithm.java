@@ -0,0 +1,83 @@
+package fr.connexe.algo.solving;
+
+import fr.connexe.algo.GraphMaze;
+import fr.connexe.algo.SolveListener;
+import fr.connexe.algo.SolveTrace;
+
+/// A maze-solving algorithm, which can be discovered by the [MazeSolvingAlgorithms] registry.
+///
+/// Algorithms tell every step they take to a [SolveListener] **as they happen**, so the caller can show
+/// them right away, cancel the search, or ignore them entirely when only the path matters.
+///
+/// Implementations are **service providers** registered in `module-info.java`, using:
+/// ```java
+/// provides fr.connexe.algo.solving.MazeSolvingAlgorithm with MySolver;
+/// ```
+///
+/// They must have a public constructor with no arguments, so [java.util.ServiceLoader] can create them.
+/// Once registered, the algorithm is available in the GUI and the console app.
+///
+/// @see MazeSolvingAlgorithms
+public interface MazeSolvingAlgorithm {
+    /// Returns the descriptor of this algorithm, with its name and capabilities.
+    ///
+    /// @return the descriptor of this algorithm
+    Descriptor descriptor();
+
+    /// Solves the maze, telling every step of the algorithm to the listener, and then the path found.
+    ///
+    /// @param maze     the maze to solve, with its start and end vertices
+    /// @param listener receives the steps of the algorithm as they happen
+    /// @return the vertices of the path from start to end; empty when there's no path
+    /// @throws java.util.concurrent.CancellationException when the listener cancelled the search
+    int[] solve(GraphMaze maze, SolveListener listener);
+
+    /// Solves the maze, and only returns the path found.
+    ///
+    /// @param maze the maze to solve, with its start and end vertices
+    /// @return the vertices of the path from start to end; empty when there's no path
+    default int[] solve(GraphMaze maze) {
+        return solve(maze, SolveListener.NONE);
+    }
+
+    /// Solves the maze, and returns all steps of the algorithm with the path found.
+    ///
+    /// @param maze the maze to solve, with its start and end vertices
+    /// @return the trace of the algorithm
+    default SolveTrace trace(GraphMaze maze) {
+        var recorder = new SolveTrace.Recorder();
+        int[] path = solve(maze, recorder);
+        return recorder.finish(path);
+    }
+
+    /// Describes a maze-solving algorithm: how to identify it, and what it's capable of.
+    ///
+    /// @param id                 a unique identifier for the algorithm, used by the console app (e.g. `dijkstra`)
+    /// @param displayName        the name shown to the user (e.g. `Dijkstra`)
+    /// @param shortestPath       true when the path found is always the shortest one
+    /// @param maxRecommendedSize the maximum recommended width and height for this algorithm;
+    ///                           larger mazes can be solved but will be slow
+    public record Descriptor(String id,
+                             String displayName,
+                             boolean shortestPath,
+                             int maxRecommendedSize) {
+        /// Makes a new [Descriptor] with the given name and capabilities.
+        ///
+        /// @param id                 a unique identifier for the algorithm
+        /// @param displayName        the name shown to the user
+        /// @param shortestPath       true when the path found is always the shortest one
+        /// @param maxRecommendedSize the maximum recommended width and height for this algorithm
+        /// @throws IllegalArgumentException when the id or display name is blank, or when the size is < 2
+        public Descriptor {
+            if (id == null || id.isBlank()) {
+                throw new IllegalArgumentException("id cannot be blank");
+            }
+            if (displayName == null || displayName.isBlank()) {
+                throw new IllegalArgumentException("displayName cannot be blank");
+            }
+            if (maxRecommendedSize < 2) {
+                throw new IllegalArgumentException("maxRecommendedSize must be >= 2 (got " + maxRecommendedSize + ")");
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package fr.connexe.algo.solving;
+
+import fr.connexe.algo.AlgorithmRegistry;
+
+import java.util.List;
+import java.util.Optional;
+
+/// Registry of all [maze-solving algorithms][MazeSolvingAlgorithm] available in the app.
+///
+/// Algorithms are discovered using [java.util.ServiceLoader], from the `provides` declarations in
+/// `module-info.java`. They're listed in the same order as declared there.
+public class MazeSolvingAlgorithms {
+    private static final AlgorithmRegistry<MazeSolvingAlgorithm> REGISTRY =
+            new AlgorithmRegistry<>(MazeSolvingAlgorithm.class, a -> a.descriptor().id(), "solving");
+
+    // No need to instantiate this!
+    private MazeSolvingAlgorithms() {}
+
+    /// Returns all available solving algorithms.
+    ///
+    /// @return an unmodifiable list of all algorithms, in their declaration order
+    /// @throws IllegalStateException when two algorithms have the same id
+    public static List<MazeSolvingAlgorithm> all() {
+        return REGISTRY.all();
+    }
+
+    /// Finds a solving algorithm using its id, ignoring case.
+    ///
+    /// @param id the id of the algorithm to find (e.g. `dijkstra`)
+    /// @return the algorithm with this id, or an empty [Optional] if there's none
+    public static Optional<MazeSolvingAlgorithm> find(String id) {
+        return REGISTRY.find(id);
+    }
+}
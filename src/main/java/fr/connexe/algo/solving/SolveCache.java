@@ -0,0 +1,284 @@
+package fr.connexe.algo.solving;
+
+import fr.connexe.algo.GraphMaze;
+import fr.connexe.algo.SolveListener;
+import fr.connexe.algo.SolveTrace;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/// Remembers the results of the last solved mazes, so solving the same maze with the same algorithm again
+/// is instant.
+///
+/// Results are [traces][SolveTrace] with the path found, and how long the algorithm took. They're found
+/// using the [fingerprint][GraphMaze#fingerprint()] of the maze and the id of the algorithm, so a maze
+/// gets its results back after being edited and put back as it was, cloned, or loaded again from a file.
+///
+/// The cache keeps the most recently used results, up to [#MAX_ENTRIES] results and [#MAX_EVENTS] events
+/// in total: the least recently used ones are forgotten first. Traces larger than that aren't kept at all.
+/// When only the path is asked for, with [#solve(MazeSolvingAlgorithm, GraphMaze, SolveListener)], steps
+/// aren't recorded past [#MAX_EVENTS], and only the path is kept when the trace is missing.
+///
+/// Solving algorithms are expected to always give the same result for the same maze.
+public final class SolveCache {
+    /// The maximum number of results kept in the cache.
+    public static final int MAX_ENTRIES = 64;
+    /// The maximum number of events and path vertices kept in the cache, for all results. (4 bytes each)
+    public static final int MAX_EVENTS = 8_000_000;
+
+    // The results, from the least recently used to the most recently used.
+    private static final LinkedHashMap<Key, Result> results = new LinkedHashMap<>(16, 0.75f, true);
+    // The number of events and path vertices in all results.
+    private static long totalEvents = 0;
+
+    // No need to instantiate this!
+    private SolveCache() {}
+
+    /// The result of a solving algorithm on a maze.
+    ///
+    /// @param trace     all steps of the algorithm, and the path found
+    /// @param solveTime the time the algorithm took to solve the maze the first time, in nanoseconds
+    /// @param cached    true when the result came from the cache, without solving the maze again
+    public record Result(SolveTrace trace, long solveTime, boolean cached) {}
+
+    // Identifies a maze and an algorithm. The size makes collisions of fingerprints even less likely.
+    // Results with all steps and results with only the path (no events) have different keys.
+    private record Key(long fingerprint, int width, int height, String algorithmId, boolean steps) {
+        Key(GraphMaze maze, MazeSolvingAlgorithm algorithm, boolean steps) {
+            this(maze.fingerprint(), maze.getWidth(), maze.getHeight(), algorithm.descriptor().id(), steps);
+        }
+    }
+
+    /// Solves the maze with the algorithm, and returns all of its steps, unless the result is already in the cache.
+    ///
+    /// @param algorithm the solving algorithm
+    /// @param maze      the maze to solve, with its start and end vertices
+    /// @return the result of the algorithm, from the cache or not
+    public static Result trace(MazeSolvingAlgorithm algorithm, GraphMaze maze) {
+        return trace(algorithm, maze, SolveListener.NONE);
+    }
+
+    /// Solves the maze with the algorithm, telling every step to the listener, and returns all of its steps.
+    ///
+    /// When the result is already in the cache, its steps are replayed to the listener instead.
+    ///
+    /// @param algorithm the solving algorithm
+    /// @param maze      the maze to solve, with its start and end vertices
+    /// @param listener  receives the steps of the algorithm, and can cancel it
+    /// @return the result of the algorithm, from the cache or not
+    /// @throws CancellationException when the listener cancelled the search
+    public static Result trace(MazeSolvingAlgorithm algorithm, GraphMaze maze, SolveListener listener) {
+        var key = new Key(maze, algorithm, true);
+        Result found = replay(key, listener);
+        if (found != null) {
+            return found;
+        }
+
+        // Not found: solve the maze without holding the lock, so other threads can use the cache meanwhile.
+        var recorder = new Recorder(listener, Long.MAX_VALUE);
+        long startTime = System.nanoTime();
+        int[] path = algorithm.solve(maze, recorder);
+        long solveTime = System.nanoTime() - startTime;
+
+        var result = new Result(recorder.finish(path), solveTime, false);
+        put(key, result);
+        return result;
+    }
+
+    /// Solves the maze with the algorithm, telling every step to the listener, and returns the path found.
+    ///
+    /// When the result is already in the cache, its steps are replayed to the listener instead.
+    /// Steps aren't recorded when the listener is [SolveListener#NONE], and stop being recorded past
+    /// [#MAX_EVENTS]: only the path is kept then, and it's only reused by calls without a listener.
+    ///
+    /// @param algorithm the solving algorithm
+    /// @param maze      the maze to solve, with its start and end vertices
+    /// @param listener  receives the steps of the algorithm, and can cancel it
+    /// @return the vertices of the path from start to end; empty when there's no path
+    /// @throws CancellationException when the listener cancelled the search
+    public static int[] solve(MazeSolvingAlgorithm algorithm, GraphMaze maze, SolveListener listener) {
+        var key = new Key(maze, algorithm, true);
+        Result found = replay(key, listener);
+        if (found != null) {
+            return found.trace().getPath();
+        }
+
+        var pathKey = new Key(maze, algorithm, false);
+        if (listener == SolveListener.NONE) {
+            // Nobody listens to the steps: the path alone is enough.
+            synchronized (SolveCache.class) {
+                found = results.get(pathKey);
+            }
+            if (found != null) {
+                return found.trace().getPath();
+            }
+        }
+
+        // Record the steps so they can be replayed later, unless nobody listens to them,
+        // or there are too many of them to be kept anyway.
+        Recorder recorder = listener == SolveListener.NONE ? null : new Recorder(listener, MAX_EVENTS);
+        long startTime = System.nanoTime();
+        int[] path = algorithm.solve(maze, recorder != null ? recorder : listener);
+        long solveTime = System.nanoTime() - startTime;
+
+        if (recorder != null && recorder.isComplete()) {
+            put(key, new Result(recorder.finish(path), solveTime, false));
+        } else {
+            put(pathKey, new Result(new SolveTrace.Recorder().finish(path), solveTime, false));
+        }
+        return path;
+    }
+
+    /// Forgets all results.
+    public static synchronized void clear() {
+        results.clear();
+        totalEvents = 0;
+    }
+
+    /// Returns the number of results in the cache.
+    ///
+    /// @return the number of results
+    public static synchronized int size() {
+        return results.size();
+    }
+
+    // Adds a result, then forgets the least recently used ones until the cache is small enough.
+    private static synchronized void put(Key key, Result result) {
+        long events = weight(result);
+        if (events > MAX_EVENTS) {
+            return;
+        }
+
+        Result old = results.put(key, result);
+        if (old != null) {
+            totalEvents -= weight(old);
+        }
+        totalEvents += events;
+
+        Iterator<Result> eldest = results.values().iterator();
+        while (results.size() > MAX_ENTRIES || totalEvents > MAX_EVENTS) {
+            totalEvents -= weight(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    // The number of ints a result takes.
+    private static long weight(Result result) {
+        return (long) result.trace().size() + result.trace().pathLength();
+    }
+
+    // Finds the result with all steps in the cache, and replays them to the listener. Returns null when not found.
+    private static Result replay(Key key, SolveListener listener) {
+        Result found;
+        synchronized (SolveCache.class) {
+            found = results.get(key);
+        }
+        if (found == null) {
+            return null;
+        }
+
+        replay(found.trace(), listener);
+        return new Result(found.trace(), found.solveTime(), true);
+    }
+
+    // Tells all events of a trace to the listener, in chronological order.
+    private static void replay(SolveTrace trace, SolveListener listener) {
+        if (listener == SolveListener.NONE) {
+            return;
+        }
+
+        SolveTrace.Cursor cursor = trace.cursor();
+        while (cursor.next()) {
+            listener.checkCancelled();
+
+            int vertex = cursor.vertex();
+            switch (cursor.kind()) {
+                case VISIT -> listener.onVisit(vertex);
+                case BACKTRACK -> listener.onBacktrack(vertex);
+                case BLOCK -> listener.onBlock(vertex);
+                case VISIT_FROM_END -> listener.onVisitFromEnd(vertex);
+            }
+        }
+        listener.onPath(trace.getPath());
+    }
+
+    // Records the steps of the algorithm, while telling them to another listener.
+    // Stops recording once there are more steps than the limit, but keeps telling them.
+    private static final class Recorder implements SolveListener {
+        private SolveTrace.Recorder recorder = new SolveTrace.Recorder(); // null when past the limit
+        private final SolveListener listener;
+        private final long limit;
+        private long events = 0;
+
+        Recorder(SolveListener listener, long limit) {
+            this.listener = listener;
+            this.limit = limit;
+        }
+
+        // True when all steps were recorded.
+        boolean isComplete() {
+            return recorder != null;
+        }
+
+        SolveTrace finish(int[] path) {
+            assert recorder != null : "Cannot finish a trace which went past the limit";
+            return recorder.finish(path);
+        }
+
+        // Gives the recorder for one more step, or null when the limit is reached.
+        private SolveTrace.Recorder next() {
+            if (recorder != null && ++events > limit) {
+                recorder = null; // Too many steps: forget them all.
+            }
+            return recorder;
+        }
+
+        @Override
+        public void onVisit(int vertex) {
+            SolveTrace.Recorder target = next();
+            if (target != null) {
+                target.onVisit(vertex);
+            }
+            listener.onVisit(vertex);
+        }
+
+        @Override
+        public void onVisitFromEnd(int vertex) {
+            SolveTrace.Recorder target = next();
+            if (target != null) {
+                target.onVisitFromEnd(vertex);
+            }
+            listener.onVisitFromEnd(vertex);
+        }
+
+        @Override
+        public void onBacktrack(int vertex) {
+            SolveTrace.Recorder target = next();
+            if (target != null) {
+                target.onBacktrack(vertex);
+            }
+            listener.onBacktrack(vertex);
+        }
+
+        @Override
+        public void onBlock(int vertex) {
+            SolveTrace.Recorder target = next();
+            if (target != null) {
+                target.onBlock(vertex);
+            }
+            listener.onBlock(vertex);
+        }
+
+        @Override
+        public void onPath(int[] path) {
+            listener.onPath(path);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return listener.isCancelled();
+        }
+    }
+}
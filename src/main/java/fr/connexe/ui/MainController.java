@@ -210,17 +210,17 @@ public class MainController {
 
     /// Enables the maze editor mode. Content moved in setMazeEditor() for better reusability
     public void handleChange() {
-        setMazeEditor(true);
         // Remove the generation log since the maze will change and disable the generation animation button
         mazeController.getMazeRenderer().setLog(null);
         genButton.setDisable(true);
         solveButton.setDisable(true); // Disable solving animation button
 
         // Remove the previous step by step path
-        mazeController.setStepByStepPath(null);
+        mazeController.setSolveTrace(null);
 
-        // Remove colors done by the solving algorithm
+        // Remove colors done by the solving algorithm, before the editor shows the shortest path
         mazeController.getMazeRenderer().clearGridColor();
+        setMazeEditor(true);
     }
 
     /// Enables the maze editor mode
@@ -252,10 +252,9 @@ public class MainController {
     private void handleSolve() throws IOException {
         setMazeEditor(false);
         if (mazeController.getMazeRenderer() != null) {
-            boolean okClicked = connexeApp.showSolveMazeDialog(mazeController);
-            if (okClicked) {
-                solveButton.setDisable(false); // Enable button to play solving animation
-            }
+            // The buttons are updated by the "solvingProperty" while the maze is being solved,
+            // see the "setMazeController" method for more details.
+            connexeApp.showSolveMazeDialog(mazeController);
         } else {
             showError("Aucun labyrinthe", "Veuillez créer/ouvrir un labyrinthe avant de le résoudre.");
         }
@@ -277,7 +276,7 @@ public class MainController {
             // Pass a dynamic delay supplier, so the renderer can query it during animation to change speed
             mazeController.playStepByStepGeneration(() -> (double) animationSpeed.get(), () -> {
                 genButton.setDisable(false); // re-enable button when animation is finished
-                if (mazeController.getStepByStepPath() != null) {
+                if (mazeController.getSolveTrace() != null) {
                     solveButton.setDisable(false); // re-enable solve button too if user already used a solving algorithm once
                 }
                 stopButton.setDisable(true); // animation is finished, disable stop button
@@ -294,7 +293,7 @@ public class MainController {
     @FXML
     private void handleSolveAnimation() {
         setMazeEditor(false);
-        if (mazeController.getMazeRenderer() != null && mazeController.getStepByStepPath() != null) {
+        if (mazeController.getMazeRenderer() != null && mazeController.getSolveTrace() != null) {
             // Disable buttons when playing animation to prevent unwanted behaviors
             genButton.setDisable(true);
             solveButton.setDisable(true);
@@ -328,7 +327,7 @@ public class MainController {
         if (mazeController.getMazeRenderer().getLog() != null) {
             genButton.setDisable(false); // re-enable generation animation button if maze was generated
         }
-        if (mazeController.getStepByStepPath() != null) {
+        if (mazeController.getSolveTrace() != null) {
             solveButton.setDisable(false); // re-enable solving animation button if maze was solved with one chosen algorithm
         }
         stopButton.setDisable(true); // disable stop button after the animation is stopped.
@@ -422,12 +421,26 @@ public class MainController {
                 genButton.setDisable(running);
             }
             // Change solving animation button status if maze was previously solved (if not, then it remains disabled regardless)
-            if (mazeController.getStepByStepPath() != null) {
+            if (mazeController.getSolveTrace() != null) {
                 solveButton.setDisable(running);
             }
 
             // Disable maze editing mode when we're launching or stopping a game.
             setMazeEditor(false);
         });
+
+        // While the maze is being solved, only allow stopping the algorithm, so the maze doesn't change meanwhile.
+        mazeController.solvingProperty().addListener((_, _, solving) -> {
+            changeMenuItem.setDisable(solving);
+            solveMenuItem.setDisable(solving);
+            stopButton.setDisable(!solving); // The stop button cancels the algorithm
+            arcadeButton.setDisable(solving);
+
+            // Animation buttons are enabled once done, if there's a generation log or a solution to play
+            genButton.setDisable(solving || mazeController.getMazeRenderer().getLog() == null);
+            solveButton.setDisable(solving || mazeController.getSolveTrace() == null);
+
+            setMazeEditor(false);
+        });
     }
 }
\ No newline at end of file
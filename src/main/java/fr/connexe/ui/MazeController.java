@@ -2,18 +2,22 @@ package fr.connexe.ui;
 
 import fr.connexe.algo.GraphMaze;
 import fr.connexe.algo.MazeSerializationException;
-import fr.connexe.algo.Point;
+import fr.connexe.algo.SolveListener;
+import fr.connexe.algo.SolveTrace;
+import fr.connexe.algo.solving.MazeSolvingAlgorithm;
+import fr.connexe.algo.solving.SolveCache;
 import fr.connexe.ui.game.GameStartConfig;
 import fr.connexe.ui.game.IncompatibleMazeException;
 import fr.connexe.ui.game.input.ControllerHub;
 import fr.connexe.ui.game.GameSession;
 import fr.connexe.ui.game.input.KeyboardHub;
 import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.layout.*;
 import org.jetbrains.annotations.Nullable;
@@ -29,8 +33,9 @@ import java.util.function.Supplier;
 public class MazeController {
     // --- Maze algorithms state ---
     private MazeRenderer mazeRenderer;
-    private List<Stack<Integer>> stepByStepPath;
-    private boolean isDFS; // necessary for solving animation method having a different behavior for DFS
+    private SolveTrace solveTrace;
+    private @Nullable Task<SolveCache.Result> solveTask; // The solving algorithm running in the background
+    private final BooleanProperty solving = new SimpleBooleanProperty(); // Indicates if the maze is being solved
 
     // --- Gaming state ---
     private KeyboardHub keyboardHub; // Receives keyboard input
@@ -88,26 +93,82 @@ public class MazeController {
         }
     }
 
-    /// Build the solution path of the selected algorithm in the [SolveMazeController]
-    /// Display the stats of the chosen solving algorithm
-    /// (solving algorithm execution time, number of cells in path, number of visited cells)
-    /// @param executionTime execution time of the solving method
-    public void buildSolutionPath(long executionTime){
-        GraphMaze maze = mazeRenderer.getGraphMaze();
+    /// Solves the maze in the background with the given algorithm, coloring the cells it visits as it goes.
+    ///
+    /// Once done, the solving trace is set and the solution path is shown, see [#buildSolutionPath(long)].
+    /// The algorithm can be stopped with [#cancelSolving()], and [#solvingProperty()] stays true until it's over.
+    /// The maze must not be edited meanwhile.
+    /// @param algorithm the solving algorithm to use
+    public void solveMaze(MazeSolvingAlgorithm algorithm) {
+        cancelSolving(); // Only one algorithm at a time
+        stopGame(); // Stop the ongoing game session if we're currently playing.
+        mazeRenderer.stopAnimation();
 
-        // Clear maze view beforehand
+        // Clear the previous solution, it will be replaced by this one
+        solveTrace = null;
+        statsContainer = null;
         mazeRenderer.clearGridColor();
         vboxLayout.getChildren().removeIf(node -> node instanceof VBox);
 
-        // Solution path must always be at the end of the step by step list
-        Stack<Integer> solutionPath = stepByStepPath.getLast();
+        GraphMaze maze = mazeRenderer.getGraphMaze();
+        Task<SolveCache.Result> task = new Task<>() {
+            // The listener colors the visited cells on the JavaFX thread, and stops the algorithm when cancelled.
+            private final SolveListener listener = mazeRenderer.liveSolution(this::isCancelled);
+
+            @Override
+            protected SolveCache.Result call() {
+                // The result is reused when the same maze was already solved with this algorithm;
+                // the execution time is then the one measured the first time.
+                return SolveCache.trace(algorithm, maze, listener);
+            }
+        };
+        task.setOnSucceeded(_ -> {
+            solveTrace = task.getValue().trace();
+            finishSolving(task);
+            buildSolutionPath(task.getValue().solveTime());
+            System.out.println("Solution path : " + Arrays.toString(solveTrace.getPath()));
+        });
+        task.setOnCancelled(_ -> finishSolving(task));
+        task.setOnFailed(_ -> {
+            finishSolving(task);
+            resetMaze();
+            // Report the error as if it was thrown by the JavaFX thread
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, task.getException());
+        });
+
+        solveTask = task;
+        solving.set(true);
 
-        // Color each cell of the solution path
-        for(int i : solutionPath) {
-            Point nodeCoordinates = maze.toPoint(i);
-            Node cell = mazeRenderer.getCellNode(nodeCoordinates);
-            mazeRenderer.setCellColor(cell, "cell-color-path");
+        Thread thread = new Thread(task, "maze-solving");
+        thread.setDaemon(true); // Don't prevent the app from closing
+        thread.start();
+    }
+
+    /// Stops the solving algorithm started by [#solveMaze(MazeSolvingAlgorithm)]. The cells it colored stay as they are.
+    /// Does nothing if no algorithm's running.
+    public void cancelSolving() {
+        if (solveTask != null) {
+            solveTask.cancel();
         }
+    }
+
+    // Forgets the solving task once it's over, unless another one already replaced it.
+    private void finishSolving(Task<SolveCache.Result> task) {
+        if (solveTask == task) {
+            solveTask = null;
+            solving.set(false);
+        }
+    }
+
+    /// Build the solution path of the selected algorithm in the [SolveMazeController]
+    /// Display the cells visited by the algorithm, and the stats of the chosen solving algorithm
+    /// (solving algorithm execution time, number of cells in path, number of visited cells)
+    /// @param executionTime execution time of the solving method
+    public void buildSolutionPath(long executionTime){
+        // Show the visited cells and the solution path, replacing the previous ones
+        mazeRenderer.finishStepByStepSolving(solveTrace);
+        vboxLayout.getChildren().removeIf(node -> node instanceof VBox);
 
         double executionTimeMs = executionTime / 1000000.0;
 
@@ -116,8 +177,8 @@ public class MazeController {
 
         // Display stats (solving algorithm execution time, number of cells in path, number of visited cells)
         Label timeLabel = new Label("Temps de résolution (algorithme seulement) : " + executionTimeMs + " Ms");
-        Label pathLength = new Label("Cases du chemin final : " + solutionPath.size());
-        Label visitedLength = new Label("Cases visitées : " + getUniqueVisitedNodeCount(stepByStepPath));
+        Label pathLength = new Label("Cases du chemin final : " + solveTrace.pathLength());
+        Label visitedLength = new Label("Cases visitées : " + solveTrace.countVisitedVertices());
         statsContainer.getChildren().addAll(timeLabel, pathLength, visitedLength);
         vboxLayout.getChildren().add(statsContainer);
     }
@@ -128,28 +189,30 @@ public class MazeController {
     /// @param onFinished piece of code to run later when the animation is finished.
     /// Used to re-enable buttons.
     public void playStepByStepSolution(Supplier<Double> delaySupplier, Runnable onFinished){
-        assert stepByStepPath != null : "StepByStepPath must be set before calling playStepByStepSolution()";
+        assert solveTrace != null : "SolveTrace must be set before calling playStepByStepSolution()";
 
         stopGame(); // Stop the ongoing game session if we're currently playing.
         mazeRenderer.setDelaySupplier(delaySupplier);
-        mazeRenderer.animateSolution(stepByStepPath, isDFS, onFinished);
+        mazeRenderer.animateSolution(solveTrace, onFinished);
     }
 
     /// End the current running animation and display the end view
     /// If the current running animation was the maze generation, display the end maze
     /// If the current running animation was the solving, show the end result with the path found and visited cells colored
+    /// If a solving algorithm is running, stop it and display the maze without any solution
     public void endCurrentAnimation() {
+        cancelSolving();
         mazeRenderer.stopAnimation();
         resetMaze();
     }
 
     // Resets the maze to its "idle" state, the state where no animation is running, and no game's playing.
     private void resetMaze() {
-        if (mazeRenderer.isLastAnimIsGeneration() || stepByStepPath == null) {
+        if (mazeRenderer.isLastAnimIsGeneration() || solveTrace == null) {
             createMazeFX(); // Rebuild generated grid as it was by default
         } else {
             // Rebuild grid with end state of animation (visited cells + final path)
-            mazeRenderer.finishStepByStepSolving(stepByStepPath, isDFS);
+            mazeRenderer.finishStepByStepSolving(solveTrace);
         }
 
         if (statsContainer != null && statsContainer.getParent() == null) {
@@ -181,7 +244,7 @@ public class MazeController {
             GraphMaze maze = GraphMaze.load(fileInputStream);
             mazeRenderer.setGraphMaze(maze);
             mazeRenderer.setLog(null); // remove log of previous generation
-            stepByStepPath = null; // Remove the step by step path of the previous maze.
+            solveTrace = null; // Remove the solving trace of the previous maze.
             createMazeFX();
         }
     }
@@ -239,8 +302,9 @@ public class MazeController {
     /// Sets the maze renderer to use for this controller. Called every time a maze is created or loaded.
     /// @param mazeRenderer the maze renderer to use
     public void setMazeRenderer(MazeRenderer mazeRenderer) {
+        cancelSolving(); // Stop solving the previous maze
         this.mazeRenderer = mazeRenderer;
-        stepByStepPath = null; // Remove the step by step path of the previous maze.
+        solveTrace = null; // Remove the solving trace of the previous maze.
     }
 
     /// Returns the maze renderer used by this controller.
@@ -249,22 +313,16 @@ public class MazeController {
         return mazeRenderer;
     }
 
-    /// Returns the last computed step-by-step path created by a maze-solving algorithm.
-    /// @return the last computed step-by-step path
-    public List<Stack<Integer>> getStepByStepPath() {
-        return stepByStepPath;
-    }
-
-    /// Sets the step-by-step path created by a maze-solving algorithm.
-    /// @param stepByStepPath the step-by-step path to set
-    public void setStepByStepPath(List<Stack<Integer>> stepByStepPath) {
-        this.stepByStepPath = stepByStepPath;
+    /// Returns the last trace created by a step-by-step maze-solving algorithm.
+    /// @return the last computed solving trace, or null if there's none
+    public SolveTrace getSolveTrace() {
+        return solveTrace;
     }
 
-    /// Sets whether or not the last [step-by-step path][#setStepByStepPath(List)] was computed using a DFS algorithm.
-    /// @param DFS true when the last algo was a DFS algorithm, false otherwise
-    public void setDFS(boolean DFS) {
-        isDFS = DFS;
+    /// Sets the trace created by a step-by-step maze-solving algorithm.
+    /// @param solveTrace the solving trace to set
+    public void setSolveTrace(SolveTrace solveTrace) {
+        this.solveTrace = solveTrace;
     }
 
     /// Returns a property indicating if a game's currently running or not.
@@ -281,15 +339,10 @@ public class MazeController {
         return gameRunning.get();
     }
 
-    /// Flatten a [List<Stack<Integer>>] to a [Set<Integer>]
-    /// and get the total number of visited nodes of a step by step algorithm
-    /// @param stepByStepPath the list of stacks (paths) to flatten
-    /// @return total number of visited nodes of the `List<Stack<Integer>>` step by step solving history
-    public int getUniqueVisitedNodeCount(List<Stack<Integer>> stepByStepPath) {
-        Set<Integer> visited = new HashSet<>();
-        for (Stack<Integer> stack : stepByStepPath) {
-            visited.addAll(stack);
-        }
-        return visited.size();
+    /// Returns a property indicating if a solving algorithm is running, see [#solveMaze(MazeSolvingAlgorithm)].
+    ///
+    /// @return a property indicating if a solving algorithm is running
+    public ReadOnlyBooleanProperty solvingProperty() {
+        return solving;
     }
 }
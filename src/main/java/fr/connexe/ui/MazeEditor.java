@@ -1,19 +1,30 @@
 package fr.connexe.ui;
 
 import fr.connexe.algo.GraphMaze;
+import fr.connexe.algo.IncrementalPathfinder;
 import fr.connexe.algo.Point;
+import fr.connexe.algo.SolveListener;
 import javafx.scene.Node;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.Region;
 
+import java.util.function.Consumer;
+
 /// Class to manage the selection, deletion and addition of walls in the maze.
+///
+/// While editing, the shortest path between the start and the end is kept up to date with an
+/// [IncrementalPathfinder], and given to the [live path listener][#setLivePathListener(Consumer)]
+/// after every change.
 public class MazeEditor {
     //When selecting another wall, the old one must be unselected
     private Region lastSelectedCell = null;
     private Region lastNeighborCell = null;
     private Boolean isEditMode = false;
     private GraphMaze graphMaze;
+    // Repairs the shortest path after each change while editing; null when not editing.
+    private IncrementalPathfinder livePathfinder = null;
+    private Consumer<int[]> livePathListener = null;
 
     /// Constructor for the maze editor.
     public MazeEditor() {}
@@ -22,14 +33,59 @@ public class MazeEditor {
     ///
     /// @param graphMaze the maze to set
     public void setGraphMaze(GraphMaze graphMaze) {
+        stopLivePath();
         this.graphMaze = graphMaze;
+        if (isEditMode) {
+            startLivePath();
+        }
     }
 
-    /// Enables maze editing.
+    /// Enables maze editing. The shortest path is shown while editing, and hidden afterward.
     ///
     /// @param editMode true to enable editing, false to disable it
     public void setEditMode(boolean editMode) {
-        this.isEditMode = editMode;
+        if (editMode && !isEditMode) {
+            this.isEditMode = true;
+            startLivePath();
+        } else if (!editMode && isEditMode) {
+            this.isEditMode = false;
+            stopLivePath();
+        }
+    }
+
+    /// Sets the function receiving the shortest path from the start to the end while editing.
+    ///
+    /// It's called when editing starts, after every wall added or removed, and with an empty path when editing stops.
+    /// The path is empty too when the maze has no endpoints, or when the end can't be reached anymore.
+    ///
+    /// @param livePathListener the function receiving the vertices of the path, from start to end
+    public void setLivePathListener(Consumer<int[]> livePathListener) {
+        this.livePathListener = livePathListener;
+    }
+
+    /// Starts following the changes to the maze, and shows its current shortest path.
+    private void startLivePath() {
+        if (graphMaze == null || livePathListener == null) {
+            return;
+        }
+        livePathfinder = new IncrementalPathfinder(graphMaze);
+        refreshLivePath();
+    }
+
+    /// Stops following the changes to the maze, and hides the shortest path.
+    private void stopLivePath() {
+        if (livePathfinder != null) {
+            livePathfinder.close();
+            livePathfinder = null;
+            livePathListener.accept(new int[0]);
+        }
+    }
+
+    /// Repairs the shortest path after a change, and gives it to the listener.
+    private void refreshLivePath() {
+        if (livePathfinder != null) {
+            livePathListener.accept(livePathfinder.shortestPath(SolveListener.NONE));
+        }
     }
 
     /// Four possible directions for the walls of the labyrinth.
@@ -176,6 +232,17 @@ public class MazeEditor {
     /// @param row  the row of the cell
     /// @return the cell at the given position in the grid, or null if the cell doesn't exist in the grid or is not a Region.
     public Region getCellFromGrid(GridPane grid, int col, int row) {
+        // Cells are added row by row, so the cell is usually at this index: check it first
+        int index = row * graphMaze.getWidth() + col;
+        if (index >= 0 && index < grid.getChildren().size()) {
+            Node node = grid.getChildren().get(index);
+            if (node instanceof Region region
+                    && Integer.valueOf(col).equals(GridPane.getColumnIndex(node))
+                    && Integer.valueOf(row).equals(GridPane.getRowIndex(node))) {
+                return region;
+            }
+        }
+
         for (Node node : grid.getChildren()) {
             Integer nodeCol = GridPane.getColumnIndex(node);
             Integer nodeRow = GridPane.getRowIndex(node);
@@ -235,6 +302,9 @@ public class MazeEditor {
         style += "-fx-border-color: " + String.join(" ", colors) + ";";
         gridCell.setStyle(style);
         gridCell.getProperties().put("initialStyle", style);
+
+        // The walls changed: show the new shortest path
+        refreshLivePath();
     }
 
     /// Clears all the red borders of the maze.
@@ -4,8 +4,11 @@ import fr.connexe.algo.ArrayMaze;
 import fr.connexe.algo.Cell;
 import fr.connexe.algo.GraphMaze;
 import fr.connexe.algo.Point;
+import fr.connexe.algo.SolveListener;
+import fr.connexe.algo.SolveTrace;
 import fr.connexe.algo.generation.MazeGenLog;
 import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.geometry.Insets;
 import javafx.scene.Node;
@@ -16,6 +19,7 @@ import javafx.scene.shape.*;
 import javafx.util.Duration;
 
 import java.util.*;
+import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
 
 ///  Renderer for a GraphMaze as a JavaFX GridPane
@@ -28,10 +32,13 @@ public class MazeRenderer {
     private PauseTransition currentPause;
     private boolean lastAnimIsGeneration;
     private final MazeEditor mazeEditor = new MazeEditor();
+    private int[] livePath = new int[0]; // shortest path shown while editing
 
 
     /// Initialize a maze renderer about to take a maze which parameters will be set by a user
-    public MazeRenderer(){}
+    public MazeRenderer(){
+        mazeEditor.setLivePathListener(this::showLivePath);
+    }
 
     /// Get maze editor.
     /// @return mazeEditor object
@@ -46,6 +53,7 @@ public class MazeRenderer {
 
         // Initialize a new GridPane object for the renderer's grid and build the maze
         this.grid = initMazeGrid();
+        livePath = new int[0];
         buildWalls(arrayMaze);
     }
 
@@ -139,6 +147,7 @@ public class MazeRenderer {
 
         // Reset the grid's cells and build new ones
         grid.getChildren().clear();
+        livePath = new int[0];
         buildWalls(maze);
     }
 
@@ -279,50 +288,39 @@ public class MazeRenderer {
 
 
     /// Animate the solution step by step
-    /// @param totalSteps history of steps taken by the solving algorithm
-    /// @param isDFS if the solving algorithm chosen is DFS, the `animateSolution` method has a different behavior
+    /// @param trace history of steps taken by the solving algorithm, with the path found
     /// @param onFinished method to execute after animation is finished
-    public void animateSolution(List<Stack<Integer>> totalSteps,  boolean isDFS, Runnable onFinished){
-        assert graphMaze != null : "GraphMaze must be set before calling animateDijkstraSolution()";
-        assert grid != null : "Grid must be built first before calling animateDijkstraSolution()";
+    public void animateSolution(SolveTrace trace, Runnable onFinished){
+        assert graphMaze != null : "GraphMaze must be set before calling animateSolution()";
+        assert grid != null : "Grid must be built first before calling animateSolution()";
 
         clearGridColor();
         lastAnimIsGeneration = false; // for the stop button to know what end result to fast forward to
 
-        // Reverse history of all steps in chronological order
-        List<Stack<Integer>> chronologicalSteps = totalSteps.reversed();
-
-        if(isDFS){
-            // Flatten all paths into a singular one (skip final path at index 0) to animate node by node
-            List<Integer> flattened = flattenPaths(chronologicalSteps.subList(1, chronologicalSteps.size()));
-
-            // Start playing animation from the step of the DFS algorithm (first tested path) (index 0 is the final path)
-            // Transmit final path for the final path animation
-            playNodeByNodeDFS(0, flattened, totalSteps.getLast(), onFinished);
-        } else {
-            // Start playing animation from the first step of the solving algorithm (index 0 is the final path)
-            playSolutionStep(1, chronologicalSteps,onFinished);
-        }
+        // Start playing animation from the first event of the solving algorithm
+        playSolutionStep(trace.cursor(), trace, onFinished);
     }
 
-    /// Animate a step of the solution history, then go to the next one
-    /// @param step index of the step
-    /// @param totalSteps solving algorithm history of steps
+    /// Animate the next event of the solution history, then go to the next one
+    /// @param cursor cursor on the solving algorithm history, placed before the event to animate
+    /// @param trace solving algorithm history of steps
     /// @param onFinished method to execute after animation is finished
-    private void playSolutionStep(int step, List<Stack<Integer>> totalSteps, Runnable onFinished){
-        if (step > totalSteps.size()-1) { // animation is finished, play the animation for the final path
-            playFinalSolutionStep(0, totalSteps.getFirst(), onFinished); // final path must be at first index of totalSteps
+    private void playSolutionStep(SolveTrace.Cursor cursor, SolveTrace trace, Runnable onFinished){
+        // Skip events which don't change the grid
+        boolean hasNext = cursor.next();
+        while (hasNext && visitColorClass(cursor.kind()) == null) {
+            hasNext = cursor.next();
+        }
+
+        if (!hasNext) { // animation is finished, play the animation for the final path
+            playFinalSolutionStep(0, trace, onFinished);
             return;
         }
-        // Retrieve intermediate step (current stack history)
-        Stack<Integer> stepStack = totalSteps.get(step);
 
-        // Dijkstra and Clockwise keep an entire history of visited nodes, the top of the stack being the newest visited one
-        // Retrieve newest visited vertex (top of the stack) and color its cell visited
-        int visitedVertex = stepStack.peek();
-        Point vertexCoordinates = graphMaze.toPoint(visitedVertex);
+        // Color the visited vertex (or the one we went back to) as visited
+        Point vertexCoordinates = graphMaze.toPoint(cursor.vertex());
         Node cell = getCellNode(vertexCoordinates);
-        setCellColor(cell, "cell-color-visited");
+        setCellColor(cell, visitColorClass(cursor.kind()));
 
         // Query the current delay (animation speed) from the supplier
         double currentDelayMs = delaySupplier != null ? delaySupplier.get() : 500;
@@ -331,22 +329,22 @@ public class MazeRenderer {
 
         // Wait for a certain time delay without freezing the UI thread then go to the next step
         currentPause = new PauseTransition(Duration.millis(currentDelayMs));
-        currentPause.setOnFinished(e -> playSolutionStep(step + 1, totalSteps, onFinished));
+        currentPause.setOnFinished(e -> playSolutionStep(cursor, trace, onFinished));
         currentPause.play();
     }
 
     /// Animate a step (node) of the solution path, then go to the next one
     /// @param step index of the solution node
-    /// @param solution solution path
+    /// @param trace solving algorithm history, containing the solution path
     /// @param onFinished method to execute after animation is finished
-    private void playFinalSolutionStep(int step, Stack<Integer> solution, Runnable onFinished){
-        if (step > solution.size()-1) { // animation is finished, stop the whole running animation
+    private void playFinalSolutionStep(int step, SolveTrace trace, Runnable onFinished){
+        if (step > trace.pathLength()-1) { // animation is finished, stop the whole running animation
             if (onFinished != null) onFinished.run();
             return;
         }
 
         // Retrieve the current solution vertex in the solution path
-        Point vertexCoordinates = graphMaze.toPoint(solution.get(step));
+        Point vertexCoordinates = graphMaze.toPoint(trace.pathVertex(step));
         Node cell = getCellNode(vertexCoordinates);
         setCellColor(cell, "cell-color-path");
 
@@ -357,80 +355,62 @@ public class MazeRenderer {
 
         // Wait for a certain time delay without freezing the UI thread then go to the next step
         currentPause = new PauseTransition(Duration.millis(currentDelayMs));
-        currentPause.setOnFinished(e -> playFinalSolutionStep(step + 1, solution, onFinished));
-        currentPause.play();
-
-        //if(onFinished != null) onFinished.run();
-    }
-
-    /// Animate a step (visited node) of the DFS algorithm, then go to the next one
-    /// @param index index of the visited node
-    /// @param visitedNodes list of all visited nodes flattened in order of visit
-    /// @param onFinished method to execute after animation is finished
-    private void playNodeByNodeDFS(int index, List<Integer> visitedNodes, Stack<Integer> solution, Runnable onFinished) {
-        if (index > visitedNodes.size()-1) { // animation is finished
-            playFinalSolutionStep(0, solution, onFinished);
-            return;
-        }
-
-        // Retrieve first visited node, color it visited
-        int visitedVertex = visitedNodes.get(index);
-        Point vertexCoordinates = graphMaze.toPoint(visitedVertex);
-        Node cell = getCellNode(vertexCoordinates);
-        setCellColor(cell, "cell-color-visited");
-
-        // Query the current delay (animation speed) from the supplier
-        double currentDelayMs = delaySupplier != null ? delaySupplier.get() : 500;
-
-        stopCurrentPause(); // stop previous animation if needed
-
-        // Wait for a certain time delay without freezing the UI thread then go to the next step
-        currentPause = new PauseTransition(Duration.millis(currentDelayMs));
-        currentPause.setOnFinished(e -> playNodeByNodeDFS(index + 1, visitedNodes, solution, onFinished));
+        currentPause.setOnFinished(e -> playFinalSolutionStep(step + 1, trace, onFinished));
         currentPause.play();
     }
 
     /// Give the finished grid result of the step by step solving algorithm with the visited cells displayed
-    /// @param totalSteps solving algorithm history of steps
-    /// @param isDFS building of finished grid result has a different behavior if the chosen solving algorithm is DFS
-    public void finishStepByStepSolving(List<Stack<Integer>> totalSteps,  boolean isDFS){
-        assert graphMaze != null : "GraphMaze must be set before calling animateDijkstraSolution()";
-        assert grid != null : "Grid must be built first before calling animateDijkstraSolution()";
+    /// @param trace solving algorithm history of steps, with the path found
+    public void finishStepByStepSolving(SolveTrace trace){
+        assert graphMaze != null : "GraphMaze must be set before calling finishStepByStepSolving()";
+        assert grid != null : "Grid must be built first before calling finishStepByStepSolving()";
 
         clearGridColor();
 
-        // Reverse history of all steps in chronological order
-        List<Stack<Integer>> chronologicalSteps = totalSteps.reversed();
-
-        if(isDFS){
-            // Flatten all paths into a singular one (skip final path at index 0)
-            List<Integer> flattened = flattenPaths(chronologicalSteps.subList(1, chronologicalSteps.size()));
-            for(int visitedVertex : flattened){ // for all visited nodes in order, color it as visited
-                Point vertexCoordinates = graphMaze.toPoint(visitedVertex);
-                Node cell = getCellNode(vertexCoordinates);
-                setCellColor(cell, "cell-color-visited");
-            }
-        } else {
-            // For all stack steps, retrieve the newest visited vertex (top of the stack) and color its cell visited
-            for(Stack<Integer> step : chronologicalSteps){
-                int visitedVertex = step.peek();
-                Point vertexCoordinates = graphMaze.toPoint(visitedVertex);
+        // Color every cell visited by the algorithm, in the color of the search which found it
+        for (int i = 0; i < trace.size(); i++) {
+            String colorClass = visitColorClass(trace.kind(i));
+            if (colorClass != null) {
+                Point vertexCoordinates = graphMaze.toPoint(trace.vertex(i));
                 Node cell = getCellNode(vertexCoordinates);
-                setCellColor(cell, "cell-color-visited");
+                setCellColor(cell, colorClass);
             }
         }
 
-        // Retrieve solution path
-        Stack<Integer> solutionPath =  totalSteps.getLast();
-
         // Color all cells of solution path with solution color
-        for(int solutionVertex : solutionPath){
-            Point vertexCoordinates = graphMaze.toPoint(solutionVertex);
+        for (int i = 0; i < trace.pathLength(); i++) {
+            Point vertexCoordinates = graphMaze.toPoint(trace.pathVertex(i));
             Node cell = getCellNode(vertexCoordinates);
             setCellColor(cell, "cell-color-path");
         }
     }
 
+    /// Creates a listener coloring the cells visited by a solving algorithm **while it runs** on another thread.
+    ///
+    /// Steps are gathered by the listener, then shown all at once on the JavaFX thread, so the UI isn't flooded
+    /// with one update per step. The grid isn't cleared beforehand.
+    /// @param cancelled tells if the algorithm was cancelled; queried from both threads. Once true, the listener
+    ///                  stops the algorithm and no more cells are colored.
+    /// @return the listener to give to the solving algorithm
+    public SolveListener liveSolution(BooleanSupplier cancelled) {
+        assert graphMaze != null : "GraphMaze must be set before calling liveSolution()";
+        assert grid != null : "Grid must be built first before calling liveSolution()";
+
+        lastAnimIsGeneration = false; // for the stop button to know what end result to fast forward to
+        return new LiveSolution(cancelled);
+    }
+
+    /// Gives the color of a cell after a solving event
+    /// @param kind the kind of event
+    /// @return the CSS color class of the cell, or null if the event doesn't change the cell's color
+    private static String visitColorClass(SolveTrace.Kind kind) {
+        return switch (kind) {
+            case VISIT, BACKTRACK -> "cell-color-visited";
+            case VISIT_FROM_END -> "cell-color-visited-end"; // Bidirectional searches have two frontiers
+            case BLOCK -> "cell-color-filled"; // Dead ends, filled by dead-end filling or left by a DFS
+        };
+    }
+
     /// Stop current running animation
     public void stopAnimation() {
         stopCurrentPause();
@@ -444,25 +424,20 @@ public class MazeRenderer {
         }
     }
 
-    /// Flatten a [List<Stack<Integer>>] into a simple 1-dimensional [List]
-    /// Used to flatten DFS all visited paths into a singular one in order of visited nodes (no duplicates)
-    /// @return a flattened 1-dimensional [List] of all visited vertex in order of visit
-    /// Each node appear only once, no backtracking simulated
-    private List<Integer> flattenPaths(List<Stack<Integer>> totalSteps) {
-        // Convert first as a LinkedHashSet to remove duplicates while preserving order of insertion of nodes
-        Set<Integer> steps = new LinkedHashSet<>();
-        for (Stack<Integer> path : totalSteps) {
-            // Append all visited nodes in order
-            steps.addAll(path);
-        }
-        List<Integer> uniqueVisitedNodes = new ArrayList<>(steps);
-        return uniqueVisitedNodes;
-    }
-
     /// Access the children of the maze's [GridPane] at a specific column and row index given by [Point] coordinates.
     /// @param coordinates (col, row) coordinates of the cell to retrieve
     /// @return the JavaFX cell [Node] in the [GridPane] at the given coordinates
     public Node getCellNode(Point coordinates) {
+        // Cells are added row by row in buildWalls, so the cell is usually at this index: check it first
+        int index = coordinates.y() * grid.getColumnCount() + coordinates.x();
+        if (index >= 0 && index < grid.getChildren().size()) {
+            Node node = grid.getChildren().get(index);
+            if (Objects.equals(GridPane.getRowIndex(node), coordinates.y())
+                    && Objects.equals(GridPane.getColumnIndex(node), coordinates.x())) {
+                return node;
+            }
+        }
+
         for (Node node : grid.getChildren()) {
             Integer rowIndex = GridPane.getRowIndex(node);
             Integer colIndex = GridPane.getColumnIndex(node);
@@ -493,6 +468,36 @@ public class MazeRenderer {
         for (Node node : grid.getChildren()) {
             setCellColor(node, "cell-color-default");
         }
+        livePath = new int[0];
+    }
+
+    /// Shows the shortest path found while editing the maze, in place of the previous one.
+    ///
+    /// Only the cells which joined or left the path are colored again, so big mazes stay responsive
+    /// while walls are being added or removed.
+    /// @param path the vertices of the new path, or an empty array to hide it
+    private void showLivePath(int[] path) {
+        if (grid == null) {
+            return;
+        }
+
+        BitSet onPath = new BitSet(graphMaze.getNumCells());
+        for (int vertex : path) {
+            onPath.set(vertex);
+        }
+        BitSet wasOnPath = new BitSet(graphMaze.getNumCells());
+        for (int vertex : livePath) {
+            wasOnPath.set(vertex);
+            if (!onPath.get(vertex)) {
+                setCellColor(getCellNode(graphMaze.toPoint(vertex)), "cell-color-default");
+            }
+        }
+        for (int vertex : path) {
+            if (!wasOnPath.get(vertex)) {
+                setCellColor(getCellNode(graphMaze.toPoint(vertex)), "cell-color-path");
+            }
+        }
+        livePath = path;
     }
 
     /// Returns the maze rendered by this renderer
@@ -543,4 +548,84 @@ public class MazeRenderer {
     public boolean isLastAnimIsGeneration(){
         return lastAnimIsGeneration;
     }
-}
\ No newline at end of file
+
+    // Colors the cells visited by a solving algorithm running on another thread, a batch of steps at a time.
+    private final class LiveSolution implements SolveListener {
+        private final BooleanSupplier cancelled;
+
+        // Steps not shown yet, and whether a batch is already waiting for the JavaFX thread. Guarded by this.
+        private int[] vertices = new int[256];
+        private SolveTrace.Kind[] kinds = new SolveTrace.Kind[256];
+        private int size = 0;
+        private boolean showQueued = false;
+
+        LiveSolution(BooleanSupplier cancelled) {
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        public void onVisit(int vertex) {
+            add(SolveTrace.Kind.VISIT, vertex);
+        }
+
+        @Override
+        public void onVisitFromEnd(int vertex) {
+            add(SolveTrace.Kind.VISIT_FROM_END, vertex);
+        }
+
+        @Override
+        public void onBacktrack(int vertex) {
+            add(SolveTrace.Kind.BACKTRACK, vertex);
+        }
+
+        @Override
+        public void onBlock(int vertex) {
+            add(SolveTrace.Kind.BLOCK, vertex);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled.getAsBoolean();
+        }
+
+        // Adds a step to the batch, and asks the JavaFX thread to show it if it wasn't asked already.
+        private synchronized void add(SolveTrace.Kind kind, int vertex) {
+            if (size == vertices.length) {
+                vertices = Arrays.copyOf(vertices, size * 2);
+                kinds = Arrays.copyOf(kinds, size * 2);
+            }
+            vertices[size] = vertex;
+            kinds[size] = kind;
+            size++;
+
+            if (!showQueued) {
+                showQueued = true;
+                Platform.runLater(this::showBatch);
+            }
+        }
+
+        // Colors the cells of all steps gathered since the last batch. Runs on the JavaFX thread.
+        private void showBatch() {
+            int[] batchVertices;
+            SolveTrace.Kind[] batchKinds;
+            int batchSize;
+            synchronized (this) {
+                batchVertices = vertices;
+                batchKinds = kinds;
+                batchSize = size;
+                vertices = new int[vertices.length];
+                kinds = new SolveTrace.Kind[kinds.length];
+                size = 0;
+                showQueued = false;
+            }
+
+            if (cancelled.getAsBoolean()) {
+                return; // The grid may have been reset already: leave it as it is.
+            }
+            for (int i = 0; i < batchSize; i++) {
+                Node cell = getCellNode(graphMaze.toPoint(batchVertices[i]));
+                setCellColor(cell, visitColorClass(batchKinds[i]));
+            }
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package fr.connexe.ui;
 
 import fr.connexe.algo.InvalidVertexException;
+import fr.connexe.algo.generation.DifficultySearch;
+import fr.connexe.algo.generation.DifficultyTarget;
 import fr.connexe.algo.generation.Endpoints;
 import fr.connexe.algo.generation.MazeGenResult;
-import fr.connexe.algo.generation.MazeGenerator;
+import fr.connexe.algo.generation.MazeGenerationAlgorithm;
+import fr.connexe.algo.generation.MazeGenerationAlgorithms;
 import javafx.beans.value.ChangeListener;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
+import javafx.util.StringConverter;
+
+import java.util.Optional;
+
+import static fr.connexe.algo.generation.MazeGenerator.braid;
 import static fr.connexe.algo.generation.MazeGenerator.introduceChaos;
 
 /// Controller for the Maze Creation Dialog box (triggered when User clicks on "New" menu item)
@@ -29,7 +37,7 @@ public class NewMazeDialogController {
     private Spinner<Integer> endSpinner;
 
     @FXML
-    private RadioButton primRadio;
+    private ComboBox<MazeGenerationAlgorithm> algorithmComboBox;
 
     @FXML
     private RadioButton seedRadio;
@@ -46,6 +54,24 @@ public class NewMazeDialogController {
     @FXML
     private Spinner<Double> chaosPercentageSpinner;
 
+    @FXML
+    private CheckBox braidCheckBox;
+
+    @FXML
+    private Spinner<Double> braidPercentageSpinner;
+
+    @FXML
+    private Label settingLabel;
+
+    @FXML
+    private Spinner<Integer> settingSpinner;
+
+    @FXML
+    private CheckBox targetDifficultyCheckBox;
+
+    @FXML
+    private ComboBox<DifficultyTarget.Level> difficultyComboBox;
+
     private boolean okClicked = false;
 
     /// Called by JavaFX to create the controller instance.
@@ -107,6 +133,63 @@ public class NewMazeDialogController {
             chaosPercentageSpinner.setDisable(isNowSelected);
             chaosPercentageLabel.setDisable(isNowSelected);
         });
+
+        // List all generation algorithms from the registry, showing their display name
+        algorithmComboBox.getItems().setAll(MazeGenerationAlgorithms.all());
+        algorithmComboBox.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(MazeGenerationAlgorithm algorithm) {
+                return algorithm == null ? "" : algorithm.descriptor().displayName();
+            }
+
+            @Override
+            public MazeGenerationAlgorithm fromString(String string) {
+                return null; // Not editable
+            }
+        });
+
+        // Restrict input values for the braid spinner: the fraction of dead ends to remove
+        SpinnerValueFactory.DoubleSpinnerValueFactory braidFactory =
+                new SpinnerValueFactory.DoubleSpinnerValueFactory(0.00, 1.00, 0.50, 0.05);
+        braidPercentageSpinner.setValueFactory(braidFactory);
+
+        // Only enable the braid percentage when braiding is wanted
+        braidCheckBox.selectedProperty().addListener((obs, wasSelected, isNowSelected) -> {
+            braidPercentageSpinner.setDisable(!isNowSelected);
+        });
+
+        // Show the setting of the selected algorithm, if it has one, with its name and bounds
+        algorithmComboBox.valueProperty().addListener((obs, oldAlgo, newAlgo) -> {
+            var setting = newAlgo == null ? Optional.<MazeGenerationAlgorithm.Setting>empty() : newAlgo.setting();
+            setting.ifPresent(s -> {
+                settingLabel.setText(s.displayName());
+                settingSpinner.setValueFactory(new SpinnerValueFactory.IntegerSpinnerValueFactory(
+                        s.min(), s.max(), s.defaultValue(), s.step()));
+            });
+            settingSpinner.setDisable(setting.isEmpty());
+            settingLabel.setDisable(setting.isEmpty());
+        });
+        algorithmComboBox.getSelectionModel().selectFirst();
+
+        // List all difficulty levels, showing their display name
+        difficultyComboBox.getItems().setAll(DifficultyTarget.Level.values());
+        difficultyComboBox.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(DifficultyTarget.Level level) {
+                return level == null ? "" : level.displayName();
+            }
+
+            @Override
+            public DifficultyTarget.Level fromString(String string) {
+                return null; // Not editable
+            }
+        });
+        difficultyComboBox.setValue(DifficultyTarget.Level.MEDIUM);
+
+        // Only enable the difficulty level when a target difficulty is wanted
+        targetDifficultyCheckBox.selectedProperty().addListener((obs, wasSelected, isNowSelected) -> {
+            difficultyComboBox.setDisable(!isNowSelected);
+        });
     }
 
     /// Called when a user clicks ok.
@@ -125,12 +208,8 @@ public class NewMazeDialogController {
             // Setup entry/exit of maze with given vertex IDs
             Endpoints endpoints = new Endpoints(startSpinner.getValue(), endSpinner.getValue());
 
-            // Use the chosen generation method depending on the selected radio button
-            if(primRadio.isSelected()) {
-                generatedMaze = MazeGenerator.makePrim(colSpinner.getValue(), rowSpinner.getValue(), endpoints, seed);
-            } else {
-                generatedMaze = MazeGenerator.makeDFS(colSpinner.getValue(), rowSpinner.getValue(), endpoints, seed);
-            }
+            // Use the chosen generation algorithm
+            generatedMaze = generate(endpoints, seed);
 
             mazeRenderer.setGraphMaze(generatedMaze.maze());
             mazeRenderer.setLog(generatedMaze.log());
@@ -141,11 +220,7 @@ public class NewMazeDialogController {
                             "Des valeurs par défaut ont été choisies.");
 
             // No endpoints specified = default fallback values set by the generation methods (start = 0; end = n-1)
-            if(primRadio.isSelected()) {
-                generatedMaze = MazeGenerator.makePrim(colSpinner.getValue(), rowSpinner.getValue(), null, seed);
-            } else {
-                generatedMaze = MazeGenerator.makeDFS(colSpinner.getValue(), rowSpinner.getValue(), null, seed);
-            }
+            generatedMaze = generate(null, seed);
 
             mazeRenderer.setGraphMaze(generatedMaze.maze());
             mazeRenderer.setLog(generatedMaze.log());
@@ -153,17 +228,71 @@ public class NewMazeDialogController {
         } finally {
             // Introduce chaos to perfect maze to make it non-perfect if checkbox isn't selected
             // Required to do AFTER setting the start and end
-            if(!perfectMazeCheckBox.isSelected()) {
+            // (With a target difficulty, chaos has already been introduced in each candidate)
+            if(!perfectMazeCheckBox.isSelected() && !targetDifficultyCheckBox.isSelected()) {
                 MazeGenResult mazeGenResult = new MazeGenResult(mazeRenderer.getGraphMaze(), mazeRenderer.getLog());
                 introduceChaos(mazeGenResult, chaosPercentageSpinner.getValue().floatValue(), seed);
                 mazeRenderer.setGraphMaze(mazeGenResult.maze());
                 mazeRenderer.setLog(mazeGenResult.log());
             }
+            // Remove some dead ends, for arcade modes which play better with fewer of them
+            // (With a target difficulty, each candidate has already been braided)
+            if(braidCheckBox.isSelected() && !targetDifficultyCheckBox.isSelected()) {
+                MazeGenResult mazeGenResult = new MazeGenResult(mazeRenderer.getGraphMaze(), mazeRenderer.getLog());
+                braid(mazeGenResult, braidPercentageSpinner.getValue().floatValue(), seed);
+                mazeRenderer.setGraphMaze(mazeGenResult.maze());
+                mazeRenderer.setLog(mazeGenResult.log());
+            }
             okClicked = true;
             dialogStage.close();
         }
     }
 
+    /// Generates a maze using the selected algorithm.
+    /// @param endpoints the entry/exit of the maze, or `null` for default values
+    /// @param seed the seed to use, or `null` for a random one
+    /// @return the generated maze
+    private MazeGenResult generate(Endpoints endpoints, Long seed) {
+        MazeGenerationAlgorithm algorithm = algorithmComboBox.getValue();
+
+        // Apply the chosen value of the algorithm's setting, if it has one
+        if(algorithm.setting().isPresent()) {
+            algorithm = algorithm.withSetting(settingSpinner.getValue());
+        }
+
+        int width = colSpinner.getValue();
+        int height = rowSpinner.getValue();
+        if(!targetDifficultyCheckBox.isSelected()) {
+            return algorithm.generate(width, height, endpoints, seed);
+        }
+
+        // Target difficulty: generate many mazes and keep the first one with the right difficulty.
+        // Chaos and braiding change the difficulty, so they must be applied to each candidate.
+        MazeGenerationAlgorithm chosenAlgorithm = algorithm;
+        boolean perfect = perfectMazeCheckBox.isSelected();
+        float chaos = chaosPercentageSpinner.getValue().floatValue();
+        Float braidFraction = braidCheckBox.isSelected() ? braidPercentageSpinner.getValue().floatValue() : null;
+        DifficultyTarget target = DifficultyTarget.preset(difficultyComboBox.getValue(), width, height);
+
+        DifficultySearch.Result result = DifficultySearch.search(candidateSeed -> {
+            MazeGenResult candidate = chosenAlgorithm.generate(width, height, endpoints, candidateSeed);
+            if(!perfect) {
+                introduceChaos(candidate, chaos, candidateSeed);
+            }
+            if(braidFraction != null) {
+                braid(candidate, braidFraction, candidateSeed);
+            }
+            return candidate;
+        }, seed, target, DifficultySearch.DEFAULT_MAX_CANDIDATES);
+
+        if(!result.targetMet()) {
+            showWarning("Difficulté non atteinte",
+                    "Aucun labyrinthe de cette difficulté n'a été trouvé après " + result.candidates() + " essais.\n" +
+                            "Le labyrinthe le plus proche a été choisi.");
+        }
+        return result.result();
+    }
+
     ///  Called when a user clicks on the Cancel button
     @FXML
     private void handleCancel() {
@@ -1,12 +1,11 @@
 package fr.connexe.ui;
 
-import fr.connexe.algo.MazeSolver;
+import fr.connexe.algo.solving.MazeSolvingAlgorithm;
+import fr.connexe.algo.solving.MazeSolvingAlgorithms;
 import javafx.fxml.FXML;
-import javafx.scene.control.RadioButton;
+import javafx.scene.control.ComboBox;
 import javafx.stage.Stage;
-
-import java.util.List;
-import java.util.Stack;
+import javafx.util.StringConverter;
 
 /// The controller for the "Solve Maze" dialog.
 public class SolveMazeController {
@@ -15,62 +14,37 @@ public class SolveMazeController {
     boolean okClicked = false;
 
     @FXML
-    private RadioButton dijkstraRadio;
-
-    @FXML
-    private RadioButton dfsRadio;
-
-    @FXML
-    private RadioButton clockwiseRadio;
-
-    @FXML
-    private RadioButton leftHandRadio;
+    private ComboBox<MazeSolvingAlgorithm> algorithmComboBox;
 
     /// Called by the FXML loader to initialize the controller.
     public SolveMazeController() {}
 
+    @FXML
+    private void initialize() {
+        // List all solving algorithms from the registry, showing their display name
+        algorithmComboBox.getItems().setAll(MazeSolvingAlgorithms.all());
+        algorithmComboBox.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(MazeSolvingAlgorithm algorithm) {
+                return algorithm == null ? "" : algorithm.descriptor().displayName();
+            }
+
+            @Override
+            public MazeSolvingAlgorithm fromString(String string) {
+                return null; // Not editable
+            }
+        });
+        algorithmComboBox.getSelectionModel().selectFirst();
+    }
+
     ///  Called when a user clicks on the Solve button
     @FXML
     private void handleOk() {
         okClicked = true;
 
-        // Contains steps in reverse chronological order + final path at last
-        // Index 0 : final step (everything visited)
-        // Index n-1 : first step
-        // Index n : final solution path
-        List<Stack<Integer>> stepByStepPath;
-
-        long startTime;
-        long endTime;
-
-        mazeController.setDFS(false); // reset
-
-        // Check which radio button was selected for solving method,
-        // and executes the solving algorithm to pass the solution to MazeController
-        // Also measures the execution time of the chosen solving method
-        startTime = System.nanoTime();
-        if(dijkstraRadio.isSelected()) { // Solve for Dijkstra
-            stepByStepPath = MazeSolver.solveDijkstra2(mazeController.getMazeRenderer().getGraphMaze());
-        }
-        else if (dfsRadio.isSelected()) { // Solve for DFS
-            stepByStepPath = MazeSolver.prepDFS2(mazeController.getMazeRenderer().getGraphMaze());
-            mazeController.setDFS(true); // necessary for differentiated behavior of DFS animation
-        }
-        else if (clockwiseRadio.isSelected()){ // Solve for Clockwise
-            stepByStepPath = MazeSolver.prepClockwise2(mazeController.getMazeRenderer().getGraphMaze());
-        }
-        else if (leftHandRadio.isSelected()) { // Solve for Left-Hand
-            stepByStepPath = MazeSolver.prepLeftHand2(mazeController.getMazeRenderer().getGraphMaze());
-        } else { // Solve for A*
-            stepByStepPath = MazeSolver.solveAStar(mazeController.getMazeRenderer().getGraphMaze());
-        }
-        endTime = System.nanoTime();
-
-        // Build the solution path
-        mazeController.setStepByStepPath(stepByStepPath);
-        long executionTime = endTime - startTime;
-        mazeController.buildSolutionPath(executionTime);
-        System.out.println("Solution path : " + stepByStepPath.getLast());
+        // Solve the maze in the background with the selected algorithm: the visited cells are shown as it goes,
+        // then the solution is passed to MazeController. The Stop button cancels it.
+        mazeController.solveMaze(algorithmComboBox.getValue());
 
         dialogStage.close();
     }
@@ -2,6 +2,8 @@ package fr.connexe.ui.game;
 
 import fr.connexe.ConnexeApp;
 import fr.connexe.algo.ArrayMaze;
+import fr.connexe.algo.ComponentIndex;
+import fr.connexe.algo.DistanceField;
 import fr.connexe.algo.GraphMaze;
 import fr.connexe.algo.MazeSolver;
 import fr.connexe.algo.Point;
@@ -159,7 +161,10 @@ public class GameSession {
         if (gameMode == GameMode.FURTIVITY) {
             // In furtivity mode, we need to put a random endpoint for the maze.
             GraphMaze furtiveMaze = maze.clone();
-            furtiveMaze.setEndpoints(maze.getStart(), pickRandomEndpoint(furtiveMaze));
+            furtiveMaze.setEndpoints(maze.getStart(), pickRandomEndpoint(maze));
+
+            // Measure the distance to the end now, so players can use it to pulse without lagging later.
+            DistanceField.of(furtiveMaze, furtiveMaze.getEnd());
 
             this.maze = furtiveMaze;
         } else {
@@ -167,7 +172,7 @@ public class GameSession {
             this.maze = maze;
 
             // ...But make sure there's a path from start to end!
-            if (MazeSolver.prepDFS(maze).isEmpty()) {
+            if (!MazeSolver.hasPath(maze)) {
                 // No path from start to end; throw an exception.
                 throw new IncompatibleMazeException("Le labyrinthe n'a pas de chemin entre le début et la fin !");
             }
@@ -218,49 +223,36 @@ public class GameSession {
         // Vertices close to the start point have a low weight.
         record Vertex(int id, double weight) {}
 
-        // --- Do a BFS search for all vertices starting from the start cell ---
-        // The BFS will give us the shortest distance from the start cell to all other cells.
-        // Using this, we can calculate the weights of all vertices, and of course see which ones
-        // are accessible.
-        var vertices = new ArrayList<Vertex>(); // Found vertices, except the start one
-        var enqueued = new boolean[maze.getNumCells()]; // True when vertex i has been in inserted in the queue once
-        var dist = new int[maze.getNumCells()]; // Distance from the start vertex
-        double weightSum = 0.0; // Sum of all weights
+        // The cells we can reach are the ones in the component of the start cell: when it's alone in it,
+        // there's no need to measure anything. The index is kept with the maze, so this is instant for
+        // mazes that were already played.
+        int reachableCount = ComponentIndex.of(maze).componentSize(start) - 1;
+        if (reachableCount == 0) {
+            // No vertices found; the maze is probably surrounded by walls.
+            throw new IncompatibleMazeException("La case de départ est entièrement entourée de murs, " +
+                    "impossible d'être furtif dans ces conditions !");
+        }
 
-        // Queue for BFS traversal. Starts with... the start vertex! What a surprise!
-        var queue = new ArrayDeque<Integer>();
-        queue.offerLast(start);
+        // --- Measure the distance from the start cell to all other cells ---
+        // Using the distances, we can calculate the weights of all vertices, and of course see which ones
+        // are accessible. Huge mazes get their BFS levels spread on several threads, and the field is kept
+        // for the next games in this maze.
+        DistanceField field = DistanceField.of(maze, start);
+        var vertices = new ArrayList<Vertex>(reachableCount); // Accessible vertices, except the start one
+        double weightSum = 0.0; // Sum of all weights
 
-        // Begin BFS traversal loop
-        while (!queue.isEmpty()) {
-            // Grab the first vertex in the queue, and add it to the list if it's not the start vertex.
-            int cur = queue.pollFirst();
-            if (cur != start) {
+        for (int v = 0; v < maze.getNumCells(); v++) {
+            int dist = field.distanceTo(v);
+            if (dist > 0) {
                 // Give lower weights to very near vertices
                 // dist=1 -> 0.2
                 // dist>=9 -> 1.0
-                double weight = GameMath.lerp(0.2, 1.0, (dist[cur] - 1) / 8.0);
+                double weight = GameMath.lerp(0.2, 1.0, (dist - 1) / 8.0);
 
                 // Add it to the list and increase the total weight sum.
-                vertices.add(new Vertex(cur, weight));
+                vertices.add(new Vertex(v, weight));
                 weightSum += weight;
             }
-
-            // Look at all adjacent vertices to complete the BFS search.
-            for (int adj : maze.getAdjacentVertices(cur)) {
-                if (!enqueued[adj]) {
-                    // We didn't know about this one! Put it in the queue and "increment" the distance.
-                    queue.offerLast(adj);
-                    dist[adj] = dist[cur] + 1;
-                    enqueued[adj] = true;
-                }
-            }
-        }
-
-        if (vertices.isEmpty()) {
-            // No vertices found; the maze is probably surrounded by walls.
-            throw new IncompatibleMazeException("La case de départ est entièrement entourée de murs, " +
-                    "impossible d'être furtif dans ces conditions !");
         }
 
         // Pick a random number in [0, weightSum].
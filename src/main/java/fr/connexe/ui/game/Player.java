@@ -1,5 +1,6 @@
 package fr.connexe.ui.game;
 
+import fr.connexe.algo.DistanceField;
 import fr.connexe.algo.GraphMaze;
 import fr.connexe.algo.Point;
 import fr.connexe.ui.game.input.ControllerHub;
@@ -202,9 +203,9 @@ public class Player {
                 // Stop pulsing when we reach the end.
                 pulseProgress = 0;
             } else {
-                // Calculate the Manhattan distance to the end cell. We'll use this to adjust the pulse speed.
-                Point end = maze.getEndPoint();
-                int dist = Math.abs(end.x() - currentCell.x()) + Math.abs(end.y() - currentCell.y());
+                // Find the number of moves to the end cell. We'll use this to adjust the pulse speed.
+                // The distance field from the end is measured once for the maze, and shared by all players.
+                int dist = DistanceField.of(maze, maze.getEnd()).distanceTo(maze.toVertexId(currentCell));
 
                 if (dist > 0) {
                     // The further we are from the end, the longer the pulse lasts.
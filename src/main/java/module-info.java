@@ -7,4 +7,28 @@ open module fr.connexe {
     requires java.prefs;
     requires sdl2gdx;
     requires static org.jetbrains.annotations;
+
+    // Maze generation algorithms, listed by MazeGenerationAlgorithms in this order.
+    uses fr.connexe.algo.generation.MazeGenerationAlgorithm;
+    provides fr.connexe.algo.generation.MazeGenerationAlgorithm with
+            fr.connexe.algo.generation.PrimAlgorithm,
+            fr.connexe.algo.generation.DFSAlgorithm,
+            fr.connexe.algo.generation.GrowingTreeAlgorithm,
+            fr.connexe.algo.generation.RecursiveDivisionAlgorithm,
+            fr.connexe.algo.generation.EllerAlgorithm;
+
+    // Maze solving algorithms, listed by MazeSolvingAlgorithms in this order.
+    uses fr.connexe.algo.solving.MazeSolvingAlgorithm;
+    provides fr.connexe.algo.solving.MazeSolvingAlgorithm with
+            fr.connexe.algo.solving.DijkstraSolver,
+            fr.connexe.algo.solving.DFSSolver,
+            fr.connexe.algo.solving.ClockwiseSolver,
+            fr.connexe.algo.solving.LeftHandSolver,
+            fr.connexe.algo.solving.AStarSolver,
+            fr.connexe.algo.solving.ExactAStarSolver,
+            fr.connexe.algo.solving.BidirectionalBFSSolver,
+            fr.connexe.algo.solving.BidirectionalAStarSolver,
+            fr.connexe.algo.solving.JumpPointSolver,
+            fr.connexe.algo.solving.DeadEndFillingSolver,
+            fr.connexe.algo.solving.CorridorAStarSolver;
 }
\ No newline at end of file